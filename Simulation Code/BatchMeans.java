@@ -0,0 +1,133 @@
+package simulation;
+
+import java.util.Locale;
+
+/**
+ * The class {@code BatchMeans} to estimate the blocked and dropped calls rates
+ * from one long run by the method of batch means. The calls after the warm up
+ * period are split into at most {@value #MAX_BATCHES} batches, doubling the
+ * batch size until the lag-1 autocorrelation of the batch means of both
+ * rates is small enough for the batches to be treated as independent. The
+ * confidence intervals are then the Student t intervals of the batch means
+ */
+public class BatchMeans {
+
+    private static final int MIN_BATCHES = 10;
+    private static final int MAX_BATCHES = 1024;
+    private static final double MAX_AUTOCORRELATION = 0.1;
+
+    private int numberOfBatches;
+    private int callsPerBatch;
+    private boolean independent;
+    private double blockedCallsAutocorrelation;
+    private double droppedCallsAutocorrelation;
+    private RunningStatistics blockedCallsRate;
+    private RunningStatistics droppedCallsRate;
+    private double confidenceLevel;
+
+    // Constructor, analysing the bins of the series from the given first bin
+    public BatchMeans(OutcomeSeries series, int firstBin, double confidenceLevel) {
+        this.confidenceLevel = confidenceLevel;
+
+        // The last bin also holds the calls dropped after the last call was generated
+        int numberOfBins = series.getNumberOfBins() - 1 - firstBin;
+        if (numberOfBins < MIN_BATCHES) {
+            throw new IllegalArgumentException("The run is too short for " + MIN_BATCHES + " batches");
+        }
+        int binsPerBatch = Math.max(1, (numberOfBins + MAX_BATCHES - 1) / MAX_BATCHES);
+        while (true) {
+            analyze(series, firstBin, binsPerBatch, numberOfBins / binsPerBatch);
+            independent = Math.abs(blockedCallsAutocorrelation) <= MAX_AUTOCORRELATION
+                    && Math.abs(droppedCallsAutocorrelation) <= MAX_AUTOCORRELATION;
+            // Stop at independent batches, or before there are too few batches
+            if (independent || numberOfBins / (binsPerBatch * 2) < MIN_BATCHES) {
+                break;
+            }
+            binsPerBatch *= 2;
+        }
+    }
+
+    // Compute the batch means statistics for the given batch size
+    private void analyze(OutcomeSeries series, int firstBin, int binsPerBatch, int batches) {
+        numberOfBatches = batches;
+        callsPerBatch = binsPerBatch * series.getCallsPerBin();
+        double[] blockedMeans = new double[batches];
+        double[] droppedMeans = new double[batches];
+        blockedCallsRate = new RunningStatistics();
+        droppedCallsRate = new RunningStatistics();
+
+        for (int batch = 0; batch < batches; batch++) {
+            int blocked = 0;
+            int dropped = 0;
+            int from = firstBin + batch * binsPerBatch;
+            for (int bin = from; bin < from + binsPerBatch; bin++) {
+                blocked += series.getBlockedCalls(bin);
+                dropped += series.getDroppedCalls(bin);
+            }
+            blockedMeans[batch] = 100.0 * blocked / callsPerBatch;
+            droppedMeans[batch] = 100.0 * dropped / callsPerBatch;
+            blockedCallsRate.add(blockedMeans[batch]);
+            droppedCallsRate.add(droppedMeans[batch]);
+        }
+
+        blockedCallsAutocorrelation = lag1Autocorrelation(blockedMeans, blockedCallsRate.getMean());
+        droppedCallsAutocorrelation = lag1Autocorrelation(droppedMeans, droppedCallsRate.getMean());
+    }
+
+    // Get the lag-1 autocorrelation of a series
+    private static double lag1Autocorrelation(double[] values, double mean) {
+        double covariance = 0;
+        double variance = 0;
+        for (int i = 0; i < values.length; i++) {
+            double deviation = values[i] - mean;
+            variance += deviation * deviation;
+            if (i > 0) {
+                covariance += deviation * (values[i - 1] - mean);
+            }
+        }
+        return variance > 0 ? covariance / variance : 0;
+    }
+
+    // Get the number of batches
+    public int getNumberOfBatches() {
+        return numberOfBatches;
+    }
+
+    // Get the number of calls per batch
+    public int getCallsPerBatch() {
+        return callsPerBatch;
+    }
+
+    // Check if the lag-1 autocorrelation check passed
+    public boolean isIndependent() {
+        return independent;
+    }
+
+    // Get the statistics of the batch means of the blocked calls rate (%)
+    public RunningStatistics getBlockedCallsRate() {
+        return blockedCallsRate;
+    }
+
+    // Get the statistics of the batch means of the dropped calls rate (%)
+    public RunningStatistics getDroppedCallsRate() {
+        return droppedCallsRate;
+    }
+
+    // Generate statistics report
+    public void generateStatisticsReport() {
+        System.out.println("Number of Batches: " + numberOfBatches);
+        System.out.println("Calls per Batch: " + callsPerBatch);
+        System.out.println(String.format(Locale.ROOT, "Lag-1 Autocorrelation (blocked, dropped): %.4f, %.4f%s",
+                blockedCallsAutocorrelation, droppedCallsAutocorrelation,
+                independent ? "" : " (above " + MAX_AUTOCORRELATION + ", run longer)"));
+        printConfidenceInterval("Blocked Calls Rate", blockedCallsRate);
+        printConfidenceInterval("Dropped Calls Rate", droppedCallsRate);
+    }
+
+    // Print the confidence interval of a rate
+    private void printConfidenceInterval(String name, RunningStatistics rate) {
+        double halfWidth = rate.getHalfWidth(confidenceLevel);
+        System.out.println(String.format(Locale.ROOT, "%s (%%): %.5f, %.0f%% confidence interval [%.5f, %.5f]",
+                name, rate.getMean(), confidenceLevel * 100, rate.getMean() - halfWidth, rate.getMean() + halfWidth));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,140 @@
+package simulation;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * The class {@code BinaryResultsSink} to append the results to a columnar
+ * binary file, which the analysis notebooks can read straight into arrays
+ * (e.g. numpy.frombuffer). The file is a sequence of little-endian blocks,
+ * each starting with its type and number of rows n:
+ *
+ * - results block: int 1, int n, int[n] reservations, long[n] seeds,
+ * int[n] calls, int[n] blocked calls, int[n] dropped calls
+ *
+ * - trace block: int 2, int n, long seed, int reservations, int[n] calls,
+ * double[n] blocked calls rates, double[n] dropped calls rates
+ *
+ * - sweep block: int 3, int n, int[n] channels, int[n] reservations,
+ * long[n] replications, double[n] blocked calls rates, double[n] their half
+ * widths, double[n] dropped calls rates, double[n] their half widths, int[n]
+ * decisions (ordinals of {@link SweepPoint.Decision})
+ *
+ * Each block is encoded into a reusable direct buffer and written in one go
+ */
+public class BinaryResultsSink implements ResultsSink {
+
+    public static final int RESULTS_BLOCK = 1;
+    public static final int TRACE_BLOCK = 2;
+    public static final int SWEEP_BLOCK = 3;
+    private static final int INITIAL_CAPACITY = 1 << 16;
+
+    private FileChannel channel;
+    private ByteBuffer buffer;
+
+    // Constructor
+    public BinaryResultsSink(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        this.buffer = ByteBuffer.allocateDirect(INITIAL_CAPACITY).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    @Override
+    public synchronized void writeResults(List<ReplicationResult> results) throws IOException {
+        int n = results.size();
+        ByteBuffer block = clear(8 + n * 24);
+        block.putInt(RESULTS_BLOCK).putInt(n);
+        for (ReplicationResult result : results) {
+            block.putInt(result.getNumberOfReservations());
+        }
+        for (ReplicationResult result : results) {
+            block.putLong(result.getSeed());
+        }
+        for (ReplicationResult result : results) {
+            block.putInt(result.getTotalNumberOfCalls());
+        }
+        for (ReplicationResult result : results) {
+            block.putInt(result.getNumCallsBlocked());
+        }
+        for (ReplicationResult result : results) {
+            block.putInt(result.getNumberOfDroppedCalls());
+        }
+        write(block);
+    }
+
+    @Override
+    public synchronized void writeTrace(ReplicationResult result, ConvergenceTrace trace) throws IOException {
+        int n = trace.size();
+        ByteBuffer block = clear(20 + n * 20);
+        block.putInt(TRACE_BLOCK).putInt(n).putLong(result.getSeed()).putInt(result.getNumberOfReservations());
+        for (int i = 0; i < n; i++) {
+            block.putInt(trace.getCalls(i));
+        }
+        for (int i = 0; i < n; i++) {
+            block.putDouble(trace.getBlockedCallsRate(i));
+        }
+        for (int i = 0; i < n; i++) {
+            block.putDouble(trace.getDroppedCallsRate(i));
+        }
+        write(block);
+    }
+
+    @Override
+    public synchronized void writeSweep(List<SweepPoint> points) throws IOException {
+        int n = points.size();
+        ByteBuffer block = clear(8 + n * 52);
+        block.putInt(SWEEP_BLOCK).putInt(n);
+        for (SweepPoint point : points) {
+            block.putInt(point.getConfig().getNumberOfChannels());
+        }
+        for (SweepPoint point : points) {
+            block.putInt(point.getConfig().getNumberOfReservations());
+        }
+        for (SweepPoint point : points) {
+            block.putLong(point.getBlockedCallsRate().getCount());
+        }
+        for (SweepPoint point : points) {
+            block.putDouble(point.getBlockedCallsRate().getMean());
+        }
+        for (SweepPoint point : points) {
+            block.putDouble(point.getBlockedCallsRate().getHalfWidth(point.getConfig().getConfidenceLevel()));
+        }
+        for (SweepPoint point : points) {
+            block.putDouble(point.getDroppedCallsRate().getMean());
+        }
+        for (SweepPoint point : points) {
+            block.putDouble(point.getDroppedCallsRate().getHalfWidth(point.getConfig().getConfidenceLevel()));
+        }
+        for (SweepPoint point : points) {
+            block.putInt(point.getDecision().ordinal());
+        }
+        write(block);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    // Get the cleared buffer, grown to hold a block of the given size
+    private ByteBuffer clear(int size) {
+        if (buffer.capacity() < size) {
+            buffer = ByteBuffer.allocateDirect(Math.max(size, buffer.capacity() * 2)).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        buffer.clear();
+        return buffer;
+    }
+
+    // Write the encoded block
+    private void write(ByteBuffer block) throws IOException {
+        block.flip();
+        while (block.hasRemaining()) {
+            channel.write(block);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,262 @@
+package simulation;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * The class {@code CalendarEventList} for a future event list backed by a
+ * calendar queue (R. Brown, 1988). Events are hashed by time into buckets
+ * ("days") of a fixed width, each holding a sorted linked list of nodes, so
+ * adding and removing an event take O(1) expected time. The nodes live in
+ * primitive arrays and are recycled through a free list. Events with the same
+ * time are removed in the order they are added
+ */
+public class CalendarEventList implements FutureEventList {
+
+    private static final int MIN_BUCKETS = 16;
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int WIDTH_SAMPLE_SIZE = 25;
+    private static final int NIL = -1;
+
+    // Nodes of the bucket lists
+    private double[] nodeTimes;
+    private int[] nodeEvents;
+    private int[] nodeNext;
+    private int freeNode;
+
+    // Buckets of the calendar
+    private int[] bucketHeads;
+    private int bucketMask;
+    private double width;
+    private int size;
+
+    // Position of the last removed event
+    private int lastBucket;
+    private long lastDay;
+    private double lastTime;
+
+    // Scratch space to sample the event separation when resizing
+    private int[] sampleNodes;
+
+    // Constructor
+    public CalendarEventList() {
+        this.nodeTimes = new double[INITIAL_CAPACITY];
+        this.nodeEvents = new int[INITIAL_CAPACITY];
+        this.nodeNext = new int[INITIAL_CAPACITY];
+        this.freeNode = NIL;
+        linkFreeNodes(0, INITIAL_CAPACITY);
+        this.bucketHeads = new int[MIN_BUCKETS];
+        Arrays.fill(bucketHeads, NIL);
+        this.bucketMask = MIN_BUCKETS - 1;
+        this.width = 1.0;
+        this.size = 0;
+        this.lastBucket = 0;
+        this.lastDay = 0;
+        this.lastTime = 0;
+        this.sampleNodes = new int[WIDTH_SAMPLE_SIZE];
+    }
+
+    @Override
+    public void add(double time, int event) {
+        // Get a node from the free list, growing the node arrays if needed
+        if (freeNode == NIL) {
+            int capacity = nodeTimes.length;
+            nodeTimes = Arrays.copyOf(nodeTimes, capacity * 2);
+            nodeEvents = Arrays.copyOf(nodeEvents, capacity * 2);
+            nodeNext = Arrays.copyOf(nodeNext, capacity * 2);
+            linkFreeNodes(capacity, capacity * 2);
+        }
+        int node = freeNode;
+        freeNode = nodeNext[node];
+        nodeTimes[node] = time;
+        nodeEvents[node] = event;
+
+        // An event earlier than the last removed one moves the calendar back
+        if (time < lastTime) {
+            setLastTime(time);
+        }
+        insertNode(node);
+        size++;
+
+        // Double the number of buckets when they get crowded
+        if (size > 2 * bucketHeads.length) {
+            resize(bucketHeads.length * 2);
+        }
+    }
+
+    @Override
+    public int remove() {
+        int node = removeNode();
+        int event = nodeEvents[node];
+        // Return the node to the free list
+        nodeNext[node] = freeNode;
+        freeNode = node;
+
+        // Halve the number of buckets when they get sparse
+        if (size < bucketHeads.length / 2 && bucketHeads.length > MIN_BUCKETS) {
+            resize(bucketHeads.length / 2);
+        }
+
+        return event;
+    }
+
+    @Override
+    public double peekTime() {
+        int node = removeNode();
+        double time = nodeTimes[node];
+        // Put the node back at the head of its bucket, the calendar already points at it
+        nodeNext[node] = bucketHeads[lastBucket];
+        bucketHeads[lastBucket] = node;
+        size++;
+        return time;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    // Unlink the node with the smallest time from its bucket
+    private int removeNode() {
+        if (size == 0) {
+            throw new NoSuchElementException("The future event list is empty");
+        }
+
+        // Scan the buckets of the current year, starting from the last bucket
+        int bucket = lastBucket;
+        long day = lastDay;
+        for (int i = 0; i < bucketHeads.length; i++) {
+            int head = bucketHeads[bucket];
+            if (head != NIL && dayOf(nodeTimes[head]) <= day) {
+                return unlinkHead(bucket, day, head);
+            }
+            bucket = (bucket + 1) & bucketMask;
+            day++;
+        }
+
+        // No event in the current year, search the earliest event directly
+        int minBucket = NIL;
+        for (int i = 0; i < bucketHeads.length; i++) {
+            int head = bucketHeads[i];
+            if (head != NIL && (minBucket == NIL || nodeTimes[head] < nodeTimes[bucketHeads[minBucket]])) {
+                minBucket = i;
+            }
+        }
+        int head = bucketHeads[minBucket];
+        return unlinkHead(minBucket, dayOf(nodeTimes[head]), head);
+    }
+
+    // Unlink the head node of a bucket and move the calendar to it
+    private int unlinkHead(int bucket, long day, int head) {
+        bucketHeads[bucket] = nodeNext[head];
+        lastBucket = bucket;
+        lastDay = day;
+        lastTime = nodeTimes[head];
+        size--;
+        return head;
+    }
+
+    // Insert a node into its bucket, after the nodes with the same or smaller time
+    private void insertNode(int node) {
+        double time = nodeTimes[node];
+        int bucket = (int) (dayOf(time) & bucketMask);
+        int prev = NIL;
+        int curr = bucketHeads[bucket];
+        while (curr != NIL && nodeTimes[curr] <= time) {
+            prev = curr;
+            curr = nodeNext[curr];
+        }
+        nodeNext[node] = curr;
+        if (prev == NIL) {
+            bucketHeads[bucket] = node;
+        } else {
+            nodeNext[prev] = node;
+        }
+    }
+
+    // Resize the calendar, re-estimating the bucket width from the next events
+    private void resize(int numberOfBuckets) {
+        // Take out the earliest events to sample their separation
+        int numberOfSamples = Math.min(size, WIDTH_SAMPLE_SIZE);
+        for (int i = 0; i < numberOfSamples; i++) {
+            sampleNodes[i] = removeNode();
+        }
+        width = estimateWidth(numberOfSamples);
+
+        // Collect the remaining nodes into one list, keeping the order of each bucket
+        int remaining = NIL;
+        int last = NIL;
+        for (int i = 0; i < bucketHeads.length; i++) {
+            for (int node = bucketHeads[i]; node != NIL; node = nodeNext[node]) {
+                if (last == NIL) {
+                    remaining = node;
+                } else {
+                    nodeNext[last] = node;
+                }
+                last = node;
+            }
+        }
+        if (last != NIL) {
+            nodeNext[last] = NIL;
+        }
+
+        // Rehash every node into the new buckets, the sampled events first as they were added before the
+        // remaining events of the same time, so the events of the same time keep the order they are added
+        bucketHeads = new int[numberOfBuckets];
+        Arrays.fill(bucketHeads, NIL);
+        bucketMask = numberOfBuckets - 1;
+        setLastTime(numberOfSamples > 0 ? nodeTimes[sampleNodes[0]] : lastTime);
+        for (int i = 0; i < numberOfSamples; i++) {
+            insertNode(sampleNodes[i]);
+        }
+        while (remaining != NIL) {
+            int next = nodeNext[remaining];
+            insertNode(remaining);
+            remaining = next;
+        }
+        size += numberOfSamples;
+    }
+
+    // Estimate the bucket width as three times the typical event separation
+    private double estimateWidth(int numberOfSamples) {
+        if (numberOfSamples < 2) {
+            return width;
+        }
+        double span = nodeTimes[sampleNodes[numberOfSamples - 1]] - nodeTimes[sampleNodes[0]];
+        double averageSeparation = span / (numberOfSamples - 1);
+
+        // Ignore the separations much larger than the average
+        double sum = 0;
+        int count = 0;
+        for (int i = 1; i < numberOfSamples; i++) {
+            double separation = nodeTimes[sampleNodes[i]] - nodeTimes[sampleNodes[i - 1]];
+            if (separation <= 2 * averageSeparation) {
+                sum += separation;
+                count++;
+            }
+        }
+        double newWidth = 3 * sum / count;
+
+        return newWidth > 0 ? newWidth : width;
+    }
+
+    // Move the calendar to the day of the given time
+    private void setLastTime(double time) {
+        lastTime = time;
+        lastDay = dayOf(time);
+        lastBucket = (int) (lastDay & bucketMask);
+    }
+
+    // Get the day (virtual bucket number) of a time
+    private long dayOf(double time) {
+        return (long) Math.floor(time / width);
+    }
+
+    // Link the nodes in the given range into the free list
+    private void linkFreeNodes(int from, int to) {
+        for (int node = to - 1; node >= from; node--) {
+            nodeNext[node] = freeNode;
+            freeNode = node;
+        }
+    }
+}
\ No newline at end of file
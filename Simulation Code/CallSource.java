@@ -0,0 +1,31 @@
+package simulation;
+
+/**
+ * The interface {@code CallSource} for the source of the calls of the
+ * simulation, either sampled from the fitted input distributions or replayed
+ * from a recorded trace. The simulator moves to the next call and then reads
+ * each of its values once
+ */
+public interface CallSource {
+
+    // Move to the next call, false when the source has no more calls
+    public boolean nextCall();
+
+    // Get the initiation time of the call, given the current simulation clock
+    public double getArrivalTime(double clock);
+
+    // Get the base station of the call, from 1 to the number of stations
+    public int getBaseStation();
+
+    // Get the car speed (km/h)
+    public double getCarSpeed();
+
+    // Get the position of the car in its cell (km)
+    public double getCarPos();
+
+    // Get the call duration (sec)
+    public double getCallDuration();
+
+    // Get the car direction
+    public Direction getCarDirection();
+}
\ No newline at end of file
@@ -0,0 +1,130 @@
+package simulation;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * The class {@code ConvergenceTrace} to record the blocked and dropped calls
+ * rates over the number of generated calls. The trace is kept in preallocated
+ * primitive arrays: a point is recorded every {@code stride} calls, and when
+ * the arrays are full every other point is discarded and the stride doubles,
+ * so a run of any length keeps a bounded, evenly decimated series
+ */
+public class ConvergenceTrace {
+
+    private int[] calls;
+    private double[] blockedCallsRates;
+    private double[] droppedCallsRates;
+    private int size;
+    private int stride;
+
+    // Constructor
+    public ConvergenceTrace(int capacity) {
+        // Keep an even capacity so that halving the trace leaves it aligned
+        int evenCapacity = Math.max(2, capacity & ~1);
+        this.calls = new int[evenCapacity];
+        this.blockedCallsRates = new double[evenCapacity];
+        this.droppedCallsRates = new double[evenCapacity];
+        this.size = 0;
+        this.stride = 1;
+    }
+
+    // Record the rates after the given number of generated calls
+    public void record(int generatedCalls, int numCallsBlocked, int numberOfDroppedCalls) {
+        if (generatedCalls % stride != 0) {
+            return;
+        }
+        // Decimate the trace when it is full
+        if (size == calls.length) {
+            decimate();
+            if (generatedCalls % stride != 0) {
+                return;
+            }
+        }
+
+        calls[size] = generatedCalls;
+        blockedCallsRates[size] = (double) numCallsBlocked / generatedCalls;
+        droppedCallsRates[size] = (double) numberOfDroppedCalls / generatedCalls;
+        size++;
+    }
+
+    // Get the number of recorded points
+    public int size() {
+        return size;
+    }
+
+    // Get the number of generated calls of a point
+    public int getCalls(int i) {
+        return calls[i];
+    }
+
+    // Get the blocked calls rate of a point
+    public double getBlockedCallsRate(int i) {
+        return blockedCallsRates[i];
+    }
+
+    // Get the dropped calls rate of a point
+    public double getDroppedCallsRate(int i) {
+        return droppedCallsRates[i];
+    }
+
+    // Save the recorded points
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(size);
+        out.writeInt(stride);
+        for (int i = 0; i < size; i++) {
+            out.writeInt(calls[i]);
+            out.writeDouble(blockedCallsRates[i]);
+            out.writeDouble(droppedCallsRates[i]);
+        }
+    }
+
+    // Restore the recorded points, decimating them into the capacity of this trace
+    public void readFrom(DataInput in) throws IOException {
+        int savedSize = in.readInt();
+        size = 0;
+        stride = in.readInt();
+        for (int i = 0; i < savedSize; i++) {
+            restore(in.readInt(), in.readDouble(), in.readDouble());
+        }
+    }
+
+    // Get a copy of the recorded points, decimated into the given capacity
+    public ConvergenceTrace copy(int capacity) {
+        ConvergenceTrace copy = new ConvergenceTrace(capacity);
+        copy.stride = stride;
+        for (int i = 0; i < size; i++) {
+            copy.restore(calls[i], blockedCallsRates[i], droppedCallsRates[i]);
+        }
+        return copy;
+    }
+
+    // Add a previously recorded point, decimating the trace when it is full
+    private void restore(int generatedCalls, double blockedCallsRate, double droppedCallsRate) {
+        if (size == calls.length) {
+            decimate();
+        }
+        if (generatedCalls % stride == 0) {
+            calls[size] = generatedCalls;
+            blockedCallsRates[size] = blockedCallsRate;
+            droppedCallsRates[size] = droppedCallsRate;
+            size++;
+        }
+    }
+
+    // Keep the points at even multiples of the stride and double it
+    private void decimate() {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (calls[i] % (2 * stride) == 0) {
+                calls[kept] = calls[i];
+                blockedCallsRates[kept] = blockedCallsRates[i];
+                droppedCallsRates[kept] = droppedCallsRates[i];
+                kept++;
+            }
+        }
+        size = kept;
+        stride *= 2;
+    }
+}
\ No newline at end of file
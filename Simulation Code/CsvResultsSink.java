@@ -0,0 +1,120 @@
+package simulation;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * The class {@code CsvResultsSink} to append the results as text: the
+ * replication summaries to the "reservations,blocked calls rate,dropped calls
+ * rate" rows of the output file, the convergence traces to "seed,
+ * reservations,calls,blocked calls rate,dropped calls rate" rows of the trace
+ * file, and the sweep points to "channels,reservations,replications,blocked
+ * calls rate,half width,dropped calls rate,half width,decision" rows of the
+ * sweep file. Each block is encoded first and then written in one go
+ */
+public class CsvResultsSink implements ResultsSink {
+
+    private static final int SCALE = 5;
+
+    private FileChannel resultsChannel;
+    private FileChannel traceChannel;
+    private FileChannel sweepChannel;
+    private Path tracePath;
+    private Path sweepPath;
+
+    // Constructor
+    public CsvResultsSink(Path resultsPath, Path tracePath, Path sweepPath) throws IOException {
+        this.resultsChannel = open(resultsPath);
+        this.tracePath = tracePath;
+        this.sweepPath = sweepPath;
+    }
+
+    @Override
+    public void writeResults(List<ReplicationResult> results) throws IOException {
+        StringBuilder block = new StringBuilder();
+        for (ReplicationResult result : results) {
+            block.append(result.toCsvRow()).append('\n');
+        }
+        write(resultsChannel, block);
+    }
+
+    @Override
+    public void writeTrace(ReplicationResult result, ConvergenceTrace trace) throws IOException {
+        StringBuilder block = new StringBuilder();
+        String prefix = Long.toString(result.getSeed()) + ',' + result.getNumberOfReservations() + ',';
+        for (int i = 0; i < trace.size(); i++) {
+            block.append(prefix).append(trace.getCalls(i)).append(',')
+                    .append(format(trace.getBlockedCallsRate(i))).append(',')
+                    .append(format(trace.getDroppedCallsRate(i))).append('\n');
+        }
+        // Create the trace file only when a trace is written
+        synchronized (this) {
+            if (traceChannel == null) {
+                traceChannel = open(tracePath);
+            }
+        }
+        write(traceChannel, block);
+    }
+
+    @Override
+    public void writeSweep(List<SweepPoint> points) throws IOException {
+        StringBuilder block = new StringBuilder();
+        for (SweepPoint point : points) {
+            double confidenceLevel = point.getConfig().getConfidenceLevel();
+            block.append(point.getConfig().getNumberOfChannels()).append(',')
+                    .append(point.getConfig().getNumberOfReservations()).append(',')
+                    .append(point.getBlockedCallsRate().getCount()).append(',')
+                    .append(point.getBlockedCallsRate().getMean()).append(',')
+                    .append(point.getBlockedCallsRate().getHalfWidth(confidenceLevel)).append(',')
+                    .append(point.getDroppedCallsRate().getMean()).append(',')
+                    .append(point.getDroppedCallsRate().getHalfWidth(confidenceLevel)).append(',')
+                    .append(point.getDecision()).append('\n');
+        }
+        // Create the sweep file only when a sweep is written
+        synchronized (this) {
+            if (sweepChannel == null) {
+                sweepChannel = open(sweepPath);
+            }
+        }
+        write(sweepChannel, block);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        resultsChannel.close();
+        if (traceChannel != null) {
+            traceChannel.close();
+        }
+        if (sweepChannel != null) {
+            sweepChannel.close();
+        }
+    }
+
+    // Open a file to append to
+    private static FileChannel open(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    // Write a whole block, one block at a time
+    private void write(FileChannel channel, StringBuilder block) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(block.toString().getBytes(StandardCharsets.US_ASCII));
+        synchronized (channel) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    // Format a rate the way the statistics were reported
+    private static String format(double rate) {
+        return BigDecimal.valueOf(rate).setScale(SCALE, RoundingMode.HALF_UP).toString();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,267 @@
+package simulation;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * The class {@code DistributionFitter} to fit the input distributions to the
+ * measurement data, in place of the offline Input Modeling notebook. The
+ * inter-arrival times, call durations and car speeds are read from a call
+ * trace in either format of {@link TraceCallSource}, and each family is
+ * fitted by maximum likelihood. The best family of a variable is the one of
+ * smallest Akaike information criterion (AIC) among the parametric families
+ * whose support holds the data.
+ *
+ * A distribution is given by a spec: a family with its parameters, e.g.
+ * "gamma(2.5, 0.55)", a family alone to fit it to the data, "best" for the
+ * best family, or "empirical" for the empirical distribution of the data
+ */
+public class DistributionFitter {
+
+    // Parametric families, in the order they are reported
+    public static final String[] FAMILIES = { "exponential", "shifted-exponential", "normal", "truncated-normal",
+            "lognormal", "gamma", "weibull" };
+
+    private double[] interArrivalTimes;
+    private double[] callDurations;
+    private double[] carSpeeds;
+
+    // Constructor, reading the measurements of a call trace
+    public DistributionFitter(Path path) {
+        TraceCallSource source = new TraceCallSource(path, Integer.MAX_VALUE, null);
+        double[] arrivalTimes = new double[1024];
+        this.callDurations = new double[1024];
+        this.carSpeeds = new double[1024];
+        int numberOfCalls = 0;
+        while (source.nextCall()) {
+            if (numberOfCalls == arrivalTimes.length) {
+                arrivalTimes = Arrays.copyOf(arrivalTimes, numberOfCalls * 2);
+                callDurations = Arrays.copyOf(callDurations, numberOfCalls * 2);
+                carSpeeds = Arrays.copyOf(carSpeeds, numberOfCalls * 2);
+            }
+            arrivalTimes[numberOfCalls] = source.getArrivalTime(0);
+            callDurations[numberOfCalls] = source.getCallDuration();
+            carSpeeds[numberOfCalls] = source.getCarSpeed();
+            numberOfCalls++;
+        }
+        if (numberOfCalls < 2) {
+            throw new IllegalArgumentException("The measurement data " + path + " has less than 2 calls");
+        }
+        callDurations = Arrays.copyOf(callDurations, numberOfCalls);
+        carSpeeds = Arrays.copyOf(carSpeeds, numberOfCalls);
+        // The calls are in time order, so the inter-arrival times are the gaps between them
+        interArrivalTimes = new double[numberOfCalls - 1];
+        for (int i = 1; i < numberOfCalls; i++) {
+            interArrivalTimes[i - 1] = arrivalTimes[i] - arrivalTimes[i - 1];
+        }
+    }
+
+    // Get the measured inter-arrival times (sec)
+    public double[] getInterArrivalTimes() {
+        return interArrivalTimes;
+    }
+
+    // Get the measured call durations (sec)
+    public double[] getCallDurations() {
+        return callDurations;
+    }
+
+    // Get the measured car speeds (km/h)
+    public double[] getCarSpeeds() {
+        return carSpeeds;
+    }
+
+    // Create the distribution of a spec, fitting it to the data (null when there is none) if it has no parameters
+    public static InputDistribution create(String spec, double[] data) {
+        spec = spec.trim().toLowerCase(Locale.ROOT);
+        int open = spec.indexOf('(');
+        if (open < 0) {
+            if (data == null) {
+                throw new IllegalArgumentException("Fitting " + spec + " needs the measurement data of "
+                        + ScenarioConfig.INPUT_DATA);
+            }
+            return spec.equals("best") ? fitBest(data) : fit(spec, data);
+        }
+
+        if (!spec.endsWith(")")) {
+            throw new IllegalArgumentException("Expected a distribution of the form family(parameters): " + spec);
+        }
+        String family = spec.substring(0, open).trim();
+        String[] fields = spec.substring(open + 1, spec.length() - 1).split(",");
+        double[] parameters = new double[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            try {
+                parameters[i] = Double.parseDouble(fields[i].trim());
+            } catch (NumberFormatException nfe) {
+                throw new IllegalArgumentException("Invalid parameter of the distribution " + spec, nfe);
+            }
+        }
+        int expected = family.equals("exponential") ? 1 : family.equals("truncated-normal") ? 4 : 2;
+        if (parameters.length != expected) {
+            throw new IllegalArgumentException("The distribution " + family + " has " + expected + " parameters: "
+                    + spec);
+        }
+        switch (family) {
+        case "exponential":
+            return new ExponentialDistribution(parameters[0]);
+        case "shifted-exponential":
+            return new ShiftedExponentialDistribution(parameters[0], parameters[1]);
+        case "normal":
+            return new NormalDistribution(parameters[0], parameters[1]);
+        case "truncated-normal":
+            return new TruncatedNormalDistribution(parameters[0], parameters[1], parameters[2], parameters[3]);
+        case "lognormal":
+            return new LognormalDistribution(parameters[0], parameters[1]);
+        case "gamma":
+            return new GammaDistribution(parameters[0], parameters[1]);
+        case "weibull":
+            return new WeibullDistribution(parameters[0], parameters[1]);
+        default:
+            throw new IllegalArgumentException("Unknown distribution " + family);
+        }
+    }
+
+    // Fit a family, or the empirical distribution, to the data by maximum likelihood
+    public static InputDistribution fit(String family, double[] data) {
+        switch (family) {
+        case "exponential":
+            return ExponentialDistribution.fit(data);
+        case "shifted-exponential":
+            return ShiftedExponentialDistribution.fit(data);
+        case "normal":
+            return NormalDistribution.fit(data);
+        case "truncated-normal":
+            return TruncatedNormalDistribution.fit(data);
+        case "lognormal":
+            return LognormalDistribution.fit(checkPositive(data, family));
+        case "gamma":
+            return GammaDistribution.fit(checkPositive(data, family));
+        case "weibull":
+            return WeibullDistribution.fit(checkPositive(data, family));
+        case "empirical":
+            return new EmpiricalDistribution(data);
+        default:
+            throw new IllegalArgumentException("Unknown distribution " + family);
+        }
+    }
+
+    // Fit every parametric family whose support holds the data, and get the one of smallest AIC
+    public static InputDistribution fitBest(double[] data) {
+        InputDistribution best = null;
+        double bestAic = Double.POSITIVE_INFINITY;
+        for (String family : FAMILIES) {
+            InputDistribution distribution = tryFit(family, data);
+            if (distribution != null && getAic(distribution, data) < bestAic) {
+                best = distribution;
+                bestAic = getAic(distribution, data);
+            }
+        }
+        if (best == null) {
+            throw new IllegalArgumentException("No distribution can be fitted to the data");
+        }
+        return best;
+    }
+
+    // Fit a family to the data, null if its support does not hold the data
+    private static InputDistribution tryFit(String family, double[] data) {
+        try {
+            InputDistribution distribution = fit(family, data);
+            return Double.isFinite(getLogLikelihood(distribution, data)) ? distribution : null;
+        } catch (IllegalArgumentException iae) {
+            return null;
+        }
+    }
+
+    // Get the log-likelihood of the data under a distribution
+    public static double getLogLikelihood(InputDistribution distribution, double[] data) {
+        double logLikelihood = 0;
+        for (double x : data) {
+            logLikelihood += distribution.logDensity(x);
+        }
+        return logLikelihood;
+    }
+
+    // Get the Akaike information criterion of a distribution fitted to the data
+    public static double getAic(InputDistribution distribution, double[] data) {
+        return 2 * distribution.getNumberOfParameters() - 2 * getLogLikelihood(distribution, data);
+    }
+
+    // Print the fit of every parametric family to each measured variable
+    public void generateStatisticsReport() {
+        generateStatisticsReport("Inter-arrival time (sec)", interArrivalTimes);
+        generateStatisticsReport("Call duration (sec)", callDurations);
+        generateStatisticsReport("Car speed (km/h)", carSpeeds);
+    }
+
+    // Print the fit of every parametric family to a variable, marking the best one
+    private static void generateStatisticsReport(String variable, double[] data) {
+        double mean = mean(data);
+        System.out.println(String.format(Locale.ROOT, "%s: %d values, mean %.6f, standard deviation %.6f",
+                variable, data.length, mean, Math.sqrt(variance(data, mean))));
+        InputDistribution best = fitBest(data);
+        for (String family : FAMILIES) {
+            InputDistribution distribution = tryFit(family, data);
+            if (distribution == null) {
+                System.out.println(String.format(Locale.ROOT, "  %-20s does not fit", family));
+                continue;
+            }
+            System.out.println(String.format(Locale.ROOT, "  %-20s log-likelihood %14.3f  AIC %14.3f  %s%s",
+                    family, getLogLikelihood(distribution, data), getAic(distribution, data), distribution,
+                    distribution.toString().equals(best.toString()) ? "  (best)" : ""));
+        }
+    }
+
+    // Check that the data is positive, for a family of positive support
+    private static double[] checkPositive(double[] data, String family) {
+        if (!(min(data) > 0)) {
+            throw new IllegalArgumentException("The " + family + " distribution needs positive data");
+        }
+        return data;
+    }
+
+    // Get the mean of the data
+    static double mean(double[] data) {
+        double sum = 0;
+        for (double x : data) {
+            sum += x;
+        }
+        return sum / data.length;
+    }
+
+    // Get the variance of the data around its mean, over the number of values (maximum likelihood)
+    static double variance(double[] data, double mean) {
+        double sum = 0;
+        for (double x : data) {
+            sum += (x - mean) * (x - mean);
+        }
+        return sum / data.length;
+    }
+
+    // Get the smallest value of the data
+    static double min(double[] data) {
+        double min = Double.POSITIVE_INFINITY;
+        for (double x : data) {
+            min = Math.min(min, x);
+        }
+        return min;
+    }
+
+    // Get the largest value of the data
+    static double max(double[] data) {
+        double max = Double.NEGATIVE_INFINITY;
+        for (double x : data) {
+            max = Math.max(max, x);
+        }
+        return max;
+    }
+
+    // Get the natural logs of the data
+    static double[] logs(double[] data) {
+        double[] logs = new double[data.length];
+        for (int i = 0; i < data.length; i++) {
+            logs[i] = Math.log(data[i]);
+        }
+        return logs;
+    }
+}
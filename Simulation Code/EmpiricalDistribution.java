@@ -0,0 +1,147 @@
+package simulation;
+
+/**
+ * The class {@code EmpiricalDistribution} for the empirical distribution of
+ * measured data, as a histogram of equal-width bins over the range of the
+ * data (the square root of the number of values, at most MAX_BINS), uniform
+ * within each bin. A bin is picked in constant time with the alias method of
+ * Walker and Vose, and a single uniform variate gives both the bin and the
+ * position in it
+ */
+public class EmpiricalDistribution implements InputDistribution {
+
+    private static final int MAX_BINS = 1024;
+
+    private double lower;
+    private double width;
+    private int numberOfValues;
+    // Probability of each bin, and its alias table
+    private double[] probabilities;
+    private double[] thresholds;
+    private int[] aliases;
+
+    // Constructor, for the empirical distribution of the data
+    public EmpiricalDistribution(double[] data) {
+        if (data.length == 0) {
+            throw new IllegalArgumentException("An empirical distribution needs data");
+        }
+        int numberOfBins = Math.min(MAX_BINS, (int) Math.ceil(Math.sqrt(data.length)));
+        this.lower = DistributionFitter.min(data);
+        this.width = (DistributionFitter.max(data) - lower) / numberOfBins;
+        this.numberOfValues = data.length;
+        this.probabilities = new double[numberOfBins];
+        for (double x : data) {
+            probabilities[getBin(x)] += 1.0 / data.length;
+        }
+        buildAliasTable();
+    }
+
+    // Get the bin of a value, the largest value in the last bin
+    private int getBin(double x) {
+        if (width == 0) {
+            return 0;
+        }
+        return Math.min((int) ((x - lower) / width), probabilities.length - 1);
+    }
+
+    // Build the alias table of the bins (Vose): each column holds a bin up to its threshold
+    // and the alias bin above it
+    private void buildAliasTable() {
+        int n = probabilities.length;
+        thresholds = new double[n];
+        aliases = new int[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int numberOfSmall = 0;
+        int numberOfLarge = 0;
+        double[] scaled = new double[n];
+        for (int i = 0; i < n; i++) {
+            scaled[i] = probabilities[i] * n;
+            if (scaled[i] < 1) {
+                small[numberOfSmall++] = i;
+            } else {
+                large[numberOfLarge++] = i;
+            }
+        }
+        while (numberOfSmall > 0 && numberOfLarge > 0) {
+            int less = small[--numberOfSmall];
+            int more = large[--numberOfLarge];
+            thresholds[less] = scaled[less];
+            aliases[less] = more;
+            scaled[more] += scaled[less] - 1;
+            if (scaled[more] < 1) {
+                small[numberOfSmall++] = more;
+            } else {
+                large[numberOfLarge++] = more;
+            }
+        }
+        // The columns left are full, up to rounding errors
+        while (numberOfLarge > 0) {
+            int more = large[--numberOfLarge];
+            thresholds[more] = 1;
+            aliases[more] = more;
+        }
+        while (numberOfSmall > 0) {
+            int less = small[--numberOfSmall];
+            thresholds[less] = 1;
+            aliases[less] = less;
+        }
+    }
+
+    @Override
+    public int getVariateKind() {
+        return VariateBuffer.UNIFORM;
+    }
+
+    @Override
+    public double sample(VariateBuffer random) {
+        // The integer part of u * n picks the column, its fraction the bin and the position in it
+        double scaled = Math.min(random.next(), Math.nextDown(1.0)) * thresholds.length;
+        int column = (int) scaled;
+        double fraction = scaled - column;
+        double threshold = thresholds[column];
+        if (fraction < threshold) {
+            return lower + (column + fraction / threshold) * width;
+        }
+        return lower + (aliases[column] + (fraction - threshold) / (1 - threshold)) * width;
+    }
+
+    @Override
+    public double logDensity(double x) {
+        if (x < lower || x > lower + width * probabilities.length) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        return Math.log(probabilities[getBin(x)] / (width > 0 ? width : 1));
+    }
+
+    @Override
+    public double getMean() {
+        double mean = 0;
+        for (int bin = 0; bin < probabilities.length; bin++) {
+            mean += probabilities[bin] * (lower + (bin + 0.5) * width);
+        }
+        return mean;
+    }
+
+    @Override
+    public double getVariance() {
+        double mean = getMean();
+        double variance = width * width / 12;
+        for (int bin = 0; bin < probabilities.length; bin++) {
+            double deviation = lower + (bin + 0.5) * width - mean;
+            variance += probabilities[bin] * deviation * deviation;
+        }
+        return variance;
+    }
+
+    @Override
+    public int getNumberOfParameters() {
+        return probabilities.length - 1;
+    }
+
+    @Override
+    public String toString() {
+        return "empirical(" + numberOfValues + " values in " + probabilities.length + " bins from " + lower
+                + " to " + (lower + width * probabilities.length) + ")";
+    }
+}
@@ -1,14 +1,20 @@
 package simulation;
 
 /**
- * The interface {@code Event} for all events in the simulation
+ * The class {@code Event} with the type codes of all events in the simulation.
+ * The events themselves are slots of the {@link EventStore}
  */
-public interface Event {
+public final class Event {
 
-    // Get the event time
-    public double getTime();
-
-    // Get the current station
-    public Station getcurrStation();
+    // Call initiation event, a new call is made in a station
+    public static final int CALL_INITIATION = 0;
+    // Call handover event, a call crosses into the next station
+    public static final int CALL_HANDOVER = 1;
+    // Call termination event, a call ends and releases its channel
+    public static final int CALL_TERMINATION = 2;
+    // First type code free for event types registered with the simulator
+    public static final int FIRST_CUSTOM_TYPE = 3;
 
+    private Event() {
+    }
 }
\ No newline at end of file
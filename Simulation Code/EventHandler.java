@@ -0,0 +1,12 @@
+package simulation;
+
+/**
+ * The interface {@code EventHandler} for the handling routine of an event type
+ */
+@FunctionalInterface
+public interface EventHandler {
+
+    // Handle the event in the given slot of the event store
+    public void handle(int event);
+
+}
\ No newline at end of file
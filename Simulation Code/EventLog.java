@@ -0,0 +1,163 @@
+package simulation;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The class {@code EventLog} to record every handled event of a run, with
+ * the outcome of the call at the station it happened, to a binary file of
+ * 16-byte little-endian records: time double, station id int, event type
+ * short and outcome short. The simulator writes the records into a
+ * preallocated off-heap ring buffer and a flusher thread drains it to the
+ * file, so recording an event never allocates nor waits for the disk. The
+ * ring has a single producer and a single consumer, which only share the
+ * published and consumed positions; the producer waits only when the ring is
+ * full. A simulator without a log pays a single null check per event. If
+ * a write fails, the flusher keeps draining the ring and discards the records,
+ * and closing the log reports the failure with the number of records lost
+ */
+public class EventLog implements AutoCloseable {
+
+    // Outcomes of the events
+    public static final short ACCEPTED = 0;
+    public static final short BLOCKED = 1;
+    public static final short HANDED_OVER = 2;
+    public static final short DROPPED = 3;
+    public static final short COMPLETED = 4;
+    public static final short NONE = 5;
+
+    public static final int RECORD_SIZE = 16;
+    private static final int CAPACITY = 1 << 16;
+    private static final long FLUSH_INTERVAL_NANOS = 1000000;
+    private static final long FULL_WAIT_NANOS = 10000;
+
+    private ByteBuffer ring;
+    private int mask;
+    private FileChannel channel;
+    private Thread flusher;
+    private volatile boolean closed;
+    private volatile IOException failure;
+    // Records discarded after a failed write, counted by the flusher and read once it has ended
+    private long lostRecords;
+
+    // Positions of the next record to publish and to flush
+    private AtomicLong published;
+    private AtomicLong consumed;
+    // Producer copies of the positions, to avoid reading the shared ones per record
+    private long next;
+    private long cachedConsumed;
+
+    // Constructor
+    public EventLog(Path path) throws IOException {
+        this(path, 0);
+    }
+
+    // Constructor of the log of a run continued after the given number of records, which keeps the
+    // first records of the file and writes the next ones after them
+    public EventLog(Path path, long keptRecords) throws IOException {
+        this.ring = ByteBuffer.allocateDirect(CAPACITY * RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        this.mask = CAPACITY - 1;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            this.channel.truncate(keptRecords * RECORD_SIZE);
+            this.channel.position(channel.size());
+        } catch (IOException ioe) {
+            channel.close();
+            throw ioe;
+        }
+        this.closed = false;
+        this.published = new AtomicLong();
+        this.consumed = new AtomicLong();
+        this.next = 0;
+        this.cachedConsumed = 0;
+        this.lostRecords = 0;
+        this.flusher = new Thread(this::flush, "event-log-" + path.getFileName());
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    // Record a handled event
+    public void record(int type, double time, int stationId, short outcome) {
+        // Wait for the flusher when the ring is full
+        if (next - cachedConsumed >= CAPACITY) {
+            cachedConsumed = consumed.get();
+            while (next - cachedConsumed >= CAPACITY) {
+                LockSupport.parkNanos(FULL_WAIT_NANOS);
+                cachedConsumed = consumed.get();
+            }
+        }
+
+        int offset = (int) (next & mask) * RECORD_SIZE;
+        ring.putDouble(offset, time);
+        ring.putInt(offset + 8, stationId);
+        ring.putShort(offset + 12, (short) type);
+        ring.putShort(offset + 14, outcome);
+        next++;
+        // Publish the record to the flusher
+        published.lazySet(next);
+    }
+
+    // Flush the remaining records and close the file, failing if any record could not be written
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        LockSupport.unpark(flusher);
+        try {
+            flusher.join();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+        if (failure != null) {
+            throw new IOException("Lost " + lostRecords + " of " + next + " event records", failure);
+        }
+    }
+
+    // Drain the published records to the file until the log is closed
+    private void flush() {
+        // The flusher reads the ring through its own view
+        ByteBuffer view = ring.duplicate();
+        long position = 0;
+        while (true) {
+            boolean wasClosed = closed;
+            long end = published.get();
+            if (end == position) {
+                if (wasClosed) {
+                    return;
+                }
+                LockSupport.parkNanos(FLUSH_INTERVAL_NANOS);
+                continue;
+            }
+
+            // Write the records up to the end of the ring, then the wrapped ones
+            while (position < end) {
+                int from = (int) (position & mask);
+                int to = (int) Math.min(end - position + from, CAPACITY);
+                // After a failure, keep draining and discarding the ring so that the simulation is never
+                // blocked, counting the lost records for close() to report
+                if (failure != null) {
+                    lostRecords += to - from;
+                } else {
+                    view.limit(to * RECORD_SIZE).position(from * RECORD_SIZE);
+                    try {
+                        while (view.hasRemaining()) {
+                            channel.write(view);
+                        }
+                    } catch (IOException ioe) {
+                        failure = ioe;
+                        // Only the records not written are lost, a partly written one included
+                        lostRecords += (view.remaining() + RECORD_SIZE - 1) / RECORD_SIZE;
+                    }
+                }
+                position += to - from;
+            }
+            consumed.lazySet(position);
+        }
+    }
+}
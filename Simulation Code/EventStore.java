@@ -0,0 +1,169 @@
+package simulation;
+
+import java.util.Arrays;
+
+/**
+ * The class {@code EventStore} to hold the events of the simulation as a
+ * struct of arrays. An event is the index of a slot whose fields are kept in
+ * primitive arrays, and slots are recycled once the event has been handled, so
+ * the simulation does not allocate any event object in its steady state
+ */
+public class EventStore {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private int[] types;
+    private double[] times;
+    private int[] stations;
+    private int[] segments;
+    private double[] carSpeeds;
+    private double[] carPositions;
+    private double[] callDurations;
+    private Direction[] carDirections;
+    private int[] freeSlots;
+    private int numFreeSlots;
+
+    // Constructor
+    public EventStore() {
+        this.types = new int[0];
+        this.times = new double[0];
+        this.stations = new int[0];
+        this.segments = new int[0];
+        this.carSpeeds = new double[0];
+        this.carPositions = new double[0];
+        this.callDurations = new double[0];
+        this.carDirections = new Direction[0];
+        this.freeSlots = new int[0];
+        this.numFreeSlots = 0;
+    }
+
+    // Allocate a slot for a new event of the given type, time and station index, on the segment of the
+    // station on the linear highway, with no car (the car fields of the slot's previous event are cleared)
+    public int allocate(int type, double time, int station) {
+        int event = take(type, time, station);
+        carSpeeds[event] = 0;
+        carPositions[event] = 0;
+        callDurations[event] = 0;
+        carDirections[event] = null;
+
+        return event;
+    }
+
+    // Allocate a slot for a new call event, with the state of the car making the call
+    public int allocate(int type, double time, int station, double carSpeed, double carPosition,
+            double callDuration, Direction carDirection) {
+        int event = take(type, time, station);
+        carSpeeds[event] = carSpeed;
+        carPositions[event] = carPosition;
+        callDurations[event] = callDuration;
+        carDirections[event] = carDirection;
+
+        return event;
+    }
+
+    // Allocate a slot for a new call event on the given road segment of its station, see Topology
+    public int allocate(int type, double time, int station, int segment, double carSpeed, double carPosition,
+            double callDuration, Direction carDirection) {
+        int event = allocate(type, time, station, carSpeed, carPosition, callDuration, carDirection);
+        segments[event] = segment;
+
+        return event;
+    }
+
+    // Take a free slot for a new event, leaving its car fields to be set
+    private int take(int type, double time, int station) {
+        // Grow the arrays when all slots are taken
+        if (numFreeSlots == 0) {
+            grow();
+        }
+
+        int event = freeSlots[--numFreeSlots];
+        types[event] = type;
+        times[event] = time;
+        stations[event] = station;
+        segments[event] = station;
+
+        return event;
+    }
+
+    // Get a copy of the store, with the same events in the same slots
+    public EventStore copy() {
+        EventStore copy = new EventStore();
+        copy.types = types.clone();
+        copy.times = times.clone();
+        copy.stations = stations.clone();
+        copy.segments = segments.clone();
+        copy.carSpeeds = carSpeeds.clone();
+        copy.carPositions = carPositions.clone();
+        copy.callDurations = callDurations.clone();
+        copy.carDirections = carDirections.clone();
+        copy.freeSlots = freeSlots.clone();
+        copy.numFreeSlots = numFreeSlots;
+        return copy;
+    }
+
+    // Release the slot of a handled event
+    public void free(int event) {
+        freeSlots[numFreeSlots++] = event;
+    }
+
+    // Get the event type
+    public int getType(int event) {
+        return types[event];
+    }
+
+    // Get the event time
+    public double getTime(int event) {
+        return times[event];
+    }
+
+    // Get the index of the current station
+    public int getStation(int event) {
+        return stations[event];
+    }
+
+    // Get the index of the road segment of the current station
+    public int getSegment(int event) {
+        return segments[event];
+    }
+
+    // Get the car speed
+    public double getCarSpeed(int event) {
+        return carSpeeds[event];
+    }
+
+    // Get the car position
+    public double getCarPos(int event) {
+        return carPositions[event];
+    }
+
+    // Get the call duration
+    public double getCallDuration(int event) {
+        return callDurations[event];
+    }
+
+    // Get the car direction
+    public Direction getCarDirection(int event) {
+        return carDirections[event];
+    }
+
+    // Double the number of slots
+    private void grow() {
+        int capacity = types.length;
+        int newCapacity = Math.max(INITIAL_CAPACITY, capacity * 2);
+        types = Arrays.copyOf(types, newCapacity);
+        times = Arrays.copyOf(times, newCapacity);
+        stations = Arrays.copyOf(stations, newCapacity);
+        segments = Arrays.copyOf(segments, newCapacity);
+        carSpeeds = Arrays.copyOf(carSpeeds, newCapacity);
+        carPositions = Arrays.copyOf(carPositions, newCapacity);
+        callDurations = Arrays.copyOf(callDurations, newCapacity);
+        carDirections = Arrays.copyOf(carDirections, newCapacity);
+
+        // Only the new slots are free, all the others are in use
+        freeSlots = new int[newCapacity];
+        for (int event = newCapacity - 1; event >= capacity; event--) {
+            freeSlots[numFreeSlots++] = event;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,58 @@
+package simulation;
+
+/**
+ * The class {@code ExponentialDistribution} for an exponential distribution
+ * of the given mean, sampled by inversion
+ */
+public class ExponentialDistribution implements InputDistribution {
+
+    private double mean;
+
+    // Constructor
+    public ExponentialDistribution(double mean) {
+        if (!(mean > 0)) {
+            throw new IllegalArgumentException("The mean of an exponential distribution must be positive");
+        }
+        this.mean = mean;
+    }
+
+    // Fit the distribution to the data by maximum likelihood, the mean of the data
+    public static ExponentialDistribution fit(double[] data) {
+        return new ExponentialDistribution(DistributionFitter.mean(data));
+    }
+
+    @Override
+    public int getVariateKind() {
+        return VariateBuffer.EXPONENTIAL;
+    }
+
+    @Override
+    public double sample(VariateBuffer random) {
+        return (-mean) * random.next();
+    }
+
+    @Override
+    public double logDensity(double x) {
+        return x < 0 ? Double.NEGATIVE_INFINITY : -Math.log(mean) - x / mean;
+    }
+
+    @Override
+    public double getMean() {
+        return mean;
+    }
+
+    @Override
+    public double getVariance() {
+        return mean * mean;
+    }
+
+    @Override
+    public int getNumberOfParameters() {
+        return 1;
+    }
+
+    @Override
+    public String toString() {
+        return "exponential(" + mean + ")";
+    }
+}
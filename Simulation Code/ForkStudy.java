@@ -0,0 +1,82 @@
+package simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The class {@code ForkStudy} to run what-if scenarios from one warmed-up
+ * state instead of warming up every replication. A single run is simulated
+ * through the warm up period once, then every replication of every scenario
+ * forks it and simulates only the calls after the warm up period, all of them
+ * in parallel. The scenarios vary the FCA scheme and the mean inter-arrival
+ * time (load). The replications with the same index share their seed, so the
+ * scenarios are compared on common random numbers. All replications start
+ * from the same state, so their results are only independent after it
+ */
+public class ForkStudy {
+
+    private ReplicationRunner runner;
+    private List<ScenarioConfig> scenarios;
+    private List<List<ReplicationResult>> results;
+    private int warmUpCalls;
+
+    // Constructor
+    public ForkStudy(ReplicationRunner runner) {
+        this.runner = runner;
+        this.scenarios = new ArrayList<>();
+        this.results = new ArrayList<>();
+    }
+
+    // Warm up the run, or continue the saved one, and fork it into the replications of every scenario
+    public void run(ScenarioConfig config, Simulator warmState) {
+        warmState.runUntil(config.getWarmUpCalls());
+        warmUpCalls = warmState.getGeneratedCalls();
+
+        // One scenario per FCA scheme and load, the configured ones when a list is not given
+        int[] reservations = config.getForkReservations() != null ? config.getForkReservations()
+                : new int[] { config.getNumberOfReservations() };
+        double[] interArrivalTimeMeans = config.getForkInterArrivalTimeMeans() != null
+                ? config.getForkInterArrivalTimeMeans()
+                : new double[] { config.getInterArrivalTimeMean() };
+        scenarios = new ArrayList<>();
+        for (double interArrivalTimeMean : interArrivalTimeMeans) {
+            for (int numberOfReservations : reservations) {
+                ScenarioConfig scenario = config.copy();
+                scenario.setInterArrivalTimeMean(interArrivalTimeMean);
+                scenario.setNumberOfReservations(numberOfReservations);
+                scenarios.add(scenario);
+            }
+        }
+
+        // Every scenario of a replication gets the seed of the replication
+        List<ScenarioConfig> runs = new ArrayList<>();
+        List<Long> seeds = new ArrayList<>();
+        for (int i = 0; i < config.getReplications(); i++) {
+            long seed = runner.nextSeed();
+            for (ScenarioConfig scenario : scenarios) {
+                runs.add(scenario);
+                seeds.add(seed);
+            }
+        }
+        List<ReplicationResult> runResults = runner.runAllFrom(warmState, runs, seeds);
+
+        results = new ArrayList<>();
+        for (int s = 0; s < scenarios.size(); s++) {
+            List<ReplicationResult> scenarioResults = new ArrayList<>();
+            for (int i = s; i < runResults.size(); i += scenarios.size()) {
+                scenarioResults.add(runResults.get(i));
+            }
+            results.add(scenarioResults);
+        }
+    }
+
+    // Generate the statistics report of every scenario
+    public void generateStatisticsReport() {
+        System.out.println("Warm Up Calls simulated once and forked: " + warmUpCalls);
+        for (int s = 0; s < scenarios.size(); s++) {
+            System.out.println("----------------------------------------");
+            System.out.println("Mean Inter-arrival Time (sec): " + scenarios.get(s).getInterArrivalTimeMean());
+            runner.generateStatisticsReport(results.get(s));
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,26 @@
+package simulation;
+
+/**
+ * The interface {@code FutureEventList} for the future event list (FEL) of the
+ * simulation. Events are kept as primitive (time, event index) pairs so that
+ * adding and removing an event never allocates
+ */
+public interface FutureEventList {
+
+    // Add an event index with the given event time
+    public void add(double time, int event);
+
+    // Remove the event with the smallest time and get its index
+    public int remove();
+
+    // Get the time of the event with the smallest time
+    public double peekTime();
+
+    // Get the number of events in the list
+    public int size();
+
+    // Check if there is no event in the list
+    public default boolean isEmpty() {
+        return size() == 0;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,151 @@
+package simulation;
+
+/**
+ * The class {@code GammaDistribution} for a gamma distribution of the given
+ * shape and scale, sampled with the method of Marsaglia and Tsang from
+ * ziggurat Gaussians. The exponential of its acceptance test is half the sum
+ * of the squares of two more Gaussians, so it needs a single kind of
+ * variates, and a shape below 1 is boosted from the shape plus 1
+ */
+public class GammaDistribution implements InputDistribution {
+
+    private static final int MAX_ITERATIONS = 100;
+    private static final double TOLERANCE = 1e-12;
+    // Coefficients of the Lanczos approximation of the gamma function (g = 7)
+    private static final double[] LANCZOS = { 676.5203681218851, -1259.1392167224028, 771.32342877765313,
+            -176.61502916214059, 12.507343278686905, -0.13857109526572012, 9.9843695780195716e-6,
+            1.5056327351493116e-7 };
+
+    private double shape;
+    private double scale;
+    // Constants of the method for the boosted shape
+    private double d;
+    private double c;
+
+    // Constructor
+    public GammaDistribution(double shape, double scale) {
+        if (!(shape > 0) || !(scale > 0)) {
+            throw new IllegalArgumentException("The shape and scale of a gamma distribution must be positive");
+        }
+        this.shape = shape;
+        this.scale = scale;
+        this.d = (shape < 1 ? shape + 1 : shape) - 1.0 / 3;
+        this.c = 1 / Math.sqrt(9 * d);
+    }
+
+    // Fit the distribution to positive data by maximum likelihood: Newton's method on the shape,
+    // from the approximation of Minka, and the scale from the mean of the data
+    public static GammaDistribution fit(double[] data) {
+        double mean = DistributionFitter.mean(data);
+        double s = Math.log(mean) - DistributionFitter.mean(DistributionFitter.logs(data));
+        if (!(s > 0)) {
+            throw new IllegalArgumentException("A gamma distribution cannot be fitted to constant data");
+        }
+        double shape = (3 - s + Math.sqrt((s - 3) * (s - 3) + 24 * s)) / (12 * s);
+        for (int i = 0; i < MAX_ITERATIONS; i++) {
+            double step = (Math.log(shape) - digamma(shape) - s) / (1 / shape - trigamma(shape));
+            shape = Math.max(shape - step, shape / 2);
+            if (Math.abs(step) < TOLERANCE * shape) {
+                break;
+            }
+        }
+        return new GammaDistribution(shape, mean / shape);
+    }
+
+    // Get the natural log of the gamma function, for x > 0 (Lanczos approximation)
+    static double logGamma(double x) {
+        if (x < 0.5) {
+            // Reflection formula
+            return Math.log(Math.PI / Math.sin(Math.PI * x)) - logGamma(1 - x);
+        }
+        x -= 1;
+        double sum = 0.99999999999980993;
+        for (int i = 0; i < LANCZOS.length; i++) {
+            sum += LANCZOS[i] / (x + i + 1);
+        }
+        double t = x + LANCZOS.length - 0.5;
+        return 0.5 * Math.log(2 * Math.PI) + (x + 0.5) * Math.log(t) - t + Math.log(sum);
+    }
+
+    // Get the digamma function, for x > 0, from its asymptotic series after moving x above 6
+    private static double digamma(double x) {
+        double result = 0;
+        while (x < 6) {
+            result -= 1 / x;
+            x++;
+        }
+        double f = 1 / (x * x);
+        return result + Math.log(x) - 0.5 / x
+                - f * (1.0 / 12 - f * (1.0 / 120 - f * (1.0 / 252 - f * (1.0 / 240 - f / 132))));
+    }
+
+    // Get the trigamma function, for x > 0, from its asymptotic series after moving x above 6
+    private static double trigamma(double x) {
+        double result = 0;
+        while (x < 6) {
+            result += 1 / (x * x);
+            x++;
+        }
+        double f = 1 / (x * x);
+        return result + 1 / x + f / 2 + f / x * (1.0 / 6 - f * (1.0 / 30 - f * (1.0 / 42 - f / 30)));
+    }
+
+    @Override
+    public int getVariateKind() {
+        return VariateBuffer.NORMAL;
+    }
+
+    @Override
+    public double sample(VariateBuffer random) {
+        while (true) {
+            double z = random.next();
+            double v = 1 + c * z;
+            if (v <= 0) {
+                continue;
+            }
+            v = v * v * v;
+            // An exponential, as half a chi-squared with 2 degrees of freedom
+            double z1 = random.next();
+            double z2 = random.next();
+            double e = 0.5 * (z1 * z1 + z2 * z2);
+            if (-e < 0.5 * z * z + d - d * v + d * Math.log(v)) {
+                double x = d * v;
+                if (shape < 1) {
+                    // Boost from shape + 1 with U^(1 / shape), U = exp(-e) from two more Gaussians
+                    double z3 = random.next();
+                    double z4 = random.next();
+                    x *= Math.exp(-0.5 * (z3 * z3 + z4 * z4) / shape);
+                }
+                return x * scale;
+            }
+        }
+    }
+
+    @Override
+    public double logDensity(double x) {
+        if (x <= 0) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        return (shape - 1) * Math.log(x) - x / scale - logGamma(shape) - shape * Math.log(scale);
+    }
+
+    @Override
+    public double getMean() {
+        return shape * scale;
+    }
+
+    @Override
+    public double getVariance() {
+        return shape * scale * scale;
+    }
+
+    @Override
+    public int getNumberOfParameters() {
+        return 2;
+    }
+
+    @Override
+    public String toString() {
+        return "gamma(" + shape + ", " + scale + ")";
+    }
+}
@@ -0,0 +1,122 @@
+package simulation;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * The class {@code HeapEventList} for a future event list backed by a 4-ary
+ * heap over parallel arrays of event times and event indices. Events with the
+ * same time are removed in the order they are added, as in a
+ * {@link CalendarEventList}, so both lists run a seed the same way
+ */
+public class HeapEventList implements FutureEventList {
+
+    private static final int ARITY = 4;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private double[] times;
+    private int[] events;
+    // Order in which the events are added, to break ties between equal times
+    private long[] sequences;
+    private long nextSequence;
+    private int size;
+
+    // Constructor
+    public HeapEventList() {
+        this.times = new double[INITIAL_CAPACITY];
+        this.events = new int[INITIAL_CAPACITY];
+        this.sequences = new long[INITIAL_CAPACITY];
+        this.nextSequence = 0;
+        this.size = 0;
+    }
+
+    @Override
+    public void add(double time, int event) {
+        // Grow the arrays when the heap is full
+        if (size == times.length) {
+            times = Arrays.copyOf(times, size * 2);
+            events = Arrays.copyOf(events, size * 2);
+            sequences = Arrays.copyOf(sequences, size * 2);
+        }
+
+        // Sift the new event up from the last position, after the events with the same time
+        long sequence = nextSequence++;
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) / ARITY;
+            if (times[parent] <= time) {
+                break;
+            }
+            times[i] = times[parent];
+            events[i] = events[parent];
+            sequences[i] = sequences[parent];
+            i = parent;
+        }
+        times[i] = time;
+        events[i] = event;
+        sequences[i] = sequence;
+    }
+
+    @Override
+    public int remove() {
+        if (size == 0) {
+            throw new NoSuchElementException("The future event list is empty");
+        }
+
+        int first = events[0];
+        // Move the last event to the root and sift it down
+        size--;
+        if (size > 0) {
+            siftDown(times[size], events[size], sequences[size]);
+        }
+
+        return first;
+    }
+
+    @Override
+    public double peekTime() {
+        if (size == 0) {
+            throw new NoSuchElementException("The future event list is empty");
+        }
+        return times[0];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    // Sift an event down from the root to its position
+    private void siftDown(double time, int event, long sequence) {
+        int i = 0;
+        while (true) {
+            int firstChild = i * ARITY + 1;
+            if (firstChild >= size) {
+                break;
+            }
+            // Find the child with the smallest time, the earliest added among equal times
+            int lastChild = Math.min(firstChild + ARITY, size);
+            int minChild = firstChild;
+            for (int child = firstChild + 1; child < lastChild; child++) {
+                if (isBefore(times[child], sequences[child], times[minChild], sequences[minChild])) {
+                    minChild = child;
+                }
+            }
+            if (!isBefore(times[minChild], sequences[minChild], time, sequence)) {
+                break;
+            }
+            times[i] = times[minChild];
+            events[i] = events[minChild];
+            sequences[i] = sequences[minChild];
+            i = minChild;
+        }
+        times[i] = time;
+        events[i] = event;
+        sequences[i] = sequence;
+    }
+
+    // Check if an event is removed before another, by time and then by the order they are added
+    private static boolean isBefore(double time, long sequence, double otherTime, long otherSequence) {
+        return time < otherTime || (time == otherTime && sequence < otherSequence);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,33 @@
+package simulation;
+
+/**
+ * The interface {@code InputDistribution} for the distribution of an input
+ * variable of the simulation: the inter-arrival time, the call duration or
+ * the car speed. A distribution is sampled from the standard variates of a
+ * {@link VariateBuffer} of its kind, so its values are drawn in blocks from
+ * the substream of the variable, and it gives its density for the maximum
+ * likelihood fits of a {@link DistributionFitter}. A distribution is
+ * immutable, so the replications share it, and the string form of a
+ * parametric distribution is the spec that creates it again, e.g.
+ * "gamma(2.5, 0.55)"
+ */
+public interface InputDistribution {
+
+    // Get the kind of the standard variates the distribution is sampled from, see VariateBuffer
+    public int getVariateKind();
+
+    // Sample a value from the standard variates of the buffer
+    public double sample(VariateBuffer random);
+
+    // Get the natural log of the density at a value, negative infinity outside the support
+    public double logDensity(double x);
+
+    // Get the mean
+    public double getMean();
+
+    // Get the variance
+    public double getVariance();
+
+    // Get the number of parameters fitted to the data
+    public int getNumberOfParameters();
+}
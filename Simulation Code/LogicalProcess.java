@@ -0,0 +1,495 @@
+package simulation;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The class {@code LogicalProcess} to simulate a contiguous range of cells of
+ * the highway in its own thread, with its own FEL, as one partition of a
+ * {@link ParallelSimulator}. The partition samples its own calls, a Poisson
+ * stream with its share of the arrival rate, and exchanges the calls crossing
+ * into a neighbouring partition as handover messages.
+ *
+ * The partitions are synchronized conservatively: each one publishes to each
+ * neighbour a promise, the earliest time of any handover it may still send to
+ * it (the null messages), and only handles the events earlier than the
+ * promises of its neighbours. A call reaches a boundary at least a lookahead
+ * (the crossing time of a cell at the maximum car speed) after it enters the
+ * boundary cell, and the calls starting in a boundary cell are sampled ahead,
+ * so the promises run ahead of the partition clocks. A handover is sent as
+ * soon as it is scheduled, since a call never changes its course.
+ *
+ * The calls are handled with the channel rules of {@link Station} and
+ * routed with {@link Simulator#allocateNextEvent}, as in a sequential run
+ */
+public class LogicalProcess implements Runnable {
+
+    // A call entering this partition from a neighbour
+    private static final int HANDOVER_ARRIVAL = Event.FIRST_CUSTOM_TYPE;
+
+    private ParallelSimulator simulator;
+    private int firstStation;
+    private int lastStation;
+    private Topology topology;
+    private double cellLength;
+    private double lookahead;
+    private LogicalProcess left;
+    private LogicalProcess right;
+
+    private double clock;
+    private FutureEventList fel;
+    private EventStore events;
+    private Station[] stations;
+    private RandomNumberGenerator randomNumberGenerator;
+
+    // Calls of this partition
+    private long totalCalls;
+    private long warmUpCalls;
+    private long drawnCalls;
+    private long initiatedCalls;
+    private int pendingInitiations;
+    private double lastArrivalTime;
+    private long finished;
+    private AtomicLong finishedCalls;
+
+    // Statistics, after the warm up period
+    private long numCallsBlocked;
+    private long numberOfDroppedCalls;
+    private long numberOfEvents;
+    private long sentHandovers;
+    private long promiseUpdates;
+
+    // Handovers from the neighbours, and the promises to them
+    private HandoverRing inboxFromLeft;
+    private HandoverRing inboxFromRight;
+    private volatile double promiseToLeft;
+    private volatile double promiseToRight;
+    // Handover times of the sampled calls starting in a boundary cell toward each neighbour
+    private TimeQueue leftBoundaryHandovers;
+    private TimeQueue rightBoundaryHandovers;
+
+    // Constructor, for the stations from firstStation to lastStation (indices, inclusive) of the highway
+    public LogicalProcess(ParallelSimulator simulator, ScenarioConfig config, int firstStation, int lastStation,
+            long totalCalls, long warmUpCalls, double lookahead, long seed) {
+        this.simulator = simulator;
+        this.firstStation = firstStation;
+        this.lastStation = lastStation;
+        this.topology = config.getTopology();
+        this.cellLength = config.getCellLength();
+        this.lookahead = lookahead;
+        this.clock = 0;
+        this.fel = config.createFutureEventList();
+        this.events = new EventStore();
+        this.stations = new Station[lastStation - firstStation + 1];
+        for (int i = 0; i < stations.length; i++) {
+            stations[i] = new Station(firstStation + i + 1, config.getNumberOfChannels(),
+                    config.getNumberOfReservations());
+        }
+
+        // The partition gets the arrivals of its stations, a Poisson stream with their share of the rate
+        ScenarioConfig partition = config.copy();
+        partition.setNumberOfStations(stations.length);
+        partition.setInterArrivalTimeMean(config.getInterArrivalTimeMean() * config.getNumberOfStations()
+                / stations.length);
+        this.randomNumberGenerator = new RandomNumberGenerator(partition, seed);
+
+        this.totalCalls = totalCalls;
+        this.warmUpCalls = warmUpCalls;
+        this.finishedCalls = new AtomicLong();
+        this.inboxFromLeft = new HandoverRing();
+        this.inboxFromRight = new HandoverRing();
+        this.promiseToLeft = 0;
+        this.promiseToRight = 0;
+        this.leftBoundaryHandovers = new TimeQueue();
+        this.rightBoundaryHandovers = new TimeQueue();
+    }
+
+    // Connect the partition to its neighbours, null at the ends of the highway
+    public void connect(LogicalProcess left, LogicalProcess right) {
+        this.left = left;
+        this.right = right;
+    }
+
+    // Simulate the partition in its thread
+    @Override
+    public void run() {
+        try {
+            simulate();
+        } catch (RuntimeException | Error e) {
+            simulator.fail(e);
+        } finally {
+            // Nothing is sent anymore, release the neighbours
+            promiseToLeft = Double.POSITIVE_INFINITY;
+            promiseToRight = Double.POSITIVE_INFINITY;
+        }
+    }
+
+    // Handle the events of the partition as far as the neighbours allow, until every call is finished
+    private void simulate() {
+        if (totalCalls > 0) {
+            drawArrival();
+        }
+        while (!simulator.isFailed()) {
+            // Read the promises before the handovers, every handover earlier than them is then in the inbox
+            double safeTime = Math.min(left != null ? left.promiseToRight : Double.POSITIVE_INFINITY,
+                    right != null ? right.promiseToLeft : Double.POSITIVE_INFINITY);
+            receiveHandovers();
+
+            // Handle the events no neighbour can precede anymore
+            long handledEvents = numberOfEvents;
+            while (!fel.isEmpty() && fel.peekTime() < safeTime) {
+                handleEvent(fel.remove());
+            }
+            publishPromises(safeTime);
+
+            if (numberOfEvents == handledEvents) {
+                if (fel.isEmpty() && simulator.isFinished()) {
+                    break;
+                }
+                Thread.yield();
+            }
+        }
+    }
+
+    // Move the handovers of the neighbours to the FEL
+    private void receiveHandovers() {
+        receiveHandovers(inboxFromLeft);
+        receiveHandovers(inboxFromRight);
+    }
+
+    // Move the handovers of a neighbour to the FEL, each into an event slot
+    private void receiveHandovers(HandoverRing inbox) {
+        int handover;
+        while ((handover = inbox.peek()) >= 0) {
+            double time = inbox.times[handover];
+            // A handover in the past of the partition means a neighbour broke its promise
+            if (time < clock) {
+                throw new IllegalStateException("Handover at " + time + " received by the partition of "
+                        + "stations " + (firstStation + 1) + " to " + (lastStation + 1) + " at " + clock);
+            }
+            scheduleEvent(events.allocate(HANDOVER_ARRIVAL, time, inbox.stations[handover],
+                    inbox.carSpeeds[handover], 0, inbox.callDurations[handover], inbox.carDirections[handover]));
+            inbox.remove();
+        }
+    }
+
+    // Publish the earliest time of any handover still to be sent to each neighbour
+    private void publishPromises(double safeTime) {
+        // No event earlier than the next one or than the handovers still to be received
+        double nextEventTime = Math.min(fel.isEmpty() ? Double.POSITIVE_INFINITY : fel.peekTime(), safeTime);
+        double horizon = nextEventTime + lookahead;
+        // Sample the arrivals up to the horizon, so that the boundary calls among them are known
+        while (drawnCalls < totalCalls && lastArrivalTime < horizon) {
+            drawArrival();
+        }
+        if (left != null) {
+            promiseToLeft = Math.min(horizon, leftBoundaryHandovers.min());
+        }
+        if (right != null) {
+            promiseToRight = Math.min(horizon, rightBoundaryHandovers.min());
+        }
+        promiseUpdates++;
+    }
+
+    // Handle an event, dispatching on its type code
+    private void handleEvent(int event) {
+        clock = events.getTime(event);
+        switch (events.getType(event)) {
+        case Event.CALL_INITIATION:
+            handleCallInitiationEvent(event);
+            break;
+        case Event.CALL_HANDOVER:
+            handleCallHandoverEvent(event);
+            break;
+        case Event.CALL_TERMINATION:
+            handleCallTerminationEvent(event);
+            break;
+        default:
+            enterStation(events.getStation(event), events.getCarSpeed(event), events.getCallDuration(event),
+                    events.getCarDirection(event));
+            break;
+        }
+        events.free(event);
+        numberOfEvents++;
+    }
+
+    // Handle CallInitiationEvent
+    private void handleCallInitiationEvent(int event) {
+        int station = events.getStation(event);
+        Station currStation = stations[station - firstStation];
+        double carSpeed = events.getCarSpeed(event);
+        double carPosition = events.getCarPos(event);
+        double callDuration = events.getCallDuration(event);
+        Direction carDirection = events.getCarDirection(event);
+        initiatedCalls++;
+        pendingInitiations--;
+        // The calls are initiated in the order they were sampled
+        TimeQueue boundaryHandovers = getBoundaryHandovers(station, carDirection);
+        if (boundaryHandovers != null) {
+            boundaryHandovers.poll();
+        }
+
+        // Blocked if the number of available channels is less than or equal to the reserved channels
+        if (currStation.blocksNewCall()) {
+            numCallsBlocked++;
+            finishCall();
+        } else {
+            currStation.acquireAnAvailableChannel();
+            scheduleNextEvent(station, cellLength - carPosition, carSpeed, callDuration, carDirection);
+        }
+
+        // Sample the next call once every sampled one is initiated
+        if (pendingInitiations == 0 && drawnCalls < totalCalls) {
+            drawArrival();
+        }
+        // Reset after the warm up period
+        if (initiatedCalls == warmUpCalls) {
+            numCallsBlocked = 0;
+            numberOfDroppedCalls = 0;
+        }
+    }
+
+    // Handle CallHandoverEvent, the call leaves its station
+    private void handleCallHandoverEvent(int event) {
+        int station = events.getStation(event);
+        stations[station - firstStation].releaseAnAcquiredChannel();
+        Direction carDirection = events.getCarDirection(event);
+        int nextStation = carDirection == Direction.TO_20TH_STATION ? station + 1 : station - 1;
+        // A call crossing into a neighbour was sent to it when the handover was scheduled
+        if (nextStation >= firstStation && nextStation <= lastStation) {
+            enterStation(nextStation, events.getCarSpeed(event), events.getCallDuration(event), carDirection);
+        }
+    }
+
+    // Handle CallTerminationEvent
+    private void handleCallTerminationEvent(int event) {
+        stations[events.getStation(event) - firstStation].releaseAnAcquiredChannel();
+        finishCall();
+    }
+
+    // Hand a call over to a station of this partition, dropped if there is no available channel
+    private void enterStation(int station, double carSpeed, double callDuration, Direction carDirection) {
+        Station currStation = stations[station - firstStation];
+        if (currStation.dropsHandover()) {
+            numberOfDroppedCalls++;
+            finishCall();
+            return;
+        }
+        currStation.acquireAnAvailableChannel();
+        // Distance to the next station in a handover event is always the cell length
+        scheduleNextEvent(station, cellLength, carSpeed, callDuration, carDirection);
+    }
+
+    // Schedule the termination or the handover of a call that acquired a channel at a station
+    private void scheduleNextEvent(int station, double distanceToNextStation, double carSpeed, double callDuration,
+            Direction carDirection) {
+        // The stations of the linear highway are its road segments
+        int event = Simulator.allocateNextEvent(events, topology, clock, station, distanceToNextStation, carSpeed,
+                callDuration, carDirection);
+        scheduleEvent(event);
+        if (events.getType(event) != Event.CALL_HANDOVER) {
+            return;
+        }
+        // Send the call crossing into a neighbour right away
+        if (carDirection == Direction.TO_20TH_STATION && station == lastStation) {
+            send(right.inboxFromLeft, events.getTime(event), station + 1, carSpeed, events.getCallDuration(event),
+                    carDirection);
+        } else if (carDirection == Direction.TO_1ST_STATION && station == firstStation) {
+            send(left.inboxFromRight, events.getTime(event), station - 1, carSpeed, events.getCallDuration(event),
+                    carDirection);
+        }
+    }
+
+    // Send a call entering a station of a neighbour to its inbox, receiving the handovers sent to this
+    // partition while the inbox is full, so that two neighbours filling each other's inbox never wait forever
+    private void send(HandoverRing inbox, double time, int station, double carSpeed, double callDuration,
+            Direction carDirection) {
+        while (!inbox.offer(time, station, carSpeed, callDuration, carDirection)) {
+            if (simulator.isFailed()) {
+                return;
+            }
+            receiveHandovers();
+            Thread.yield();
+        }
+        sentHandovers++;
+    }
+
+    // Sample the next call of the partition and schedule its initiation
+    private void drawArrival() {
+        double time = randomNumberGenerator.getArrivalTime(lastArrivalTime);
+        int station = firstStation + randomNumberGenerator.getBaseStation() - 1;
+        double carSpeed = randomNumberGenerator.getCarSpeed();
+        double carPosition = randomNumberGenerator.getCarPos();
+        double callDuration = randomNumberGenerator.getCallDuration();
+        Direction carDirection = randomNumberGenerator.getCarDirection();
+        scheduleEvent(events.allocate(Event.CALL_INITIATION, time, station, carSpeed, carPosition, callDuration,
+                carDirection));
+        lastArrivalTime = time;
+        drawnCalls++;
+        pendingInitiations++;
+
+        // A call starting in a boundary cell toward a neighbour may reach it before the lookahead
+        TimeQueue boundaryHandovers = getBoundaryHandovers(station, carDirection);
+        if (boundaryHandovers != null) {
+            boundaryHandovers.add(time + (cellLength - carPosition) / carSpeed * 3600);
+        }
+    }
+
+    // Get the handover times toward the neighbour a call in a station is heading to, null if it is not
+    // in the boundary cell toward a neighbour
+    private TimeQueue getBoundaryHandovers(int station, Direction carDirection) {
+        if (carDirection == Direction.TO_20TH_STATION && station == lastStation && right != null) {
+            return rightBoundaryHandovers;
+        }
+        if (carDirection == Direction.TO_1ST_STATION && station == firstStation && left != null) {
+            return leftBoundaryHandovers;
+        }
+        return null;
+    }
+
+    // Count a call finished in this partition
+    private void finishCall() {
+        finishedCalls.lazySet(++finished);
+    }
+
+    // Add an event to FEL
+    private void scheduleEvent(int event) {
+        fel.add(events.getTime(event), event);
+    }
+
+    // Get the number of calls finished in this partition
+    public long getFinishedCalls() {
+        return finishedCalls.get();
+    }
+
+    // Get the number of blocked calls after the warm up period
+    public long getNumCallsBlocked() {
+        return numCallsBlocked;
+    }
+
+    // Get the number of dropped calls after the warm up period
+    public long getNumberOfDroppedCalls() {
+        return numberOfDroppedCalls;
+    }
+
+    // Get the number of handled events
+    public long getNumberOfEvents() {
+        return numberOfEvents;
+    }
+
+    // Get the number of handovers sent to the neighbours
+    public long getSentHandovers() {
+        return sentHandovers;
+    }
+
+    // Get the number of promises published to the neighbours
+    public long getPromiseUpdates() {
+        return promiseUpdates;
+    }
+
+    /**
+     * The class {@code HandoverRing} for the calls sent to a partition by one
+     * neighbour, each entering a station of the partition at a given time. The
+     * handovers are kept in a ring of primitive arrays, a struct of arrays like
+     * {@link EventStore}, with a single producer and a single consumer which
+     * only share the published and received positions, like the ring of
+     * {@link EventLog}, so sending a call allocates nothing
+     */
+    private static final class HandoverRing {
+
+        private static final int CAPACITY = 1 << 12;
+        private static final int MASK = CAPACITY - 1;
+
+        private final double[] times = new double[CAPACITY];
+        private final int[] stations = new int[CAPACITY];
+        private final double[] carSpeeds = new double[CAPACITY];
+        private final double[] callDurations = new double[CAPACITY];
+        private final Direction[] carDirections = new Direction[CAPACITY];
+
+        // Positions of the next handover to publish and to receive
+        private final AtomicLong published = new AtomicLong();
+        private final AtomicLong received = new AtomicLong();
+        // Producer copies of the positions
+        private long next;
+        private long cachedReceived;
+        // Consumer copies of the positions
+        private long position;
+        private long cachedPublished;
+
+        // Publish a handover, false if the ring is full
+        private boolean offer(double time, int station, double carSpeed, double callDuration,
+                Direction carDirection) {
+            if (next - cachedReceived >= CAPACITY) {
+                cachedReceived = received.get();
+                if (next - cachedReceived >= CAPACITY) {
+                    return false;
+                }
+            }
+            int handover = (int) (next & MASK);
+            times[handover] = time;
+            stations[handover] = station;
+            carSpeeds[handover] = carSpeed;
+            callDurations[handover] = callDuration;
+            carDirections[handover] = carDirection;
+            next++;
+            published.lazySet(next);
+            return true;
+        }
+
+        // Get the index of the next published handover, -1 if there is none
+        private int peek() {
+            if (position == cachedPublished) {
+                cachedPublished = published.get();
+                if (position == cachedPublished) {
+                    return -1;
+                }
+            }
+            return (int) (position & MASK);
+        }
+
+        // Remove the handover returned by peek, freeing its place for the producer
+        private void remove() {
+            position++;
+            received.lazySet(position);
+        }
+    }
+
+    /**
+     * The class {@code TimeQueue} for a first-in first-out queue of times in
+     * a growing ring of primitive doubles, with the minimum of its times
+     */
+    private static final class TimeQueue {
+
+        private double[] times = new double[16];
+        private int head;
+        private int size;
+
+        // Add a time at the end of the queue
+        private void add(double time) {
+            if (size == times.length) {
+                double[] grown = new double[times.length * 2];
+                for (int i = 0; i < size; i++) {
+                    grown[i] = times[(head + i) % times.length];
+                }
+                times = grown;
+                head = 0;
+            }
+            times[(head + size) % times.length] = time;
+            size++;
+        }
+
+        // Remove the time at the front of the queue
+        private void poll() {
+            head = (head + 1) % times.length;
+            size--;
+        }
+
+        // Get the smallest time of the queue, infinity when it is empty
+        private double min() {
+            double min = Double.POSITIVE_INFINITY;
+            for (int i = 0; i < size; i++) {
+                min = Math.min(min, times[(head + i) % times.length]);
+            }
+            return min;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,68 @@
+package simulation;
+
+/**
+ * The class {@code LognormalDistribution} for a lognormal distribution, whose
+ * log is normal with the given mean and standard deviation, sampled from
+ * ziggurat Gaussians
+ */
+public class LognormalDistribution implements InputDistribution {
+
+    private double mu;
+    private double sigma;
+
+    // Constructor, with the mean and standard deviation of the log
+    public LognormalDistribution(double mu, double sigma) {
+        if (!(sigma > 0)) {
+            throw new IllegalArgumentException("The sigma of a lognormal distribution must be positive");
+        }
+        this.mu = mu;
+        this.sigma = sigma;
+    }
+
+    // Fit the distribution to positive data by maximum likelihood, the mean and standard deviation
+    // of the log of the data
+    public static LognormalDistribution fit(double[] data) {
+        double[] logs = DistributionFitter.logs(data);
+        double mu = DistributionFitter.mean(logs);
+        return new LognormalDistribution(mu, Math.sqrt(DistributionFitter.variance(logs, mu)));
+    }
+
+    @Override
+    public int getVariateKind() {
+        return VariateBuffer.NORMAL;
+    }
+
+    @Override
+    public double sample(VariateBuffer random) {
+        return Math.exp(mu + random.next() * sigma);
+    }
+
+    @Override
+    public double logDensity(double x) {
+        if (x <= 0) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        double logX = Math.log(x);
+        return NormalDistribution.logStandardDensity((logX - mu) / sigma) - Math.log(sigma) - logX;
+    }
+
+    @Override
+    public double getMean() {
+        return Math.exp(mu + sigma * sigma / 2);
+    }
+
+    @Override
+    public double getVariance() {
+        return Math.expm1(sigma * sigma) * Math.exp(2 * mu + sigma * sigma);
+    }
+
+    @Override
+    public int getNumberOfParameters() {
+        return 2;
+    }
+
+    @Override
+    public String toString() {
+        return "lognormal(" + mu + ", " + sigma + ")";
+    }
+}
@@ -1,11 +1,133 @@
 package simulation;
 
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
 /**
  * The class {@code Main} to run the simulation
  */
 public class Main {
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+        // Read the scenario from the command line, e.g. --config=highway.properties --seed=42
+        ScenarioConfig config = ScenarioConfig.fromArgs(args);
+
+        // Convert a CSV call trace to the compact binary format, e.g. --trace=calls.csv --trace.binary=calls.bin
+        if (config.getTraceBinary() != null) {
+            long numberOfCalls = TraceCallSource.convert(Paths.get(config.getTrace()),
+                    Paths.get(config.getTraceBinary()));
+            System.out.println("Converted " + numberOfCalls + " calls to " + config.getTraceBinary());
+            return;
+        }
+
+        // Report the fits to the measurement data and the distributions in use, e.g. --input.data=calls.csv
+        if (config.getInputData() != null) {
+            new DistributionFitter(Paths.get(config.getInputData())).generateStatisticsReport();
+            System.out.println("Inter-arrival time distribution: " + config.getInterArrivalTimeDistribution());
+            System.out.println("Call duration distribution: " + config.getCallDurationDistribution());
+            System.out.println("Car speed distribution: " + config.getCarSpeedDistribution());
+        }
+
+        // Merge the per-station metrics of all runs, published through JMX when requested
+        StationMetricsRegistry metricsRegistry = config.isMetrics() ? new StationMetricsRegistry() : null;
+        if (metricsRegistry != null && config.isMetricsJmx()) {
+            metricsRegistry.register();
+        }
+        // Report the progress periodically when requested, e.g. --progress=10
+        ProgressMonitor progress = config.getProgress() > 0 ? new ProgressMonitor(config.getProgress()) : null;
+        // Write the results of all runs through one sink, closed when the simulation ends
+        try (ResultsSink sink = config.createResultsSink()) {
+            run(config, sink, metricsRegistry, progress);
+        } finally {
+            if (progress != null) {
+                progress.close();
+            }
+        }
+        if (metricsRegistry != null) {
+            metricsRegistry.generateStatisticsReport();
+        }
+    }
+
+    // Run the simulation mode selected by the scenario
+    private static void run(ScenarioConfig config, ResultsSink sink, StationMetricsRegistry metricsRegistry,
+            ProgressMonitor progress) throws IOException {
+        // Use the configured master seed to reproduce a previous study
+        long masterSeed = config.getSeed() != null ? config.getSeed() : ThreadLocalRandom.current().nextLong();
+        // Run the independent replications on all available cores
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        ReplicationRunner runner = new ReplicationRunner(parallelism, masterSeed, sink, metricsRegistry, progress);
+
+        // Save the state of a run after some calls, e.g. --checkpoint=warm.bin --checkpoint.calls=100000,
+        // continuing a saved run when resuming
+        if (config.getCheckpoint() != null) {
+            Simulator simulator = config.getResume() != null
+                    ? Simulator.restore(Paths.get(config.getResume()), config)
+                    : new Simulator(config, masterSeed);
+            simulator.runUntil(config.getCheckpointCalls());
+            simulator.checkpoint(Paths.get(config.getCheckpoint()));
+            System.out.println("Saved the state after " + simulator.getGeneratedCalls() + " calls to "
+                    + config.getCheckpoint());
+            return;
+        }
+
+        // Fork one warmed-up run, or a saved one, into what-if scenarios, e.g. --fork.reservations=0,1,2
+        if (config.getForkReservations() != null || config.getForkInterArrivalTimeMeans() != null) {
+            Simulator warmState = config.getResume() != null
+                    ? Simulator.restore(Paths.get(config.getResume()), config)
+                    : new Simulator(config, masterSeed);
+            ForkStudy study = new ForkStudy(runner);
+            study.run(config, warmState);
+            study.generateStatisticsReport();
+            return;
+        }
+
+        // Continue a saved run to the end, e.g. --resume=warm.bin --reservations=1
+        if (config.getResume() != null) {
+            runSingle(Simulator.restore(Paths.get(config.getResume()), config), sink, metricsRegistry, progress);
+            return;
+        }
+
+        // Simulate one long run with the highway cut into partitions on several cores, e.g. --parallel.partitions=4
+        if (config.getPartitions() > 0 && config.isOptimistic()) {
+            // Run the partitions ahead and roll them back on late handovers, e.g. --parallel.sync=optimistic
+            TimeWarpSimulator simulator = new TimeWarpSimulator(config, masterSeed);
+            simulator.start();
+            simulator.generateStatisticsReport(sink);
+            return;
+        }
+        if (config.getPartitions() > 0) {
+            ParallelSimulator simulator = new ParallelSimulator(config, masterSeed);
+            simulator.start();
+            simulator.generateStatisticsReport(sink);
+            return;
+        }
+
+        // Estimate the rates from batches of one long run in batch means mode
+        if (config.isBatchMeans()) {
+            runSingle(new Simulator(config, masterSeed), sink, metricsRegistry, progress);
+            return;
+        }
+
+        // Sweep the FCA schemes when a grid is given, e.g. --sweep.reservations=0,1,2
+        if (config.getSweepReservations() != null || config.getSweepChannels() != null) {
+            SweepEngine sweepEngine = new SweepEngine(runner, parallelism);
+            System.out.println("Master Seed: " + masterSeed);
+            sweepEngine.generateStatisticsReport(sweepEngine.run(config), sink);
+            return;
+        }
+
+        // Compare two FCA schemes with common random numbers, e.g. --compare.reservations=0,1
+        if (config.getCompareReservations() != null) {
+            PairedComparison comparison = new PairedComparison(runner, parallelism);
+            comparison.run(config);
+            comparison.generateStatisticsReport(config);
+            return;
+        }
+        // Stop the replications of a scheme once the requested precision is reached
+        ReplicationController controller = new ReplicationController(runner, parallelism);
+
         // Create two simulators with 2 different FCA schemes
         // One with Handover Reservation, the other with No Reservation
         System.out.println("----------------------------------------");
@@ -13,25 +135,42 @@ public class Main {
         System.out.println("----------------------------------------");
 
         // Start the simulation with no reservation
-        for (int i = 0; i < 120; i++) {
-            Simulator simulatorNoReservation = new Simulator(0);
-            simulatorNoReservation.start();
-            simulatorNoReservation.generateStatisticsReport();
-        }
+        ScenarioConfig noReservation = config.copy();
+        noReservation.setNumberOfReservations(0);
+        List<ReplicationResult> noReservationResults = controller.run(noReservation);
+        controller.generateStatisticsReport(noReservation, noReservationResults);
 
         System.out.println("----------------------------------------");
         System.out.println("----------------------------------------");
         System.out.println("----------------------------------------");
 
         // Start the simulation with handover reservation
-        for (int i = 1; i < 1; i++) {
-            Simulator simulatorHandoverReservation = new Simulator(1);
-            simulatorHandoverReservation.start();
-            simulatorHandoverReservation.generateStatisticsReport();
-        }
+        // (set the number of replications to run this scheme as well)
+        ScenarioConfig handoverReservation = config.copy();
+        handoverReservation.setNumberOfReservations(1);
+        handoverReservation.setReplications(0);
+        List<ReplicationResult> handoverReservationResults = controller.run(handoverReservation);
+        controller.generateStatisticsReport(handoverReservation, handoverReservationResults);
 
         System.out.println("----------------------------------------");
         System.out.println("-------------END-SIMULATION-------------");
         System.out.println("----------------------------------------");
     }
+
+    // Run a single simulator to the end and report it, with its batch means in batch means mode
+    private static void runSingle(Simulator simulator, ResultsSink sink, StationMetricsRegistry metricsRegistry,
+            ProgressMonitor progress) {
+        if (progress != null) {
+            progress.replicationsScheduled(1);
+            simulator.setProgressMonitor(progress);
+        }
+        simulator.start();
+        if (metricsRegistry != null) {
+            metricsRegistry.merge(simulator.getStationMetrics());
+        }
+        simulator.generateStatisticsReport(sink);
+        if (simulator.getConfig().isBatchMeans()) {
+            simulator.getBatchMeans().generateStatisticsReport();
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,83 @@
+package simulation;
+
+/**
+ * The class {@code NormalDistribution} for a normal distribution of the given
+ * mean and standard deviation, sampled from ziggurat Gaussians
+ */
+public class NormalDistribution implements InputDistribution {
+
+    private static final double LOG_SQRT_2_PI = 0.5 * Math.log(2 * Math.PI);
+
+    private double mean;
+    private double standardDeviation;
+
+    // Constructor
+    public NormalDistribution(double mean, double standardDeviation) {
+        if (!(standardDeviation > 0)) {
+            throw new IllegalArgumentException("The standard deviation of a normal distribution must be positive");
+        }
+        this.mean = mean;
+        this.standardDeviation = standardDeviation;
+    }
+
+    // Fit the distribution to the data by maximum likelihood, the mean and standard deviation of the data
+    public static NormalDistribution fit(double[] data) {
+        double mean = DistributionFitter.mean(data);
+        return new NormalDistribution(mean, Math.sqrt(DistributionFitter.variance(data, mean)));
+    }
+
+    // Get the natural log of the standard normal density at a value
+    static double logStandardDensity(double z) {
+        return -LOG_SQRT_2_PI - 0.5 * z * z;
+    }
+
+    // Get the standard normal cumulative distribution at a value
+    static double standardCdf(double z) {
+        return 0.5 * erfc(-z / Math.sqrt(2));
+    }
+
+    // Get the complementary error function, with a relative error below 1.2e-7 (Chebyshev fit)
+    private static double erfc(double x) {
+        double z = Math.abs(x);
+        double t = 1 / (1 + 0.5 * z);
+        double r = t * Math.exp(-z * z - 1.26551223 + t * (1.00002368 + t * (0.37409196 + t * (0.09678418
+                + t * (-0.18628806 + t * (0.27886807 + t * (-1.13520398 + t * (1.48851587
+                + t * (-0.82215223 + t * 0.17087277)))))))));
+        return x >= 0 ? r : 2 - r;
+    }
+
+    @Override
+    public int getVariateKind() {
+        return VariateBuffer.NORMAL;
+    }
+
+    @Override
+    public double sample(VariateBuffer random) {
+        return mean + random.next() * standardDeviation;
+    }
+
+    @Override
+    public double logDensity(double x) {
+        return logStandardDensity((x - mean) / standardDeviation) - Math.log(standardDeviation);
+    }
+
+    @Override
+    public double getMean() {
+        return mean;
+    }
+
+    @Override
+    public double getVariance() {
+        return standardDeviation * standardDeviation;
+    }
+
+    @Override
+    public int getNumberOfParameters() {
+        return 2;
+    }
+
+    @Override
+    public String toString() {
+        return "normal(" + mean + ", " + standardDeviation + ")";
+    }
+}
@@ -0,0 +1,88 @@
+package simulation;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * The class {@code OutcomeSeries} to count the blocked and dropped calls of a
+ * run in bins of consecutive generated calls. A call outcome is counted in the
+ * bin of the number of calls generated when it happens, as the warm up reset
+ * does, so the series can be truncated or batched after the run
+ */
+public class OutcomeSeries {
+
+    private int callsPerBin;
+    private int[] blockedCalls;
+    private int[] droppedCalls;
+
+    // Constructor
+    public OutcomeSeries(int totalCalls, int callsPerBin) {
+        int numberOfBins = (totalCalls + callsPerBin - 1) / callsPerBin;
+        this.callsPerBin = callsPerBin;
+        this.blockedCalls = new int[numberOfBins];
+        this.droppedCalls = new int[numberOfBins];
+    }
+
+    // Count a blocked call, after the given number of generated calls
+    public void recordBlocked(int generatedCalls) {
+        blockedCalls[(generatedCalls - 1) / callsPerBin]++;
+    }
+
+    // Count a dropped call, after the given number of generated calls
+    public void recordDropped(int generatedCalls) {
+        droppedCalls[(generatedCalls - 1) / callsPerBin]++;
+    }
+
+    // Save the counts of the bins up to the given number of generated calls
+    public void writeTo(DataOutput out, int generatedCalls) throws IOException {
+        int numberOfBins = Math.min((generatedCalls + callsPerBin - 1) / callsPerBin, blockedCalls.length);
+        out.writeInt(numberOfBins);
+        for (int bin = 0; bin < numberOfBins; bin++) {
+            out.writeInt(blockedCalls[bin]);
+            out.writeInt(droppedCalls[bin]);
+        }
+    }
+
+    // Restore the counts of the saved bins
+    public void readFrom(DataInput in) throws IOException {
+        int numberOfBins = in.readInt();
+        if (numberOfBins > blockedCalls.length) {
+            throw new IOException("The saved call outcomes have " + numberOfBins + " bins, more than the "
+                    + blockedCalls.length + " bins of the run");
+        }
+        for (int bin = 0; bin < numberOfBins; bin++) {
+            blockedCalls[bin] = in.readInt();
+            droppedCalls[bin] = in.readInt();
+        }
+    }
+
+    // Get a copy of the counts, in a series of the given total number of calls
+    public OutcomeSeries copy(int totalCalls) {
+        OutcomeSeries copy = new OutcomeSeries(totalCalls, callsPerBin);
+        int numberOfBins = Math.min(blockedCalls.length, copy.blockedCalls.length);
+        System.arraycopy(blockedCalls, 0, copy.blockedCalls, 0, numberOfBins);
+        System.arraycopy(droppedCalls, 0, copy.droppedCalls, 0, numberOfBins);
+        return copy;
+    }
+
+    // Get the number of calls per bin
+    public int getCallsPerBin() {
+        return callsPerBin;
+    }
+
+    // Get the number of bins
+    public int getNumberOfBins() {
+        return blockedCalls.length;
+    }
+
+    // Get the number of blocked calls of a bin
+    public int getBlockedCalls(int bin) {
+        return blockedCalls[bin];
+    }
+
+    // Get the number of dropped calls of a bin
+    public int getDroppedCalls(int bin) {
+        return droppedCalls[bin];
+    }
+}
\ No newline at end of file
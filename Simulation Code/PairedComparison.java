@@ -0,0 +1,162 @@
+package simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The class {@code PairedComparison} to compare two FCA schemes with common
+ * random numbers. Both schemes of a pair run with the same seed, so every call
+ * gets the same inter-arrival time, station, speed, position, duration and
+ * direction in both, and the confidence intervals are those of the paired
+ * differences of the rates. With antithetic variates each pair also runs an
+ * antithetic twin, and the difference of the pair is averaged over both twins
+ */
+public class PairedComparison {
+
+    private ReplicationRunner runner;
+    private int pairsPerRound;
+    private RunningStatistics blockedCallsRateDifference;
+    private RunningStatistics droppedCallsRateDifference;
+    // Dropped calls rates of the single runs of each scheme (not the antithetic twins)
+    private RunningStatistics firstDroppedCallsRate;
+    private RunningStatistics secondDroppedCallsRate;
+    private List<ReplicationResult> firstResults;
+    private List<ReplicationResult> secondResults;
+
+    // Constructor
+    public PairedComparison(ReplicationRunner runner, int pairsPerRound) {
+        this.runner = runner;
+        this.pairsPerRound = pairsPerRound;
+        this.firstResults = new ArrayList<>();
+        this.secondResults = new ArrayList<>();
+    }
+
+    // Run pairs of the two schemes until the precision of the differences is reached
+    public void run(ScenarioConfig config) {
+        blockedCallsRateDifference = new RunningStatistics();
+        droppedCallsRateDifference = new RunningStatistics();
+        firstDroppedCallsRate = new RunningStatistics();
+        secondDroppedCallsRate = new RunningStatistics();
+        firstResults = new ArrayList<>();
+        secondResults = new ArrayList<>();
+
+        // One run of each scheme per pair, and one more of each for the antithetic twin
+        int[] schemes = config.getCompareReservations();
+        int runsPerPair = config.isAntithetic() ? 2 : 1;
+        List<ScenarioConfig> scenarios = new ArrayList<>();
+        for (int twin = 0; twin < runsPerPair; twin++) {
+            for (int numberOfReservations : schemes) {
+                ScenarioConfig scenario = config.copy();
+                scenario.setNumberOfReservations(numberOfReservations);
+                scenario.setAntithetic(twin == 1);
+                scenarios.add(scenario);
+            }
+        }
+
+        int maxPairs = config.getReplications();
+        int pairs = 0;
+        while (pairs < maxPairs) {
+            // Run the first pairs at once, then one round at a time
+            int remaining = maxPairs - pairs;
+            int round = pairs < config.getMinReplications()
+                    ? Math.min(config.getMinReplications() - pairs, remaining)
+                    : Math.min(pairsPerRound, remaining);
+
+            // Every run of a pair gets the seed of the pair
+            List<ScenarioConfig> roundScenarios = new ArrayList<>();
+            List<Long> seeds = new ArrayList<>();
+            for (int i = 0; i < round; i++) {
+                long seed = runner.nextSeed();
+                for (ScenarioConfig scenario : scenarios) {
+                    roundScenarios.add(scenario);
+                    seeds.add(seed);
+                }
+            }
+            List<ReplicationResult> results = runner.runAll(roundScenarios, seeds);
+
+            for (int i = 0; i < round; i++) {
+                double blockedDifference = 0;
+                double droppedDifference = 0;
+                for (int twin = 0; twin < runsPerPair; twin++) {
+                    ReplicationResult first = results.get((i * runsPerPair + twin) * 2);
+                    ReplicationResult second = results.get((i * runsPerPair + twin) * 2 + 1);
+                    firstResults.add(first);
+                    secondResults.add(second);
+                    blockedDifference += first.getBlockedCallsRate().doubleValue()
+                            - second.getBlockedCallsRate().doubleValue();
+                    droppedDifference += first.getDroppedCallsRate().doubleValue()
+                            - second.getDroppedCallsRate().doubleValue();
+                    // The antithetic twin is correlated with its run, only the first runs are independent
+                    if (twin == 0) {
+                        firstDroppedCallsRate.add(first.getDroppedCallsRate().doubleValue());
+                        secondDroppedCallsRate.add(second.getDroppedCallsRate().doubleValue());
+                    }
+                }
+                blockedCallsRateDifference.add(blockedDifference / runsPerPair);
+                droppedCallsRateDifference.add(droppedDifference / runsPerPair);
+            }
+            pairs += round;
+
+            if (pairs >= config.getMinReplications() && isPrecise(config)) {
+                break;
+            }
+        }
+    }
+
+    // Check if both differences reached the requested relative precision
+    private boolean isPrecise(ScenarioConfig config) {
+        double precision = config.getPrecision();
+        return precision > 0 && getRelativePrecision(blockedCallsRateDifference, config) <= precision
+                && getRelativePrecision(droppedCallsRateDifference, config) <= precision;
+    }
+
+    // Get the half-width of the confidence interval relative to the mean
+    private static double getRelativePrecision(RunningStatistics rate, ScenarioConfig config) {
+        double halfWidth = rate.getHalfWidth(config.getConfidenceLevel());
+        return rate.getMean() != 0 ? halfWidth / Math.abs(rate.getMean()) : Double.POSITIVE_INFINITY;
+    }
+
+    // Generate the statistics report of the last run
+    public void generateStatisticsReport(ScenarioConfig config) {
+        runner.generateStatisticsReport(firstResults);
+        System.out.println("----------------------------------------");
+        runner.generateStatisticsReport(secondResults);
+        if (firstResults.isEmpty()) {
+            return;
+        }
+        System.out.println("----------------------------------------");
+
+        // Print the confidence intervals of the differences (first minus second scheme)
+        int[] schemes = config.getCompareReservations();
+        double confidenceLevel = config.getConfidenceLevel();
+        System.out.println("Paired Comparison: " + schemes[0] + " minus " + schemes[1] + " reserved channels"
+                + (config.isAntithetic() ? " (antithetic)" : ""));
+        System.out.println("Number of Pairs: " + blockedCallsRateDifference.getCount());
+        printConfidenceInterval("Blocked Calls Rate Difference", blockedCallsRateDifference, confidenceLevel);
+        printConfidenceInterval("Dropped Calls Rate Difference", droppedCallsRateDifference, confidenceLevel);
+
+        // Compare with the variance of the difference estimated from as many independent runs of each
+        // scheme, with their own random numbers and no antithetic twins
+        int runsPerPair = config.isAntithetic() ? 2 : 1;
+        double pairedVariance = droppedCallsRateDifference.getVariance();
+        double independentVariance = (firstDroppedCallsRate.getVariance() + secondDroppedCallsRate.getVariance())
+                / runsPerPair;
+        if (pairedVariance > 0) {
+            System.out.println(String.format(Locale.ROOT,
+                    "Dropped Calls Rate Variance Reduction (vs independent runs): %.2fx",
+                    independentVariance / pairedVariance));
+        }
+        if (config.getPrecision() > 0) {
+            System.out.println((isPrecise(config) ? "Relative precision " : "Relative precision NOT ")
+                    + config.getPrecision() + " reached after " + blockedCallsRateDifference.getCount() + " pairs");
+        }
+    }
+
+    // Print the confidence interval of a rate difference
+    private static void printConfidenceInterval(String name, RunningStatistics rate, double confidenceLevel) {
+        double halfWidth = rate.getHalfWidth(confidenceLevel);
+        System.out.println(String.format(Locale.ROOT, "%s %.0f%% confidence interval (%%): [%.5f, %.5f]", name,
+                confidenceLevel * 100, rate.getMean() - halfWidth, rate.getMean() + halfWidth));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,178 @@
+package simulation;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.Locale;
+
+/**
+ * The class {@code ParallelSimulator} to run one long simulation of the
+ * highway on several cores. The cells are cut into contiguous partitions, each
+ * simulated by a {@link LogicalProcess} in its own thread, which exchange the
+ * calls crossing between them and synchronize conservatively with a lookahead
+ * of the crossing time of a cell at the maximum car speed. Each partition
+ * samples its own share of the calls, so a run is statistically equivalent to
+ * a sequential run of the same scenario but does not draw the same calls
+ */
+public class ParallelSimulator {
+
+    // Number of standard deviations above the mean speed used as the maximum speed when none is set
+    private static final double MAX_SPEED_DEVIATIONS = 6;
+
+    private ScenarioConfig config;
+    private long seed;
+    private double lookahead;
+    private LogicalProcess[] processes;
+    private volatile Throwable failure;
+    private long elapsedNanos;
+
+    // Constructor
+    public ParallelSimulator(ScenarioConfig config, long seed) {
+        this.config = config;
+        this.seed = seed;
+
+        // Cap the car speed so that crossing a cell takes at least the lookahead
+        double carSpeedMax = config.getCarSpeedMax() > 0 ? config.getCarSpeedMax()
+                : config.getCarSpeedMean() + MAX_SPEED_DEVIATIONS * Math.sqrt(config.getCarSpeedVariance());
+        ScenarioConfig capped = config.copy();
+        capped.setCarSpeedMax(carSpeedMax);
+        this.lookahead = config.getCellLength() / carSpeedMax * 3600;
+
+        // Cut the stations and the calls into contiguous shares, and seed each partition from the master seed
+        int numberOfStations = config.getNumberOfStations();
+        int numberOfPartitions = Math.max(1, config.getPartitions());
+        RandomStream seeds = new RandomStream(seed);
+        this.processes = new LogicalProcess[numberOfPartitions];
+        for (int p = 0; p < numberOfPartitions; p++) {
+            int firstStation = share(numberOfStations, p, numberOfPartitions);
+            int lastStation = share(numberOfStations, p + 1, numberOfPartitions) - 1;
+            long totalCalls = share(config.getTotalCalls(), firstStation, lastStation + 1, numberOfStations);
+            long warmUpCalls = share(config.getWarmUpCalls(), firstStation, lastStation + 1, numberOfStations);
+            processes[p] = new LogicalProcess(this, capped, firstStation, lastStation, totalCalls, warmUpCalls,
+                    lookahead, seeds.nextLong());
+        }
+        for (int p = 0; p < numberOfPartitions; p++) {
+            processes[p].connect(p > 0 ? processes[p - 1] : null,
+                    p < numberOfPartitions - 1 ? processes[p + 1] : null);
+        }
+    }
+
+    // Get the first of the items given to a part, when cutting them into equal contiguous parts
+    static int share(int items, int part, int parts) {
+        return (int) ((long) items * part / parts);
+    }
+
+    // Get the share of the calls of the stations from first to last (exclusive)
+    static long share(long calls, int first, int last, int numberOfStations) {
+        return calls * last / numberOfStations - calls * first / numberOfStations;
+    }
+
+    // Run the partitions in parallel until every call is finished
+    public void start() {
+        long startNanos = System.nanoTime();
+        Thread[] threads = new Thread[processes.length];
+        for (int p = 0; p < processes.length; p++) {
+            threads[p] = new Thread(processes[p], "partition-" + p);
+            threads[p].start();
+        }
+        try {
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            fail(ie);
+        }
+        elapsedNanos = System.nanoTime() - startNanos;
+        if (failure != null) {
+            throw new IllegalStateException("Parallel simulation failed", failure);
+        }
+    }
+
+    // Check if every call of the highway is finished
+    boolean isFinished() {
+        // The counters only grow, so a sum reaching the total is never early
+        long finishedCalls = 0;
+        for (LogicalProcess process : processes) {
+            finishedCalls += process.getFinishedCalls();
+        }
+        return finishedCalls == config.getTotalCalls();
+    }
+
+    // Stop all partitions after a failure in one of them
+    void fail(Throwable throwable) {
+        if (failure == null) {
+            failure = throwable;
+        }
+    }
+
+    // Check if a partition failed
+    boolean isFailed() {
+        return failure != null;
+    }
+
+    // Get the lookahead of the partitions (sec)
+    public double getLookahead() {
+        return lookahead;
+    }
+
+    // Get the number of handled events
+    public long getNumberOfEvents() {
+        long numberOfEvents = 0;
+        for (LogicalProcess process : processes) {
+            numberOfEvents += process.getNumberOfEvents();
+        }
+        return numberOfEvents;
+    }
+
+    // Get the result of the simulation run
+    public ReplicationResult getResult() {
+        long numCallsBlocked = 0;
+        long numberOfDroppedCalls = 0;
+        for (LogicalProcess process : processes) {
+            numCallsBlocked += process.getNumCallsBlocked();
+            numberOfDroppedCalls += process.getNumberOfDroppedCalls();
+        }
+        return new ReplicationResult(config.getNumberOfReservations(), seed,
+                config.getTotalCalls() - config.getWarmUpCalls(), (int) numCallsBlocked, (int) numberOfDroppedCalls);
+    }
+
+    // Generate statistics report, and write the result to the results sink
+    public void generateStatisticsReport(ResultsSink sink) {
+        ReplicationResult result = getResult();
+        BigDecimal blockedCallsRate = result.getBlockedCallsRate();
+        BigDecimal droppedCallsRate = result.getDroppedCallsRate();
+        int numberOfReservations = config.getNumberOfReservations();
+
+        // Print statistics
+        System.out.println("FCA Scheme: "
+                + (numberOfReservations > 0 ? "HANDOVER RESERVATION " + numberOfReservations : "NO RESERVATION"));
+        System.out.println("Seed: " + result.getSeed());
+        System.out.println("Number of Warm Up Calls: " + config.getWarmUpCalls());
+        System.out.println("Total number of Calls (after Warm Up period): " + result.getTotalNumberOfCalls());
+        System.out.println("Number of Blocked Calls: " + result.getNumCallsBlocked());
+        System.out.println("Number of Dropped Calls: " + result.getNumberOfDroppedCalls());
+        System.out.println("Blocked Calls Rate (%): " + blockedCallsRate);
+        System.out.println("Dropped Calls Rate (%): " + droppedCallsRate);
+
+        // Print the partitioning and the synchronization overhead
+        long sentHandovers = 0;
+        long promiseUpdates = 0;
+        for (LogicalProcess process : processes) {
+            sentHandovers += process.getSentHandovers();
+            promiseUpdates += process.getPromiseUpdates();
+        }
+        double seconds = elapsedNanos / 1e9;
+        System.out.println(String.format(Locale.ROOT,
+                "Partitions: %d, lookahead %.3f sec, %d events, %d handovers between partitions, %d promises,"
+                        + " %.2f sec (%.2fM events/s)",
+                processes.length, lookahead, getNumberOfEvents(), sentHandovers, promiseUpdates, seconds,
+                getNumberOfEvents() / seconds / 1e6));
+
+        try {
+            sink.writeResults(Collections.singletonList(result));
+        } catch (IOException ioe) {
+            ioe.printStackTrace();
+        }
+    }
+}
\ No newline at end of file
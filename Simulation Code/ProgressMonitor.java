@@ -0,0 +1,134 @@
+package simulation;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The class {@code ProgressMonitor} to report the progress of a study while
+ * it runs: events per second, events pending in the future event lists, heap
+ * allocation rate, replications completed and the estimated time left. The
+ * simulators publish their progress into striped counters every
+ * {@link #EVENTS_PER_UPDATE} events, and a background thread samples the
+ * counters periodically, so the event loop never takes a lock
+ */
+public class ProgressMonitor implements AutoCloseable {
+
+    // Number of events between two updates of a simulator
+    public static final int EVENTS_PER_UPDATE = 4096;
+
+    private LongAdder events;
+    private LongAdder pendingEvents;
+    private LongAdder runningReplications;
+    private LongAdder completedReplications;
+    private LongAdder scheduledReplications;
+    private ScheduledExecutorService sampler;
+    private long startNanos;
+
+    // Last sample, only touched by the sampler thread
+    private long lastNanos;
+    private long lastEvents;
+    private long lastAllocatedBytes;
+
+    // Constructor, sampling at the given interval (sec)
+    public ProgressMonitor(double interval) {
+        this.events = new LongAdder();
+        this.pendingEvents = new LongAdder();
+        this.runningReplications = new LongAdder();
+        this.completedReplications = new LongAdder();
+        this.scheduledReplications = new LongAdder();
+        this.startNanos = System.nanoTime();
+        this.lastNanos = startNanos;
+        this.lastEvents = 0;
+        this.lastAllocatedBytes = getAllocatedBytes();
+        this.sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "progress-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = (long) (interval * 1000);
+        this.sampler.scheduleAtFixedRate(this::report, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    // Count replications about to run
+    public void replicationsScheduled(int numberOfReplications) {
+        scheduledReplications.add(numberOfReplications);
+    }
+
+    // Count a replication starting
+    public void replicationStarted() {
+        runningReplications.increment();
+    }
+
+    // Add handled events and the change in the size of a future event list
+    public void update(long numberOfEvents, int pendingEventsChange) {
+        events.add(numberOfEvents);
+        pendingEvents.add(pendingEventsChange);
+    }
+
+    // Count a replication completed
+    public void replicationCompleted() {
+        runningReplications.decrement();
+        completedReplications.increment();
+    }
+
+    // Stop sampling
+    @Override
+    public void close() {
+        sampler.shutdownNow();
+    }
+
+    // Print a progress line to the standard error, keeping the report on the standard output clean
+    private void report() {
+        long now = System.nanoTime();
+        long totalEvents = events.sum();
+        long allocatedBytes = getAllocatedBytes();
+        double seconds = (now - lastNanos) / 1e9;
+        double eventRate = (totalEvents - lastEvents) / seconds;
+        // Threads that ended take their allocated bytes with them, never report a negative rate
+        double allocationRate = Math.max(0, allocatedBytes - lastAllocatedBytes) / seconds;
+        lastNanos = now;
+        lastEvents = totalEvents;
+        lastAllocatedBytes = allocatedBytes;
+
+        long completed = completedReplications.sum();
+        long scheduled = scheduledReplications.sum();
+        double elapsed = (now - startNanos) / 1e9;
+        String eta = completed > 0 ? formatDuration(elapsed / completed * (scheduled - completed)) : "unknown";
+        System.err.println(String.format(Locale.ROOT,
+                "Progress: %d/%d replications (%d running), %.2fM events/s, %d pending events, %s allocated/s,"
+                        + " elapsed %s, ETA %s",
+                completed, scheduled, runningReplications.sum(), eventRate / 1e6, pendingEvents.sum(),
+                allocatedBytes < 0 ? "n/a" : String.format(Locale.ROOT, "%.1f MB", allocationRate / 1e6),
+                formatDuration(elapsed), eta));
+    }
+
+    // Get the bytes allocated by the live threads, or -1 when the JVM does not measure them
+    private static long getAllocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+            return -1;
+        }
+        com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+        if (!allocations.isThreadAllocatedMemorySupported() || !allocations.isThreadAllocatedMemoryEnabled()) {
+            return -1;
+        }
+        long total = 0;
+        for (long bytes : allocations.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            if (bytes > 0) {
+                total += bytes;
+            }
+        }
+        return total;
+    }
+
+    // Format a duration (sec) as h:mm:ss
+    private static String formatDuration(double seconds) {
+        long s = Math.round(seconds);
+        return String.format(Locale.ROOT, "%d:%02d:%02d", s / 3600, s / 60 % 60, s % 60);
+    }
+}
\ No newline at end of file
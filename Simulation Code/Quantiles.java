@@ -0,0 +1,98 @@
+package simulation;
+
+/**
+ * The class {@code Quantiles} to compute the quantiles of the distributions
+ * used for confidence intervals
+ */
+public final class Quantiles {
+
+    // Coefficients of the normal quantile approximation
+    private static final double[] A = { -3.969683028665376e+01, 2.209460984245205e+02, -2.759285104469687e+02,
+            1.383577518672690e+02, -3.066479806614716e+01, 2.506628277459239e+00 };
+    private static final double[] B = { -5.447609879822406e+01, 1.615858368580409e+02, -1.556989798598866e+02,
+            6.680131188771972e+01, -1.328068155288572e+01 };
+    private static final double[] C = { -7.784894002430293e-03, -3.223964580411365e-01, -2.400758277161838e+00,
+            -2.549732539343734e+00, 4.374664141464968e+00, 2.938163982698783e+00 };
+    private static final double[] D = { 7.784695709041462e-03, 3.224671290700398e-01, 2.445134137142996e+00,
+            3.754408661907416e+00 };
+    private static final double P_LOW = 0.02425;
+
+    private Quantiles() {
+    }
+
+    // Get the quantile of the standard normal distribution (P. J. Acklam's
+    // rational approximation, relative error below 1.15e-9)
+    public static double normal(double p) {
+        if (p <= 0 || p >= 1) {
+            throw new IllegalArgumentException("Probability must be in (0, 1): " + p);
+        }
+
+        if (p < P_LOW) {
+            // Lower tail
+            double q = Math.sqrt(-2 * Math.log(p));
+            return (((((C[0] * q + C[1]) * q + C[2]) * q + C[3]) * q + C[4]) * q + C[5])
+                    / ((((D[0] * q + D[1]) * q + D[2]) * q + D[3]) * q + 1);
+        } else if (p <= 1 - P_LOW) {
+            // Central region
+            double q = p - 0.5;
+            double r = q * q;
+            return (((((A[0] * r + A[1]) * r + A[2]) * r + A[3]) * r + A[4]) * r + A[5]) * q
+                    / (((((B[0] * r + B[1]) * r + B[2]) * r + B[3]) * r + B[4]) * r + 1);
+        } else {
+            // Upper tail
+            double q = Math.sqrt(-2 * Math.log(1 - p));
+            return -(((((C[0] * q + C[1]) * q + C[2]) * q + C[3]) * q + C[4]) * q + C[5])
+                    / ((((D[0] * q + D[1]) * q + D[2]) * q + D[3]) * q + 1);
+        }
+    }
+
+    // Get the quantile of the Student t distribution with the given degrees of
+    // freedom (G. W. Hill's algorithm 396, Comm. ACM 13, 1970)
+    public static double studentT(double p, int degreesOfFreedom) {
+        if (p <= 0 || p >= 1) {
+            throw new IllegalArgumentException("Probability must be in (0, 1): " + p);
+        }
+        if (degreesOfFreedom < 1) {
+            throw new IllegalArgumentException("Degrees of freedom must be at least 1: " + degreesOfFreedom);
+        }
+        if (p == 0.5) {
+            return 0;
+        }
+
+        // Work with the two-tailed probability of the upper tail
+        boolean lowerTail = p < 0.5;
+        double twoTailed = 2 * (lowerTail ? p : 1 - p);
+        double n = degreesOfFreedom;
+        double t;
+        if (degreesOfFreedom == 1) {
+            double angle = twoTailed * Math.PI / 2;
+            t = Math.cos(angle) / Math.sin(angle);
+        } else if (degreesOfFreedom == 2) {
+            t = Math.sqrt(2 / (twoTailed * (2 - twoTailed)) - 2);
+        } else {
+            double a = 1 / (n - 0.5);
+            double b = 48 / (a * a);
+            double c = ((20700 * a / b - 98) * a - 16) * a + 96.36;
+            double d = ((94.5 / (b + c) - 3) / b + 1) * Math.sqrt(a * Math.PI / 2) * n;
+            double x = d * twoTailed;
+            double y = Math.pow(x, 2 / n);
+            if (y > 0.05 + a) {
+                // Asymptotic inverse expansion about the normal
+                x = normal(0.5 * twoTailed);
+                y = x * x;
+                if (degreesOfFreedom < 5) {
+                    c += 0.3 * (n - 4.5) * (x + 0.6);
+                }
+                c = (((0.05 * d * x - 5) * x - 7) * x - 2) * x + b + c;
+                y = (((((0.4 * y + 6.3) * y + 36) * y + 94.5) / c - y - 3) / b + 1) * x;
+                y = Math.expm1(a * y * y);
+            } else {
+                y = ((1 / (((n + 6) / (n * y) - 0.089 * d - 0.822) * (n + 2) * 3) + 0.5 / (n + 4)) * y - 1)
+                        * (n + 1) / (n + 2) + 1 / y;
+            }
+            t = Math.sqrt(n * y);
+        }
+
+        return lowerTail ? -t : t;
+    }
+}
\ No newline at end of file
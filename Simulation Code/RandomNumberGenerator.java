@@ -1,65 +1,160 @@
 package simulation;
 
-import java.util.Random;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 
 /**
  * The class {@code RandomNumberGenerator} to generate random variables for the
- * simulation
+ * simulation, each simulator owns its own generator so that replications can
+ * run in parallel without sharing any random state. Every input variable draws
+ * from an independent substream split from the master seed, so a replication
+ * can be rerun bit-for-bit from its seed. Runs with the same seed draw the
+ * same values for every call whatever the FCA scheme (common random numbers),
+ * and an antithetic generator draws 1 - u for every uniform u (and -z for
+ * every normal z) of the generator with the same seed. Each substream is
+ * drawn in blocks through a {@link VariateBuffer}, which gives the same
+ * values as drawing them one by one. The inter-arrival time, call duration
+ * and car speed follow the {@link InputDistribution} of the scenario, the
+ * inter-arrival time scaled to the mean of the scenario. The state of the
+ * substreams can be saved and restored to checkpoint a run
  */
-public class RandomNumberGenerator {
-
-    private static final double INTER_ARRIVAL_TIME_MEAN = 1.369680;
-    private static final double SHIFTED_CALL_DURATION_MEAN = 99.831949;
-    private static final double SHIFTED_VALUE = 10.003952;
-    private static final double CAR_SPEED_MEAN = 120.072098;
-    private static final double CAR_SPEED_VARIANCE = 81.343405;
-
-    private static Random randomInterArrivalTime = new Random();
-    private static Random randomBaseStation = new Random();
-    private static Random randomCarSpeed = new Random();
-    private static Random random_car_pos = new Random();
-    private static Random randomCallDuration = new Random();
-    private static Random randomCarDirection = new Random();
-
-    // Get an exponential random number for inter-arrival time
-    public static double getInterArrivalTime() {
-        double u = randomInterArrivalTime.nextDouble();
-
-        return (-INTER_ARRIVAL_TIME_MEAN) * Math.log(1 - u);
+public class RandomNumberGenerator implements CallSource {
+
+    private InputDistribution interArrivalTimeDistribution;
+    private double interArrivalTimeScale;
+    private InputDistribution callDurationDistribution;
+    private InputDistribution carSpeedDistribution;
+    private double carSpeedMax;
+    private int numberOfStations;
+    private double cellLength;
+
+    private long seed;
+    private boolean antithetic;
+    private VariateBuffer randomInterArrivalTime;
+    private VariateBuffer randomBaseStation;
+    private VariateBuffer randomCarSpeed;
+    private VariateBuffer random_car_pos;
+    private VariateBuffer randomCallDuration;
+    private VariateBuffer randomCarDirection;
+    private VariateBuffer randomRoad;
+
+    // Constructor
+    public RandomNumberGenerator(ScenarioConfig config, long seed) {
+        this.interArrivalTimeDistribution = config.getInterArrivalTimeDistribution();
+        // 1 unless the mean is changed after setting the distribution, e.g. for a partition or a fork
+        this.interArrivalTimeScale = config.getInterArrivalTimeMean() / interArrivalTimeDistribution.getMean();
+        this.callDurationDistribution = config.getCallDurationDistribution();
+        this.carSpeedDistribution = config.getCarSpeedDistribution();
+        this.carSpeedMax = config.getCarSpeedMax();
+        this.numberOfStations = config.getNumberOfStations();
+        this.cellLength = config.getCellLength();
+        this.seed = seed;
+        this.antithetic = config.isAntithetic();
+        // Split one substream per input variable from the master seed
+        RandomStream master = new RandomStream(seed);
+        this.randomInterArrivalTime = new VariateBuffer(master.split(),
+                interArrivalTimeDistribution.getVariateKind(), antithetic);
+        this.randomBaseStation = new VariateBuffer(master.split(), VariateBuffer.UNIFORM, antithetic);
+        this.randomCarSpeed = new VariateBuffer(master.split(), carSpeedDistribution.getVariateKind(),
+                antithetic);
+        this.random_car_pos = new VariateBuffer(master.split(), VariateBuffer.UNIFORM, antithetic);
+        this.randomCallDuration = new VariateBuffer(master.split(), callDurationDistribution.getVariateKind(),
+                antithetic);
+        this.randomCarDirection = new VariateBuffer(master.split(), VariateBuffer.UNIFORM, antithetic);
+        this.randomRoad = new VariateBuffer(master.split(), VariateBuffer.UNIFORM, antithetic);
+    }
+
+    // Get the master seed
+    public long getSeed() {
+        return seed;
+    }
+
+    // Check if the generator draws antithetic variates
+    public boolean isAntithetic() {
+        return antithetic;
+    }
+
+    // Save the state of the substreams and of their blocks
+    public void writeTo(DataOutput out) throws IOException {
+        for (VariateBuffer random : getStreams()) {
+            random.writeTo(out);
+        }
+    }
+
+    // Restore the state of the substreams and of their blocks
+    public void readFrom(DataInput in) throws IOException {
+        for (VariateBuffer random : getStreams()) {
+            random.readFrom(in);
+        }
+    }
+
+    // Get the substreams, in the order they are split
+    private VariateBuffer[] getStreams() {
+        return new VariateBuffer[] { randomInterArrivalTime, randomBaseStation, randomCarSpeed, random_car_pos,
+                randomCallDuration, randomCarDirection, randomRoad };
+    }
+
+    // Every call is sampled, so there is always a next call
+    @Override
+    public boolean nextCall() {
+        return true;
+    }
+
+    // Get the initiation time of the next call, an inter-arrival time after the clock
+    @Override
+    public double getArrivalTime(double clock) {
+        return clock + getInterArrivalTime();
+    }
+
+    // Get a random number for inter-arrival time, exponential by default
+    public double getInterArrivalTime() {
+        return interArrivalTimeDistribution.sample(randomInterArrivalTime) * interArrivalTimeScale;
     }
 
     // Get an uniform random number for base station
-    public static int getBaseStation() {
-        int random = randomBaseStation.nextInt(20);
+    @Override
+    public int getBaseStation() {
+        double u = randomBaseStation.next();
+        int random = Math.min((int) (u * numberOfStations), numberOfStations - 1);
 
         return random + 1;
     }
 
-    // Get a normal random number for car speed
-    public static double getCarSpeed() {
-        double random = randomCarSpeed.nextGaussian();
+    // Get a random number for car speed, normal by default, capped at the maximum speed when there is one
+    @Override
+    public double getCarSpeed() {
+        double carSpeed = carSpeedDistribution.sample(randomCarSpeed);
 
-        return CAR_SPEED_MEAN + random * Math.sqrt(CAR_SPEED_VARIANCE);
+        return carSpeedMax > 0 ? Math.min(carSpeed, carSpeedMax) : carSpeed;
     }
 
     // Get random position of the car, from a uniform distribution
-    public static double getCarPos() {
-        double u = random_car_pos.nextDouble();
+    @Override
+    public double getCarPos() {
+        double u = random_car_pos.next();
 
-        return (2 - 0) * u;
+        return (cellLength - 0) * u;
     }
 
-    // Get an exponential random number for call duration
-    public static double getCallDuration() {
-        double u = randomCallDuration.nextDouble();
-
-        return (-SHIFTED_CALL_DURATION_MEAN) * Math.log(1 - u) + SHIFTED_VALUE;
+    // Get a random number for call duration, shifted exponential by default
+    @Override
+    public double getCallDuration() {
+        return callDurationDistribution.sample(randomCallDuration);
     }
 
     // Get a random car direction
-    public static Direction getCarDirection() {
-        boolean random = randomCarDirection.nextBoolean();
+    @Override
+    public Direction getCarDirection() {
+        double u = randomCarDirection.next();
+
+        return u < 0.5 ? Direction.TO_1ST_STATION : Direction.TO_20TH_STATION;
+    }
+
+    // Get a uniform random road of the given number crossing a junction, from 0
+    public int getRoad(int numberOfRoads) {
+        double u = randomRoad.next();
 
-        return random ? Direction.TO_1ST_STATION : Direction.TO_20TH_STATION;
+        return Math.min((int) (u * numberOfRoads), numberOfRoads - 1);
     }
 }
\ No newline at end of file
@@ -0,0 +1,94 @@
+package simulation;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.random.RandomGenerator;
+
+/**
+ * The class {@code RandomStream} for a SplitMix64 random stream, the
+ * algorithm of {@link java.util.SplittableRandom}: it draws exactly the same
+ * numbers and splits into the same substreams from the same seed, but its
+ * state (seed and gamma) can be saved and restored, so that a simulator can
+ * be checkpointed and resumed on the same random numbers. The other
+ * variates (doubles, Gaussians) are the defaults of {@link RandomGenerator}
+ * over {@link #nextLong}, as in SplittableRandom
+ */
+public class RandomStream implements RandomGenerator {
+
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private long seed;
+    private long gamma;
+
+    // Constructor, for the stream of the given seed
+    public RandomStream(long seed) {
+        this(seed, GOLDEN_GAMMA);
+    }
+
+    // Constructor, for the stream of the given state
+    private RandomStream(long seed, long gamma) {
+        this.seed = seed;
+        this.gamma = gamma;
+    }
+
+    // Split an independent substream off this stream
+    public RandomStream split() {
+        return new RandomStream(nextLong(), mixGamma(nextSeed()));
+    }
+
+    @Override
+    public long nextLong() {
+        return mix64(nextSeed());
+    }
+
+    // Fill the first length elements of a buffer with the next uniform doubles in [0, 1), the same
+    // as as many calls to nextDouble, in one loop over the state the JIT can unroll
+    public void nextDoubles(double[] buffer, int length) {
+        long z = seed;
+        for (int i = 0; i < length; i++) {
+            z += gamma;
+            buffer[i] = (mix64(z) >>> 11) * 0x1.0p-53;
+        }
+        seed = z;
+    }
+
+    // Set the state of the stream to the state of another stream
+    public void copyFrom(RandomStream other) {
+        seed = other.seed;
+        gamma = other.gamma;
+    }
+
+    // Save the state of the stream
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeLong(seed);
+        out.writeLong(gamma);
+    }
+
+    // Restore the state of the stream
+    public void readFrom(DataInput in) throws IOException {
+        seed = in.readLong();
+        gamma = in.readLong();
+    }
+
+    // Advance the state
+    private long nextSeed() {
+        return seed += gamma;
+    }
+
+    // Mix the bits of a state into a random number (Stafford variant 13)
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    // Mix the bits of a state into an odd gamma with enough bit transitions
+    private static long mixGamma(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        z = (z ^ (z >>> 33)) | 1L;
+        int n = Long.bitCount(z ^ (z >>> 1));
+        return (n < 24) ? z ^ 0xaaaaaaaaaaaaaaaaL : z;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,91 @@
+package simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The class {@code ReplicationController} to run replications of a scenario
+ * sequentially in rounds until the Student t confidence intervals of both the
+ * blocked and the dropped calls rates reach the requested relative precision
+ * (half-width over mean), or the maximum number of replications is run
+ */
+public class ReplicationController {
+
+    private ReplicationRunner runner;
+    private int replicationsPerRound;
+    private RunningStatistics blockedCallsRate;
+    private RunningStatistics droppedCallsRate;
+
+    // Constructor
+    public ReplicationController(ReplicationRunner runner, int replicationsPerRound) {
+        this.runner = runner;
+        this.replicationsPerRound = replicationsPerRound;
+        this.blockedCallsRate = new RunningStatistics();
+        this.droppedCallsRate = new RunningStatistics();
+    }
+
+    // Run replications of the scenario until the precision is reached
+    public List<ReplicationResult> run(ScenarioConfig config) {
+        blockedCallsRate = new RunningStatistics();
+        droppedCallsRate = new RunningStatistics();
+        List<ReplicationResult> results = new ArrayList<>();
+
+        int maxReplications = config.getReplications();
+        while (results.size() < maxReplications) {
+            // Run the first replications at once, then one round at a time
+            int remaining = maxReplications - results.size();
+            int round = results.size() < config.getMinReplications()
+                    ? Math.min(config.getMinReplications() - results.size(), remaining)
+                    : Math.min(replicationsPerRound, remaining);
+            for (ReplicationResult result : runner.run(config, round)) {
+                blockedCallsRate.add(result.getBlockedCallsRate().doubleValue());
+                droppedCallsRate.add(result.getDroppedCallsRate().doubleValue());
+                results.add(result);
+            }
+
+            if (results.size() >= config.getMinReplications() && isPrecise(config)) {
+                break;
+            }
+        }
+
+        return results;
+    }
+
+    // Check if both rates reached the requested relative precision
+    private boolean isPrecise(ScenarioConfig config) {
+        double precision = config.getPrecision();
+        return precision > 0 && getRelativePrecision(blockedCallsRate, config) <= precision
+                && getRelativePrecision(droppedCallsRate, config) <= precision;
+    }
+
+    // Get the half-width of the confidence interval relative to the mean
+    private static double getRelativePrecision(RunningStatistics rate, ScenarioConfig config) {
+        double halfWidth = rate.getHalfWidth(config.getConfidenceLevel());
+        return rate.getMean() != 0 ? halfWidth / Math.abs(rate.getMean()) : Double.POSITIVE_INFINITY;
+    }
+
+    // Generate the statistics report of the last run
+    public void generateStatisticsReport(ScenarioConfig config, List<ReplicationResult> results) {
+        runner.generateStatisticsReport(results);
+        if (results.isEmpty()) {
+            return;
+        }
+
+        // Print the confidence intervals
+        double confidenceLevel = config.getConfidenceLevel();
+        printConfidenceInterval("Blocked Calls Rate", blockedCallsRate, confidenceLevel);
+        printConfidenceInterval("Dropped Calls Rate", droppedCallsRate, confidenceLevel);
+        if (config.getPrecision() > 0) {
+            System.out.println((isPrecise(config) ? "Relative precision " : "Relative precision NOT ")
+                    + config.getPrecision() + " reached after " + results.size() + " replications");
+        }
+    }
+
+    // Print the confidence interval of a rate
+    private static void printConfidenceInterval(String name, RunningStatistics rate, double confidenceLevel) {
+        double halfWidth = rate.getHalfWidth(confidenceLevel);
+        System.out.println(String.format(Locale.ROOT, "%s %.0f%% confidence interval (%%): [%.5f, %.5f]", name,
+                confidenceLevel * 100, rate.getMean() - halfWidth, rate.getMean() + halfWidth));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,72 @@
+package simulation;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * The class {@code ReplicationResult} for the outcome of a single simulator
+ * run, detached from the simulator so that it can be merged into a report
+ */
+public class ReplicationResult {
+
+    private static final int SCALE = 5;
+
+    private int numberOfReservations;
+    private long seed;
+    private int totalNumberOfCalls;
+    private int numCallsBlocked;
+    private int numberOfDroppedCalls;
+
+    // Constructor
+    public ReplicationResult(int numberOfReservations, long seed, int totalNumberOfCalls, int numCallsBlocked,
+            int numberOfDroppedCalls) {
+        this.numberOfReservations = numberOfReservations;
+        this.seed = seed;
+        this.totalNumberOfCalls = totalNumberOfCalls;
+        this.numCallsBlocked = numCallsBlocked;
+        this.numberOfDroppedCalls = numberOfDroppedCalls;
+    }
+
+    // Get the number of reserved channels of the FCA scheme
+    public int getNumberOfReservations() {
+        return numberOfReservations;
+    }
+
+    // Get the master seed the replication was run with
+    public long getSeed() {
+        return seed;
+    }
+
+    // Get the total number of calls after the warm up period
+    public int getTotalNumberOfCalls() {
+        return totalNumberOfCalls;
+    }
+
+    // Get the number of blocked calls
+    public int getNumCallsBlocked() {
+        return numCallsBlocked;
+    }
+
+    // Get the number of dropped calls
+    public int getNumberOfDroppedCalls() {
+        return numberOfDroppedCalls;
+    }
+
+    // Get the blocked calls rate (%)
+    public BigDecimal getBlockedCallsRate() {
+        return BigDecimal.valueOf(numCallsBlocked).multiply(BigDecimal.valueOf(100))
+                .divide(BigDecimal.valueOf(totalNumberOfCalls), SCALE, RoundingMode.HALF_UP);
+    }
+
+    // Get the dropped calls rate (%)
+    public BigDecimal getDroppedCallsRate() {
+        return BigDecimal.valueOf(numberOfDroppedCalls).multiply(BigDecimal.valueOf(100))
+                .divide(BigDecimal.valueOf(totalNumberOfCalls), SCALE, RoundingMode.HALF_UP);
+    }
+
+    // Get the row written to the output file
+    public String toCsvRow() {
+        return Integer.toString(numberOfReservations) + ',' + getBlockedCallsRate().toString() + ','
+                + getDroppedCallsRate().toString();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,180 @@
+package simulation;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * The class {@code ReplicationRunner} to run independent simulator
+ * replications in parallel and merge their results into one report
+ */
+public class ReplicationRunner {
+
+    private static final int SCALE = 5;
+
+    private int parallelism;
+    private long masterSeed;
+    private SplittableRandom seedSequence;
+    private ResultsSink sink;
+    private StationMetricsRegistry metricsRegistry;
+    private ProgressMonitor progress;
+
+    // Constructor, the per-station metrics are merged into the registry and the
+    // progress is published to the monitor, unless they are null
+    public ReplicationRunner(int parallelism, long masterSeed, ResultsSink sink,
+            StationMetricsRegistry metricsRegistry, ProgressMonitor progress) {
+        this.parallelism = parallelism;
+        this.masterSeed = masterSeed;
+        this.seedSequence = new SplittableRandom(masterSeed);
+        this.sink = sink;
+        this.metricsRegistry = metricsRegistry;
+        this.progress = progress;
+    }
+
+    // Get the master seed all replication seeds are derived from
+    public long getMasterSeed() {
+        return masterSeed;
+    }
+
+    // Run the given number of replications of a scenario
+    public List<ReplicationResult> run(ScenarioConfig config, int numberOfReplications) {
+        return runAll(Collections.nCopies(numberOfReplications, config));
+    }
+
+    // Draw the seed of the next replication from the master seed
+    public long nextSeed() {
+        return seedSequence.nextLong();
+    }
+
+    // Run one replication of each scenario, all of them in parallel
+    public List<ReplicationResult> runAll(List<ScenarioConfig> scenarios) {
+        // The seeds are drawn here, in order, so that results do not depend on scheduling
+        List<Long> seeds = new ArrayList<>();
+        for (int i = 0; i < scenarios.size(); i++) {
+            seeds.add(nextSeed());
+        }
+        return runAll(scenarios, seeds);
+    }
+
+    // Run one replication of each scenario with the given seed, all of them in parallel
+    // Scenarios sharing a seed share their random numbers (common random numbers)
+    public List<ReplicationResult> runAll(List<ScenarioConfig> scenarios, List<Long> seeds) {
+        return runAllFrom(null, scenarios, seeds);
+    }
+
+    // Run one replication of each scenario with the given seed, all of them in parallel, each
+    // continuing a fork of the warmed-up simulator instead of starting from empty stations
+    public List<ReplicationResult> runAllFrom(Simulator warmState, List<ScenarioConfig> scenarios,
+            List<Long> seeds) {
+        // Each replication owns its simulator, so the tasks share no state
+        List<Callable<ReplicationResult>> replications = new ArrayList<>();
+        for (int i = 0; i < scenarios.size(); i++) {
+            ScenarioConfig config = scenarios.get(i);
+            long seed = seeds.get(i);
+            replications.add(() -> {
+                Simulator simulator = warmState != null ? warmState.fork(config, seed) : new Simulator(config, seed);
+                simulator.setProgressMonitor(progress);
+                simulator.start();
+                ReplicationResult result = simulator.getResult();
+                // Stream the trace as soon as the replication ends
+                if (config.isOutputTrace()) {
+                    sink.writeTrace(result, simulator.getTrace());
+                }
+                if (metricsRegistry != null && simulator.getStationMetrics() != null) {
+                    metricsRegistry.merge(simulator.getStationMetrics());
+                }
+                return result;
+            });
+        }
+
+        if (progress != null) {
+            progress.replicationsScheduled(replications.size());
+        }
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            // Collect the results in submission order
+            List<ReplicationResult> results = new ArrayList<>();
+            for (Future<ReplicationResult> future : pool.invokeAll(replications)) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while running replications", ie);
+        } catch (ExecutionException ee) {
+            throw new IllegalStateException("Replication failed", ee.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // Generate the merged statistics report of the replications
+    public void generateStatisticsReport(List<ReplicationResult> results) {
+        if (results.isEmpty()) {
+            return;
+        }
+
+        // Average the rates over all replications
+        BigDecimal sumBlockedCallsRate = BigDecimal.ZERO;
+        BigDecimal sumDroppedCallsRate = BigDecimal.ZERO;
+        ReplicationResult maxBlockedResult = results.get(0);
+        ReplicationResult maxDroppedResult = results.get(0);
+        // The replications measure different numbers of calls when their warm up periods are detected
+        long sumCalls = 0;
+        int minCalls = Integer.MAX_VALUE;
+        int maxCalls = 0;
+        for (ReplicationResult result : results) {
+            sumBlockedCallsRate = sumBlockedCallsRate.add(result.getBlockedCallsRate());
+            sumDroppedCallsRate = sumDroppedCallsRate.add(result.getDroppedCallsRate());
+            // Keep the worst replications by rate so they can be rerun from their seed
+            if (result.getBlockedCallsRate().compareTo(maxBlockedResult.getBlockedCallsRate()) > 0) {
+                maxBlockedResult = result;
+            }
+            if (result.getDroppedCallsRate().compareTo(maxDroppedResult.getDroppedCallsRate()) > 0) {
+                maxDroppedResult = result;
+            }
+            sumCalls += result.getTotalNumberOfCalls();
+            minCalls = Math.min(minCalls, result.getTotalNumberOfCalls());
+            maxCalls = Math.max(maxCalls, result.getTotalNumberOfCalls());
+        }
+        BigDecimal numberOfReplications = BigDecimal.valueOf(results.size());
+        BigDecimal meanBlockedCallsRate = sumBlockedCallsRate.divide(numberOfReplications, SCALE,
+                RoundingMode.HALF_UP);
+        BigDecimal meanDroppedCallsRate = sumDroppedCallsRate.divide(numberOfReplications, SCALE,
+                RoundingMode.HALF_UP);
+
+        // Print statistics
+        int numberOfReservations = results.get(0).getNumberOfReservations();
+        System.out.println("FCA Scheme: "
+                + (numberOfReservations > 0 ? "HANDOVER RESERVATION " + numberOfReservations : "NO RESERVATION"));
+        System.out.println("Master Seed: " + masterSeed);
+        System.out.println("Number of Replications: " + results.size());
+        if (minCalls == maxCalls) {
+            System.out.println("Total number of Calls per Replication (after Warm Up period): " + minCalls);
+        } else {
+            System.out.println("Total number of Calls per Replication (after Warm Up period): " + minCalls + " to "
+                    + maxCalls + " (mean " + sumCalls / results.size() + ")");
+        }
+        System.out.println("Mean Blocked Calls Rate (%): " + meanBlockedCallsRate);
+        System.out.println("Mean Dropped Calls Rate (%): " + meanDroppedCallsRate);
+        System.out.println("Max Blocked Calls Rate (%): " + maxBlockedResult.getBlockedCallsRate() + " (seed "
+                + maxBlockedResult.getSeed() + ")");
+        System.out.println("Max Dropped Calls Rate (%): " + maxDroppedResult.getDroppedCallsRate() + " (seed "
+                + maxDroppedResult.getSeed() + ")");
+
+        // Write the statistics of every replication to the results sink
+        try {
+            sink.writeResults(results);
+        } catch (IOException ioe) {
+            ioe.printStackTrace();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,22 @@
+package simulation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * The interface {@code ResultsSink} for the destination of the simulation
+ * results. Each call writes one whole block, and blocks written concurrently
+ * by parallel replications never interleave
+ */
+public interface ResultsSink extends Closeable {
+
+    // Write the summaries of replications as one block
+    public void writeResults(List<ReplicationResult> results) throws IOException;
+
+    // Write the convergence trace of a replication as one block
+    public void writeTrace(ReplicationResult result, ConvergenceTrace trace) throws IOException;
+
+    // Write the summaries of the points of a sweep as one block
+    public void writeSweep(List<SweepPoint> points) throws IOException;
+}
\ No newline at end of file
@@ -0,0 +1,58 @@
+package simulation;
+
+/**
+ * The class {@code RunningStatistics} to keep the running mean and variance
+ * of a series of observations (Welford's algorithm) and the Student t
+ * confidence interval of the mean
+ */
+public class RunningStatistics {
+
+    private long count;
+    private double mean;
+    private double sumOfSquares;
+
+    // Constructor
+    public RunningStatistics() {
+        this.count = 0;
+        this.mean = 0;
+        this.sumOfSquares = 0;
+    }
+
+    // Add an observation
+    public void add(double value) {
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        sumOfSquares += delta * (value - mean);
+    }
+
+    // Get the number of observations
+    public long getCount() {
+        return count;
+    }
+
+    // Get the sample mean
+    public double getMean() {
+        return mean;
+    }
+
+    // Get the sample variance
+    public double getVariance() {
+        return count > 1 ? sumOfSquares / (count - 1) : 0;
+    }
+
+    // Get the sample standard deviation
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    // Get the half-width of the confidence interval of the mean at the given
+    // confidence level, infinite with fewer than two observations
+    public double getHalfWidth(double confidenceLevel) {
+        if (count < 2) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double t = Quantiles.studentT(1 - (1 - confidenceLevel) / 2, (int) (count - 1));
+        return t * getStandardDeviation() / Math.sqrt(count);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,1104 @@
+package simulation;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+
+/**
+ * The class {@code ScenarioConfig} for the parameters of a simulation
+ * scenario: the highway, the FCA scheme, the run length and the input
+ * distributions. The defaults are the parameters of the XPhone highway and
+ * the distributions fitted in the Input Modeling notebook. A scenario can be
+ * loaded from a properties file and overridden from the command line with
+ * {@code --key=value} arguments, using the keys below
+ */
+public class ScenarioConfig {
+
+    public static final String CONFIG = "config";
+    public static final String STATIONS = "stations";
+    public static final String CHANNELS = "channels";
+    public static final String RESERVATIONS = "reservations";
+    public static final String CELL_LENGTH = "cell.length";
+    public static final String TOPOLOGY = "topology";
+    public static final String TOTAL_CALLS = "calls.total";
+    public static final String WARMUP_CALLS = "calls.warmup";
+    public static final String INTER_ARRIVAL_TIME_MEAN = "interarrival.mean";
+    public static final String CALL_DURATION_MEAN = "duration.mean";
+    public static final String CALL_DURATION_SHIFT = "duration.shift";
+    public static final String CAR_SPEED_MEAN = "speed.mean";
+    public static final String CAR_SPEED_VARIANCE = "speed.variance";
+    public static final String CAR_SPEED_MAX = "speed.max";
+    public static final String INPUT_DATA = "input.data";
+    public static final String INTER_ARRIVAL_TIME_DISTRIBUTION = "interarrival.distribution";
+    public static final String CALL_DURATION_DISTRIBUTION = "duration.distribution";
+    public static final String CAR_SPEED_DISTRIBUTION = "speed.distribution";
+    public static final String FUTURE_EVENT_LIST = "fel";
+    public static final String REPLICATIONS = "replications";
+    public static final String SEED = "seed";
+    public static final String SWEEP_RESERVATIONS = "sweep.reservations";
+    public static final String SWEEP_CHANNELS = "sweep.channels";
+    public static final String MIN_REPLICATIONS = "replications.min";
+    public static final String CONFIDENCE_LEVEL = "confidence";
+    public static final String PRECISION = "precision";
+    public static final String ESTIMATION = "estimation";
+    public static final String WARMUP_DETECTION = "warmup.detection";
+    public static final String COMPARE_RESERVATIONS = "compare.reservations";
+    public static final String ANTITHETIC = "antithetic";
+    public static final String TRACE = "trace";
+    public static final String TRACE_BINARY = "trace.binary";
+    public static final String OUTPUT = "output";
+    public static final String OUTPUT_TRACE = "output.trace";
+    public static final String EVENT_LOG = "event.log";
+    public static final String METRICS = "metrics";
+    public static final String METRICS_WINDOW = "metrics.window";
+    public static final String METRICS_JMX = "metrics.jmx";
+    public static final String PROGRESS = "progress";
+    public static final String PARTITIONS = "parallel.partitions";
+    public static final String SYNCHRONIZATION = "parallel.sync";
+    public static final String OPTIMISM_WINDOW = "parallel.window";
+    public static final String CHECKPOINT = "checkpoint";
+    public static final String CHECKPOINT_CALLS = "checkpoint.calls";
+    public static final String RESUME = "resume";
+    public static final String FORK_RESERVATIONS = "fork.reservations";
+    public static final String FORK_INTER_ARRIVAL_TIME_MEANS = "fork.interarrival";
+    public static final String BLOCKED_CALLS_THRESHOLD = "qos.blocked";
+    public static final String DROPPED_CALLS_THRESHOLD = "qos.dropped";
+
+    private int numberOfStations = 20;
+    private int numberOfChannels = 10;
+    private int numberOfReservations = 0;
+    private double cellLength = 2;
+    private String topologyFile = null;
+    private Topology topology = null;
+    private int totalCalls = 250000;
+    private int warmUpCalls = 100000;
+    private double interArrivalTimeMean = 1.369680;
+    // Whether the mean was given, to scale an inter-arrival time distribution to it
+    private boolean interArrivalTimeMeanGiven = false;
+    private double callDurationMean = 99.831949;
+    private double callDurationShift = 10.003952;
+    private double carSpeedMean = 120.072098;
+    private double carSpeedVariance = 81.343405;
+    private double carSpeedMax = 0;
+    private String inputData = null;
+    private String interArrivalTimeDistributionSpec = null;
+    private String callDurationDistributionSpec = null;
+    private String carSpeedDistributionSpec = null;
+    private InputDistribution interArrivalTimeDistribution = null;
+    private InputDistribution callDurationDistribution = null;
+    private InputDistribution carSpeedDistribution = null;
+    private String futureEventList = "heap";
+    private int replications = 120;
+    private Long seed = null;
+    private int[] sweepReservations = null;
+    private int[] sweepChannels = null;
+    private int minReplications = 10;
+    private double confidenceLevel = 0.90;
+    private double precision = 0;
+    private String estimation = "replications";
+    private String warmUpDetection = "fixed";
+    private int[] compareReservations = null;
+    private boolean antithetic = false;
+    private String trace = null;
+    private String traceBinary = null;
+    private String output = "csv";
+    private boolean outputTrace = false;
+    private String eventLog = null;
+    private boolean metrics = false;
+    private double metricsWindow = 3600;
+    private boolean metricsJmx = false;
+    private double progress = 0;
+    private int partitions = 0;
+    private String synchronization = "conservative";
+    private double optimismWindow = 60;
+    private String checkpoint = null;
+    private int checkpointCalls = 0;
+    private String resume = null;
+    private int[] forkReservations = null;
+    private double[] forkInterArrivalTimeMeans = null;
+    private double blockedCallsThreshold = 2;
+    private double droppedCallsThreshold = 1;
+
+    // Constructor, with the default scenario
+    public ScenarioConfig() {
+    }
+
+    // Load a scenario from a properties file
+    public static ScenarioConfig load(Path path) throws IOException {
+        ScenarioConfig config = new ScenarioConfig();
+        config.apply(readProperties(path));
+        return config;
+    }
+
+    // Get a scenario from command line arguments, a "--config=file" argument
+    // is loaded first and the other arguments override its values
+    public static ScenarioConfig fromArgs(String[] args) throws IOException {
+        Properties overrides = new Properties();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || arg.indexOf('=') < 0) {
+                throw new IllegalArgumentException("Expected an argument of the form --key=value: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            overrides.setProperty(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+
+        ScenarioConfig config = new ScenarioConfig();
+        String configFile = overrides.getProperty(CONFIG);
+        if (configFile != null) {
+            config.apply(readProperties(Paths.get(configFile)));
+            overrides.remove(CONFIG);
+        }
+        config.apply(overrides);
+        return config;
+    }
+
+    // Set the parameters given in the properties
+    public void apply(Properties properties) {
+        for (String key : properties.stringPropertyNames()) {
+            String value = properties.getProperty(key).trim();
+            try {
+                set(key, value);
+            } catch (NumberFormatException nfe) {
+                throw new IllegalArgumentException("Invalid value for " + key + ": " + value, nfe);
+            }
+        }
+        // The cells of a topology file are the stations, with its lengths or the cell length
+        if (topologyFile != null) {
+            try {
+                setTopology(Topology.load(Paths.get(topologyFile), cellLength));
+            } catch (IOException ioe) {
+                throw new UncheckedIOException("Cannot read the topology " + topologyFile, ioe);
+            }
+        }
+        // The distributions given by a spec, or fitted to the measurement data, replace the default ones
+        resolveDistributions();
+        validate();
+    }
+
+    // Create the distributions of the specs not created yet, fitting them to the measurement data once
+    private void resolveDistributions() {
+        String interArrivalTimeSpec = getDistributionSpec(interArrivalTimeDistributionSpec,
+                interArrivalTimeDistribution);
+        String callDurationSpec = getDistributionSpec(callDurationDistributionSpec, callDurationDistribution);
+        String carSpeedSpec = getDistributionSpec(carSpeedDistributionSpec, carSpeedDistribution);
+        if (interArrivalTimeSpec == null && callDurationSpec == null && carSpeedSpec == null) {
+            return;
+        }
+
+        DistributionFitter fitter = inputData != null ? new DistributionFitter(Paths.get(inputData)) : null;
+        if (interArrivalTimeSpec != null) {
+            double givenMean = interArrivalTimeMean;
+            setInterArrivalTimeDistribution(DistributionFitter.create(interArrivalTimeSpec,
+                    fitter != null ? fitter.getInterArrivalTimes() : null));
+            // A given mean scales the distribution to it, whichever of them is given first
+            if (interArrivalTimeMeanGiven) {
+                interArrivalTimeMean = givenMean;
+            }
+        }
+        if (callDurationSpec != null) {
+            setCallDurationDistribution(DistributionFitter.create(callDurationSpec,
+                    fitter != null ? fitter.getCallDurations() : null));
+        }
+        if (carSpeedSpec != null) {
+            setCarSpeedDistribution(DistributionFitter.create(carSpeedSpec,
+                    fitter != null ? fitter.getCarSpeeds() : null));
+        }
+    }
+
+    // Get the spec of a distribution to create, the best fit when only the measurement data is given,
+    // null when it is created already or there is none
+    private String getDistributionSpec(String spec, InputDistribution distribution) {
+        if (distribution != null) {
+            return null;
+        }
+        return spec != null ? spec : inputData != null ? "best" : null;
+    }
+
+    // Get a copy of the scenario, to vary it without changing this one
+    public ScenarioConfig copy() {
+        ScenarioConfig config = new ScenarioConfig();
+        config.numberOfStations = numberOfStations;
+        config.numberOfChannels = numberOfChannels;
+        config.numberOfReservations = numberOfReservations;
+        config.cellLength = cellLength;
+        config.topologyFile = topologyFile;
+        config.topology = topology;
+        config.totalCalls = totalCalls;
+        config.warmUpCalls = warmUpCalls;
+        config.interArrivalTimeMean = interArrivalTimeMean;
+        config.interArrivalTimeMeanGiven = interArrivalTimeMeanGiven;
+        config.callDurationMean = callDurationMean;
+        config.callDurationShift = callDurationShift;
+        config.carSpeedMean = carSpeedMean;
+        config.carSpeedVariance = carSpeedVariance;
+        config.carSpeedMax = carSpeedMax;
+        config.inputData = inputData;
+        config.interArrivalTimeDistributionSpec = interArrivalTimeDistributionSpec;
+        config.callDurationDistributionSpec = callDurationDistributionSpec;
+        config.carSpeedDistributionSpec = carSpeedDistributionSpec;
+        config.interArrivalTimeDistribution = interArrivalTimeDistribution;
+        config.callDurationDistribution = callDurationDistribution;
+        config.carSpeedDistribution = carSpeedDistribution;
+        config.futureEventList = futureEventList;
+        config.replications = replications;
+        config.seed = seed;
+        config.sweepReservations = sweepReservations;
+        config.sweepChannels = sweepChannels;
+        config.minReplications = minReplications;
+        config.confidenceLevel = confidenceLevel;
+        config.precision = precision;
+        config.estimation = estimation;
+        config.warmUpDetection = warmUpDetection;
+        config.compareReservations = compareReservations;
+        config.antithetic = antithetic;
+        config.trace = trace;
+        config.traceBinary = traceBinary;
+        config.output = output;
+        config.outputTrace = outputTrace;
+        config.eventLog = eventLog;
+        config.metrics = metrics;
+        config.metricsWindow = metricsWindow;
+        config.metricsJmx = metricsJmx;
+        config.progress = progress;
+        config.partitions = partitions;
+        config.synchronization = synchronization;
+        config.optimismWindow = optimismWindow;
+        config.checkpoint = checkpoint;
+        config.checkpointCalls = checkpointCalls;
+        config.resume = resume;
+        config.forkReservations = forkReservations;
+        config.forkInterArrivalTimeMeans = forkInterArrivalTimeMeans;
+        config.blockedCallsThreshold = blockedCallsThreshold;
+        config.droppedCallsThreshold = droppedCallsThreshold;
+        return config;
+    }
+
+    // Create the future event list selected by the scenario
+    public FutureEventList createFutureEventList() {
+        if (futureEventList.equals("calendar")) {
+            return new CalendarEventList();
+        }
+        return new HeapEventList();
+    }
+
+    // Create the results sink selected by the scenario, writing to the working directory
+    public ResultsSink createResultsSink() throws IOException {
+        Path directory = Paths.get(System.getProperty("user.dir"));
+        if (output.equals("binary")) {
+            return new BinaryResultsSink(directory.resolve("output.bin"));
+        }
+        return new CsvResultsSink(directory.resolve("output.csv"), directory.resolve("trace.csv"),
+                directory.resolve("sweep.csv"));
+    }
+
+    // Check that the parameters describe a runnable scenario
+    public void validate() {
+        if (numberOfStations < 1) {
+            throw new IllegalArgumentException(STATIONS + " must be at least 1");
+        }
+        if (numberOfChannels < 1) {
+            throw new IllegalArgumentException(CHANNELS + " must be at least 1");
+        }
+        if (numberOfReservations < 0 || numberOfReservations >= numberOfChannels) {
+            throw new IllegalArgumentException(RESERVATIONS + " must be between 0 and " + CHANNELS + " - 1");
+        }
+        if (cellLength <= 0) {
+            throw new IllegalArgumentException(CELL_LENGTH + " must be positive");
+        }
+        if (topology != null && topology.getNumberOfCells() != numberOfStations) {
+            throw new IllegalArgumentException(STATIONS + " must be the " + topology.getNumberOfCells()
+                    + " cells of the " + TOPOLOGY);
+        }
+        if (warmUpCalls < 0 || warmUpCalls >= totalCalls) {
+            throw new IllegalArgumentException(WARMUP_CALLS + " must be between 0 and " + TOTAL_CALLS + " - 1");
+        }
+        if (interArrivalTimeMean <= 0 || callDurationMean <= 0 || carSpeedMean <= 0 || carSpeedVariance < 0) {
+            throw new IllegalArgumentException("Distribution parameters must be positive");
+        }
+        if (carSpeedDistribution == null && carSpeedVariance == 0) {
+            throw new IllegalArgumentException(CAR_SPEED_VARIANCE + " must be positive for the normal car speed");
+        }
+        if (carSpeedMax < 0) {
+            throw new IllegalArgumentException(CAR_SPEED_MAX + " must not be negative");
+        }
+        if (partitions < 0 || partitions > numberOfStations) {
+            throw new IllegalArgumentException(PARTITIONS + " must be between 0 and " + STATIONS);
+        }
+        if (partitions > 0 && topology != null) {
+            throw new IllegalArgumentException(PARTITIONS + " needs the linear highway, not a " + TOPOLOGY);
+        }
+        if (partitions > 0
+                && (trace != null || estimation.equals("batch-means") || warmUpDetection.equals("mser-5"))) {
+            throw new IllegalArgumentException(PARTITIONS + " needs sampled calls, " + ESTIMATION
+                    + "=replications and " + WARMUP_DETECTION + "=fixed");
+        }
+        if (partitions > 0 && (metrics || eventLog != null || progress > 0 || outputTrace)) {
+            throw new IllegalArgumentException(PARTITIONS + " does not record the " + METRICS + ", " + EVENT_LOG
+                    + ", " + PROGRESS + " or " + OUTPUT_TRACE);
+        }
+        if (!synchronization.equals("conservative") && !synchronization.equals("optimistic")) {
+            throw new IllegalArgumentException(SYNCHRONIZATION + " must be conservative or optimistic");
+        }
+        if (optimismWindow < 0) {
+            throw new IllegalArgumentException(OPTIMISM_WINDOW + " must not be negative");
+        }
+        if (!futureEventList.equals("heap") && !futureEventList.equals("calendar")) {
+            throw new IllegalArgumentException(FUTURE_EVENT_LIST + " must be heap or calendar");
+        }
+        if (replications < 0) {
+            throw new IllegalArgumentException(REPLICATIONS + " must not be negative");
+        }
+        if (minReplications < 2) {
+            throw new IllegalArgumentException(MIN_REPLICATIONS + " must be at least 2");
+        }
+        if (confidenceLevel <= 0 || confidenceLevel >= 1) {
+            throw new IllegalArgumentException(CONFIDENCE_LEVEL + " must be in (0, 1)");
+        }
+        if (precision < 0) {
+            throw new IllegalArgumentException(PRECISION + " must not be negative");
+        }
+        if (!estimation.equals("replications") && !estimation.equals("batch-means")) {
+            throw new IllegalArgumentException(ESTIMATION + " must be replications or batch-means");
+        }
+        if (!warmUpDetection.equals("fixed") && !warmUpDetection.equals("mser-5")) {
+            throw new IllegalArgumentException(WARMUP_DETECTION + " must be fixed or mser-5");
+        }
+        if (compareReservations != null && compareReservations.length != 2) {
+            throw new IllegalArgumentException(COMPARE_RESERVATIONS + " must list two FCA schemes");
+        }
+        if (progress < 0) {
+            throw new IllegalArgumentException(PROGRESS + " must not be negative");
+        }
+        if (checkpointCalls < 0 || checkpointCalls > totalCalls) {
+            throw new IllegalArgumentException(CHECKPOINT_CALLS + " must be between 0 and " + TOTAL_CALLS);
+        }
+        if (forkReservations != null) {
+            for (int forkReservation : forkReservations) {
+                if (forkReservation < 0 || forkReservation >= numberOfChannels) {
+                    throw new IllegalArgumentException(FORK_RESERVATIONS + " must be between 0 and " + CHANNELS
+                            + " - 1");
+                }
+            }
+        }
+        if (forkInterArrivalTimeMeans != null) {
+            for (double forkInterArrivalTimeMean : forkInterArrivalTimeMeans) {
+                if (forkInterArrivalTimeMean <= 0) {
+                    throw new IllegalArgumentException(FORK_INTER_ARRIVAL_TIME_MEANS + " must be positive");
+                }
+            }
+        }
+        if (eventLog != null && (forkReservations != null || forkInterArrivalTimeMeans != null)) {
+            throw new IllegalArgumentException(EVENT_LOG + " cannot log the forks, whose scenarios share their"
+                    + " warm up and seeds");
+        }
+        if (metricsWindow <= 0) {
+            throw new IllegalArgumentException(METRICS_WINDOW + " must be positive");
+        }
+        if (metricsJmx && !metrics) {
+            throw new IllegalArgumentException(METRICS_JMX + " needs the " + METRICS + " to publish");
+        }
+        if (metrics && warmUpDetection.equals("mser-5")) {
+            throw new IllegalArgumentException(METRICS + " needs " + WARMUP_DETECTION
+                    + "=fixed, the counters cannot be restarted at a detected warm up period");
+        }
+        if (!output.equals("csv") && !output.equals("binary")) {
+            throw new IllegalArgumentException(OUTPUT + " must be csv or binary");
+        }
+        if (traceBinary != null && trace == null) {
+            throw new IllegalArgumentException(TRACE_BINARY + " needs the CSV " + TRACE + " to convert");
+        }
+    }
+
+    // Set one parameter from its key
+    private void set(String key, String value) {
+        switch (key) {
+        case STATIONS:
+            numberOfStations = Integer.parseInt(value);
+            break;
+        case CHANNELS:
+            numberOfChannels = Integer.parseInt(value);
+            break;
+        case RESERVATIONS:
+            numberOfReservations = Integer.parseInt(value);
+            break;
+        case CELL_LENGTH:
+            cellLength = Double.parseDouble(value);
+            break;
+        case TOPOLOGY:
+            topologyFile = value.isEmpty() ? null : value;
+            topology = null;
+            break;
+        case TOTAL_CALLS:
+            totalCalls = Integer.parseInt(value);
+            break;
+        case WARMUP_CALLS:
+            warmUpCalls = Integer.parseInt(value);
+            break;
+        case INTER_ARRIVAL_TIME_MEAN:
+            interArrivalTimeMean = Double.parseDouble(value);
+            interArrivalTimeMeanGiven = true;
+            break;
+        case CALL_DURATION_MEAN:
+            callDurationMean = Double.parseDouble(value);
+            break;
+        case CALL_DURATION_SHIFT:
+            callDurationShift = Double.parseDouble(value);
+            break;
+        case CAR_SPEED_MEAN:
+            carSpeedMean = Double.parseDouble(value);
+            break;
+        case CAR_SPEED_VARIANCE:
+            carSpeedVariance = Double.parseDouble(value);
+            break;
+        case CAR_SPEED_MAX:
+            carSpeedMax = Double.parseDouble(value);
+            break;
+        case INPUT_DATA:
+            inputData = value.isEmpty() ? null : value;
+            interArrivalTimeDistribution = null;
+            callDurationDistribution = null;
+            carSpeedDistribution = null;
+            break;
+        case INTER_ARRIVAL_TIME_DISTRIBUTION:
+            interArrivalTimeDistributionSpec = value.isEmpty() ? null : value;
+            interArrivalTimeDistribution = null;
+            break;
+        case CALL_DURATION_DISTRIBUTION:
+            callDurationDistributionSpec = value.isEmpty() ? null : value;
+            callDurationDistribution = null;
+            break;
+        case CAR_SPEED_DISTRIBUTION:
+            carSpeedDistributionSpec = value.isEmpty() ? null : value;
+            carSpeedDistribution = null;
+            break;
+        case FUTURE_EVENT_LIST:
+            futureEventList = value;
+            break;
+        case REPLICATIONS:
+            replications = Integer.parseInt(value);
+            break;
+        case SEED:
+            seed = Long.parseLong(value);
+            break;
+        case SWEEP_RESERVATIONS:
+            sweepReservations = parseIntList(value);
+            break;
+        case SWEEP_CHANNELS:
+            sweepChannels = parseIntList(value);
+            break;
+        case MIN_REPLICATIONS:
+            minReplications = Integer.parseInt(value);
+            break;
+        case CONFIDENCE_LEVEL:
+            confidenceLevel = Double.parseDouble(value);
+            break;
+        case PRECISION:
+            precision = Double.parseDouble(value);
+            break;
+        case ESTIMATION:
+            estimation = value;
+            break;
+        case WARMUP_DETECTION:
+            warmUpDetection = value;
+            break;
+        case COMPARE_RESERVATIONS:
+            compareReservations = parseIntList(value);
+            break;
+        case ANTITHETIC:
+            antithetic = Boolean.parseBoolean(value);
+            break;
+        case TRACE:
+            trace = value.isEmpty() ? null : value;
+            break;
+        case TRACE_BINARY:
+            traceBinary = value.isEmpty() ? null : value;
+            break;
+        case OUTPUT:
+            output = value;
+            break;
+        case OUTPUT_TRACE:
+            outputTrace = Boolean.parseBoolean(value);
+            break;
+        case EVENT_LOG:
+            eventLog = value.isEmpty() ? null : value;
+            break;
+        case METRICS:
+            metrics = Boolean.parseBoolean(value);
+            break;
+        case METRICS_WINDOW:
+            metricsWindow = Double.parseDouble(value);
+            break;
+        case METRICS_JMX:
+            metricsJmx = Boolean.parseBoolean(value);
+            break;
+        case PROGRESS:
+            progress = Double.parseDouble(value);
+            break;
+        case PARTITIONS:
+            partitions = Integer.parseInt(value);
+            break;
+        case SYNCHRONIZATION:
+            synchronization = value;
+            break;
+        case OPTIMISM_WINDOW:
+            optimismWindow = Double.parseDouble(value);
+            break;
+        case CHECKPOINT:
+            checkpoint = value.isEmpty() ? null : value;
+            break;
+        case CHECKPOINT_CALLS:
+            checkpointCalls = Integer.parseInt(value);
+            break;
+        case RESUME:
+            resume = value.isEmpty() ? null : value;
+            break;
+        case FORK_RESERVATIONS:
+            forkReservations = parseIntList(value);
+            break;
+        case FORK_INTER_ARRIVAL_TIME_MEANS:
+            forkInterArrivalTimeMeans = parseDoubleList(value);
+            break;
+        case BLOCKED_CALLS_THRESHOLD:
+            blockedCallsThreshold = Double.parseDouble(value);
+            break;
+        case DROPPED_CALLS_THRESHOLD:
+            droppedCallsThreshold = Double.parseDouble(value);
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown scenario parameter: " + key);
+        }
+    }
+
+    // Parse a comma separated list of integers
+    private static int[] parseIntList(String value) {
+        String[] items = value.split(",");
+        int[] list = new int[items.length];
+        for (int i = 0; i < items.length; i++) {
+            list[i] = Integer.parseInt(items[i].trim());
+        }
+        return list;
+    }
+
+    // Parse a comma separated list of numbers
+    private static double[] parseDoubleList(String value) {
+        String[] items = value.split(",");
+        double[] list = new double[items.length];
+        for (int i = 0; i < items.length; i++) {
+            list[i] = Double.parseDouble(items[i].trim());
+        }
+        return list;
+    }
+
+    // Read a properties file
+    private static Properties readProperties(Path path) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(path)) {
+            properties.load(reader);
+        }
+        return properties;
+    }
+
+    // Get the number of base stations
+    public int getNumberOfStations() {
+        return numberOfStations;
+    }
+
+    // Set the number of base stations
+    public void setNumberOfStations(int numberOfStations) {
+        this.numberOfStations = numberOfStations;
+    }
+
+    // Get the number of channels of each station
+    public int getNumberOfChannels() {
+        return numberOfChannels;
+    }
+
+    // Set the number of channels of each station
+    public void setNumberOfChannels(int numberOfChannels) {
+        this.numberOfChannels = numberOfChannels;
+    }
+
+    // Get the number of channels reserved for handovers
+    public int getNumberOfReservations() {
+        return numberOfReservations;
+    }
+
+    // Set the number of channels reserved for handovers
+    public void setNumberOfReservations(int numberOfReservations) {
+        this.numberOfReservations = numberOfReservations;
+    }
+
+    // Get the length of the highway covered by a station (km)
+    public double getCellLength() {
+        return cellLength;
+    }
+
+    // Set the length of the highway covered by a station (km)
+    public void setCellLength(double cellLength) {
+        this.cellLength = cellLength;
+    }
+
+    // Get the cells and roads of the network, the linear highway of the stations when none is loaded
+    public Topology getTopology() {
+        return topology != null ? topology : Topology.linear(numberOfStations, cellLength);
+    }
+
+    // Set the cells and roads of the network, and the stations to its cells
+    public void setTopology(Topology topology) {
+        this.topology = topology;
+        this.numberOfStations = topology.getNumberOfCells();
+    }
+
+    // Get the total number of calls of a run, including the warm up calls
+    public int getTotalCalls() {
+        return totalCalls;
+    }
+
+    // Set the total number of calls of a run, including the warm up calls
+    public void setTotalCalls(int totalCalls) {
+        this.totalCalls = totalCalls;
+    }
+
+    // Get the number of warm up calls
+    public int getWarmUpCalls() {
+        return warmUpCalls;
+    }
+
+    // Set the number of warm up calls
+    public void setWarmUpCalls(int warmUpCalls) {
+        this.warmUpCalls = warmUpCalls;
+    }
+
+    // Get the mean of the exponential inter-arrival time (sec)
+    public double getInterArrivalTimeMean() {
+        return interArrivalTimeMean;
+    }
+
+    // Set the mean of the exponential inter-arrival time (sec)
+    public void setInterArrivalTimeMean(double interArrivalTimeMean) {
+        this.interArrivalTimeMean = interArrivalTimeMean;
+    }
+
+    // Get the mean of the shifted exponential call duration (sec)
+    public double getCallDurationMean() {
+        return callDurationMean;
+    }
+
+    // Set the mean of the shifted exponential call duration (sec)
+    public void setCallDurationMean(double callDurationMean) {
+        this.callDurationMean = callDurationMean;
+    }
+
+    // Get the shift of the call duration (sec)
+    public double getCallDurationShift() {
+        return callDurationShift;
+    }
+
+    // Set the shift of the call duration (sec)
+    public void setCallDurationShift(double callDurationShift) {
+        this.callDurationShift = callDurationShift;
+    }
+
+    // Get the mean of the normal car speed (km/h)
+    public double getCarSpeedMean() {
+        return carSpeedMean;
+    }
+
+    // Set the mean of the normal car speed (km/h)
+    public void setCarSpeedMean(double carSpeedMean) {
+        this.carSpeedMean = carSpeedMean;
+    }
+
+    // Get the variance of the normal car speed
+    public double getCarSpeedVariance() {
+        return carSpeedVariance;
+    }
+
+    // Set the variance of the normal car speed
+    public void setCarSpeedVariance(double carSpeedVariance) {
+        this.carSpeedVariance = carSpeedVariance;
+    }
+
+    // Get the maximum car speed (km/h), 0 for none
+    public double getCarSpeedMax() {
+        return carSpeedMax;
+    }
+
+    // Set the maximum car speed (km/h), 0 for none
+    public void setCarSpeedMax(double carSpeedMax) {
+        this.carSpeedMax = carSpeedMax;
+    }
+
+    // Get the measurement data the distributions are fitted to, a call trace, null for none
+    public String getInputData() {
+        return inputData;
+    }
+
+    // Get the distribution of the inter-arrival time, the exponential of the mean when none is given
+    public InputDistribution getInterArrivalTimeDistribution() {
+        return interArrivalTimeDistribution != null ? interArrivalTimeDistribution
+                : new ExponentialDistribution(interArrivalTimeMean);
+    }
+
+    // Set the distribution of the inter-arrival time, and the mean to its mean
+    // (a later mean scales the distribution to it)
+    public void setInterArrivalTimeDistribution(InputDistribution interArrivalTimeDistribution) {
+        this.interArrivalTimeDistribution = interArrivalTimeDistribution;
+        this.interArrivalTimeMean = interArrivalTimeDistribution.getMean();
+    }
+
+    // Get the distribution of the call duration, the shifted exponential when none is given
+    public InputDistribution getCallDurationDistribution() {
+        return callDurationDistribution != null ? callDurationDistribution
+                : new ShiftedExponentialDistribution(callDurationMean, callDurationShift);
+    }
+
+    // Set the distribution of the call duration
+    public void setCallDurationDistribution(InputDistribution callDurationDistribution) {
+        this.callDurationDistribution = callDurationDistribution;
+    }
+
+    // Get the distribution of the car speed, the normal of the mean and variance when none is given
+    public InputDistribution getCarSpeedDistribution() {
+        return carSpeedDistribution != null ? carSpeedDistribution
+                : new NormalDistribution(carSpeedMean, Math.sqrt(carSpeedVariance));
+    }
+
+    // Set the distribution of the car speed, and the mean and variance to its own (for the parallel lookahead)
+    public void setCarSpeedDistribution(InputDistribution carSpeedDistribution) {
+        this.carSpeedDistribution = carSpeedDistribution;
+        this.carSpeedMean = carSpeedDistribution.getMean();
+        this.carSpeedVariance = carSpeedDistribution.getVariance();
+    }
+
+    // Get the future event list implementation, heap or calendar
+    public String getFutureEventList() {
+        return futureEventList;
+    }
+
+    // Set the future event list implementation, heap or calendar
+    public void setFutureEventList(String futureEventList) {
+        this.futureEventList = futureEventList;
+    }
+
+    // Get the number of replications of a study
+    public int getReplications() {
+        return replications;
+    }
+
+    // Set the number of replications of a study
+    public void setReplications(int replications) {
+        this.replications = replications;
+    }
+
+    // Get the master seed of a study, null for a random one
+    public Long getSeed() {
+        return seed;
+    }
+
+    // Set the master seed of a study, null for a random one
+    public void setSeed(Long seed) {
+        this.seed = seed;
+    }
+
+    // Get the numbers of reserved channels to sweep, null when not sweeping
+    public int[] getSweepReservations() {
+        return sweepReservations;
+    }
+
+    // Set the numbers of reserved channels to sweep, null when not sweeping
+    public void setSweepReservations(int[] sweepReservations) {
+        this.sweepReservations = sweepReservations;
+    }
+
+    // Get the numbers of channels per station to sweep, null for the configured channels
+    public int[] getSweepChannels() {
+        return sweepChannels;
+    }
+
+    // Set the numbers of channels per station to sweep, null for the configured channels
+    public void setSweepChannels(int[] sweepChannels) {
+        this.sweepChannels = sweepChannels;
+    }
+
+    // Get the number of replications run before any stopping decision
+    public int getMinReplications() {
+        return minReplications;
+    }
+
+    // Set the number of replications run before any stopping decision
+    public void setMinReplications(int minReplications) {
+        this.minReplications = minReplications;
+    }
+
+    // Get the confidence level of the confidence intervals
+    public double getConfidenceLevel() {
+        return confidenceLevel;
+    }
+
+    // Set the confidence level of the confidence intervals
+    public void setConfidenceLevel(double confidenceLevel) {
+        this.confidenceLevel = confidenceLevel;
+    }
+
+    // Get the relative precision (half-width over mean) to stop the replications
+    // at, 0 to always run all of them
+    public double getPrecision() {
+        return precision;
+    }
+
+    // Set the relative precision (half-width over mean) to stop the replications
+    // at, 0 to always run all of them
+    public void setPrecision(double precision) {
+        this.precision = precision;
+    }
+
+    // Get the estimation mode, independent replications or batch means of one long run
+    public String getEstimation() {
+        return estimation;
+    }
+
+    // Set the estimation mode, independent replications or batch means of one long run
+    public void setEstimation(String estimation) {
+        this.estimation = estimation;
+    }
+
+    // Check if the rates are estimated by batch means of one long run
+    public boolean isBatchMeans() {
+        return estimation.equals("batch-means");
+    }
+
+    // Get the warm up detection, fixed number of warm up calls or MSER-5
+    public String getWarmUpDetection() {
+        return warmUpDetection;
+    }
+
+    // Set the warm up detection, fixed number of warm up calls or MSER-5
+    public void setWarmUpDetection(String warmUpDetection) {
+        this.warmUpDetection = warmUpDetection;
+    }
+
+    // Check if the warm up period is detected by MSER-5 instead of fixed
+    public boolean isWarmUpDetection() {
+        return warmUpDetection.equals("mser-5");
+    }
+
+    // Get the two numbers of reserved channels to compare, null when not comparing
+    public int[] getCompareReservations() {
+        return compareReservations;
+    }
+
+    // Set the two numbers of reserved channels to compare, null when not comparing
+    public void setCompareReservations(int[] compareReservations) {
+        this.compareReservations = compareReservations;
+    }
+
+    // Check if the random numbers are antithetic, or if the comparisons use antithetic pairs
+    public boolean isAntithetic() {
+        return antithetic;
+    }
+
+    // Set if the random numbers are antithetic, or if the comparisons use antithetic pairs
+    public void setAntithetic(boolean antithetic) {
+        this.antithetic = antithetic;
+    }
+
+    // Get the file of the call trace to replay, null to sample the calls
+    public String getTrace() {
+        return trace;
+    }
+
+    // Set the file of the call trace to replay, null to sample the calls
+    public void setTrace(String trace) {
+        this.trace = trace;
+    }
+
+    // Get the binary file to convert the CSV call trace to, null when not converting
+    public String getTraceBinary() {
+        return traceBinary;
+    }
+
+    // Set the binary file to convert the CSV call trace to, null when not converting
+    public void setTraceBinary(String traceBinary) {
+        this.traceBinary = traceBinary;
+    }
+
+    // Get the format of the results, csv or binary
+    public String getOutput() {
+        return output;
+    }
+
+    // Set the format of the results, csv or binary
+    public void setOutput(String output) {
+        this.output = output;
+    }
+
+    // Check if the full convergence trace of every run is written with the results
+    public boolean isOutputTrace() {
+        return outputTrace;
+    }
+
+    // Set if the full convergence trace of every run is written with the results
+    public void setOutputTrace(boolean outputTrace) {
+        this.outputTrace = outputTrace;
+    }
+
+    // Get the directory of the per-run event logs, null when the events are not logged
+    public String getEventLog() {
+        return eventLog;
+    }
+
+    // Set the directory of the per-run event logs, null when the events are not logged
+    public void setEventLog(String eventLog) {
+        this.eventLog = eventLog;
+    }
+
+    // Check if the per-station metrics are collected
+    public boolean isMetrics() {
+        return metrics;
+    }
+
+    // Set if the per-station metrics are collected
+    public void setMetrics(boolean metrics) {
+        this.metrics = metrics;
+    }
+
+    // Get the length of the time windows of the metrics (sec)
+    public double getMetricsWindow() {
+        return metricsWindow;
+    }
+
+    // Set the length of the time windows of the metrics (sec)
+    public void setMetricsWindow(double metricsWindow) {
+        this.metricsWindow = metricsWindow;
+    }
+
+    // Check if the merged metrics are published through JMX
+    public boolean isMetricsJmx() {
+        return metricsJmx;
+    }
+
+    // Set if the merged metrics are published through JMX
+    public void setMetricsJmx(boolean metricsJmx) {
+        this.metricsJmx = metricsJmx;
+    }
+
+    // Get the interval of the progress reports (sec), 0 for no reports
+    public double getProgress() {
+        return progress;
+    }
+
+    // Set the interval of the progress reports (sec), 0 for no reports
+    public void setProgress(double progress) {
+        this.progress = progress;
+    }
+
+    // Get the number of partitions of the highway simulated in parallel, 0 to simulate it sequentially
+    public int getPartitions() {
+        return partitions;
+    }
+
+    // Set the number of partitions of the highway simulated in parallel, 0 to simulate it sequentially
+    public void setPartitions(int partitions) {
+        this.partitions = partitions;
+    }
+
+    // Get the synchronization of the partitions, conservative or optimistic
+    public String getSynchronization() {
+        return synchronization;
+    }
+
+    // Set the synchronization of the partitions, conservative or optimistic
+    public void setSynchronization(String synchronization) {
+        this.synchronization = synchronization;
+    }
+
+    // Check if the partitions run optimistically (Time Warp)
+    public boolean isOptimistic() {
+        return synchronization.equals("optimistic");
+    }
+
+    // Get how far the optimistic partitions may run ahead of the GVT (sec), 0 for no limit
+    public double getOptimismWindow() {
+        return optimismWindow;
+    }
+
+    // Set how far the optimistic partitions may run ahead of the GVT (sec), 0 for no limit
+    public void setOptimismWindow(double optimismWindow) {
+        this.optimismWindow = optimismWindow;
+    }
+
+    // Get the file to save the state of a run to, null when not checkpointing
+    public String getCheckpoint() {
+        return checkpoint;
+    }
+
+    // Set the file to save the state of a run to, null when not checkpointing
+    public void setCheckpoint(String checkpoint) {
+        this.checkpoint = checkpoint;
+    }
+
+    // Get the number of generated calls to save the state after, the warm up calls by default
+    public int getCheckpointCalls() {
+        return checkpointCalls > 0 ? checkpointCalls : warmUpCalls;
+    }
+
+    // Set the number of generated calls to save the state after, 0 for the warm up calls
+    public void setCheckpointCalls(int checkpointCalls) {
+        this.checkpointCalls = checkpointCalls;
+    }
+
+    // Get the checkpoint file to resume a run from, null to start from empty stations
+    public String getResume() {
+        return resume;
+    }
+
+    // Set the checkpoint file to resume a run from, null to start from empty stations
+    public void setResume(String resume) {
+        this.resume = resume;
+    }
+
+    // Get the numbers of reserved channels to fork the warmed-up run into, null when not forking
+    public int[] getForkReservations() {
+        return forkReservations;
+    }
+
+    // Set the numbers of reserved channels to fork the warmed-up run into, null when not forking
+    public void setForkReservations(int[] forkReservations) {
+        this.forkReservations = forkReservations;
+    }
+
+    // Get the mean inter-arrival times (sec) to fork the warmed-up run into, null when not forking
+    public double[] getForkInterArrivalTimeMeans() {
+        return forkInterArrivalTimeMeans;
+    }
+
+    // Set the mean inter-arrival times (sec) to fork the warmed-up run into, null when not forking
+    public void setForkInterArrivalTimeMeans(double[] forkInterArrivalTimeMeans) {
+        this.forkInterArrivalTimeMeans = forkInterArrivalTimeMeans;
+    }
+
+    // Get the QoS threshold of the blocked calls rate (%)
+    public double getBlockedCallsThreshold() {
+        return blockedCallsThreshold;
+    }
+
+    // Set the QoS threshold of the blocked calls rate (%)
+    public void setBlockedCallsThreshold(double blockedCallsThreshold) {
+        this.blockedCallsThreshold = blockedCallsThreshold;
+    }
+
+    // Get the QoS threshold of the dropped calls rate (%)
+    public double getDroppedCallsThreshold() {
+        return droppedCallsThreshold;
+    }
+
+    // Set the QoS threshold of the dropped calls rate (%)
+    public void setDroppedCallsThreshold(double droppedCallsThreshold) {
+        this.droppedCallsThreshold = droppedCallsThreshold;
+    }
+}
\ No newline at end of file
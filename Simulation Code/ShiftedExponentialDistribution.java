@@ -0,0 +1,61 @@
+package simulation;
+
+/**
+ * The class {@code ShiftedExponentialDistribution} for an exponential
+ * distribution of the given mean shifted by a constant, sampled by inversion
+ */
+public class ShiftedExponentialDistribution implements InputDistribution {
+
+    private double mean;
+    private double shift;
+
+    // Constructor, with the mean of the exponential before the shift
+    public ShiftedExponentialDistribution(double mean, double shift) {
+        if (!(mean > 0)) {
+            throw new IllegalArgumentException("The mean of a shifted exponential distribution must be positive");
+        }
+        this.mean = mean;
+        this.shift = shift;
+    }
+
+    // Fit the distribution to the data by maximum likelihood, shifted by the minimum of the data
+    public static ShiftedExponentialDistribution fit(double[] data) {
+        double shift = DistributionFitter.min(data);
+        return new ShiftedExponentialDistribution(DistributionFitter.mean(data) - shift, shift);
+    }
+
+    @Override
+    public int getVariateKind() {
+        return VariateBuffer.EXPONENTIAL;
+    }
+
+    @Override
+    public double sample(VariateBuffer random) {
+        return (-mean) * random.next() + shift;
+    }
+
+    @Override
+    public double logDensity(double x) {
+        return x < shift ? Double.NEGATIVE_INFINITY : -Math.log(mean) - (x - shift) / mean;
+    }
+
+    @Override
+    public double getMean() {
+        return mean + shift;
+    }
+
+    @Override
+    public double getVariance() {
+        return mean * mean;
+    }
+
+    @Override
+    public int getNumberOfParameters() {
+        return 2;
+    }
+
+    @Override
+    public String toString() {
+        return "shifted-exponential(" + mean + ", " + shift + ")";
+    }
+}
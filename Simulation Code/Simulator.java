@@ -1,315 +1,847 @@
 package simulation;
 
-import java.io.FileWriter;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import java.util.PriorityQueue;
-import java.util.stream.Collectors;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * The class {@code Simulator} to run the simulation
  */
 public class Simulator {
 
-    private static final int TOT_CALLS = 250000;
-    private static final int NUM_WARMUP_CALLS = 100000;
-    private static final int SCALE = 5;
-    private static final int NUMBER_OF_AVAILABLE_CHANNELS = 10;
-    private static final Comparator<Event> COMPARATOR = Comparator.comparing(Event::getTime);
-    private static final String OUTPUT_FILE = "output.csv";
-
+    private static final int TRACE_CAPACITY = 4096;
+    private static final int CALLS_PER_OUTCOME_BIN = WarmUpDetector.CALLS_PER_BATCH;
+    // Number of calls between two searches for the end of the warm up period during the run
+    private static final int WARMUP_DETECTION_CALLS = 5000;
+    // Header of the checkpoint files, "SIMC" and the format version
+    private static final int CHECKPOINT_MAGIC = 0x53494d43;
+    private static final int CHECKPOINT_VERSION = 3;
+
+    private ScenarioConfig config;
+    private int totalCalls;
+    private int warmUpCalls;
+    private boolean detectWarmUp;
+    private boolean warmUpDetected;
+    private int measuredCalls;
+    private int numberOfStations;
+    private double cellLength;
+    private Topology topology;
     private double clock;
     private int numberOfReservations;
     private int generatedCalls;
     private int numCallsBlocked;
     private int numberOfDroppedCalls;
-    private PriorityQueue<Event> fel;
+    private long numberOfEvents;
+    private FutureEventList fel;
+    private EventStore events;
+    private EventHandler[] handlers;
     private List<Station> stations;
-    private List<List<String>> statistics;
-
-    // Constructor
+    private ConvergenceTrace trace;
+    private OutcomeSeries outcomes;
+    private RandomNumberGenerator randomNumberGenerator;
+    private CallSource callSource;
+    private EventLog eventLog;
+    private StationMetrics metrics;
+    private ProgressMonitor progress;
+    private long publishedEvents;
+    private int publishedFelSize;
+    private boolean started;
+
+    // Constructor for the default scenario, seeded with a fresh random master seed
     public Simulator(int numberOfReservations) {
+        this(numberOfReservations, ThreadLocalRandom.current().nextLong());
+    }
+
+    // Constructor for the default scenario, seeded with the given master seed
+    public Simulator(int numberOfReservations, long seed) {
+        this(defaultConfig(numberOfReservations), seed);
+    }
+
+    // Constructor for the given scenario, seeded with the given master seed
+    public Simulator(ScenarioConfig config, long seed) {
+        this.config = config;
+        this.totalCalls = config.getTotalCalls();
+        // The warm up period is decided during the run when it is detected, and the calls after it
+        // are measured
+        this.detectWarmUp = config.isWarmUpDetection();
+        this.warmUpDetected = false;
+        this.warmUpCalls = detectWarmUp ? 0 : config.getWarmUpCalls();
+        this.measuredCalls = config.getTotalCalls() - config.getWarmUpCalls();
+        this.numberOfStations = config.getNumberOfStations();
+        this.cellLength = config.getCellLength();
+        this.topology = config.getTopology();
         this.clock = 0;
-        this.numberOfReservations = numberOfReservations;
+        this.numberOfReservations = config.getNumberOfReservations();
         this.generatedCalls = 0;
         this.numCallsBlocked = 0;
         this.numberOfDroppedCalls = 0;
-        this.fel = new PriorityQueue<>(1, COMPARATOR);
+        this.fel = config.createFutureEventList();
+        this.events = new EventStore();
+        this.handlers = new EventHandler[Event.FIRST_CUSTOM_TYPE];
         this.stations = new ArrayList<>();
-        this.statistics = new ArrayList<>();
+        this.trace = new ConvergenceTrace(getTraceCapacity(config));
+        // Count the call outcomes over time only when they are analysed after the run
+        this.outcomes = config.isBatchMeans() || detectWarmUp ? new OutcomeSeries(totalCalls, CALLS_PER_OUTCOME_BIN)
+                : null;
+        this.randomNumberGenerator = new RandomNumberGenerator(config, seed);
+        this.metrics = config.isMetrics() ? new StationMetrics(numberOfStations, config.getNumberOfChannels(),
+                config.getMetricsWindow()) : null;
+        // Replay the recorded calls of a trace, or sample them
+        this.callSource = config.getTrace() != null
+                ? new TraceCallSource(Paths.get(config.getTrace()), numberOfStations, randomNumberGenerator)
+                : randomNumberGenerator;
     }
 
-    // Start the simulator
+    // Get the capacity of the convergence trace, a point per call when the full trace is written
+    private static int getTraceCapacity(ScenarioConfig config) {
+        return config.isOutputTrace() ? config.getTotalCalls() + 1 : TRACE_CAPACITY;
+    }
+
+    // Get the default scenario with the given FCA scheme
+    private static ScenarioConfig defaultConfig(int numberOfReservations) {
+        ScenarioConfig config = new ScenarioConfig();
+        config.setNumberOfReservations(numberOfReservations);
+        return config;
+    }
+
+    // Start the simulator, or continue it after runUntil or a restore, and run it to the end
     public void start() {
-        // Create 20 base stations, each with 10 available channels and given FCA Scheme
-        for (int i = 0; i < 20; i++) {
-            stations.add(new Station(i + 1, NUMBER_OF_AVAILABLE_CHANNELS, numberOfReservations));
+        if (progress != null) {
+            progress.replicationStarted();
+        }
+        // Start the event handling routine
+        run(Integer.MAX_VALUE);
+        if (progress != null) {
+            publishProgress();
+            progress.replicationCompleted();
+        }
+        if (metrics != null) {
+            metrics.finish(clock);
+        }
+        // Discard the warm up period from the statistics when it was not found during the run
+        if (detectWarmUp && !warmUpDetected) {
+            countAfterWarmUp(WarmUpDetector.getTruncationBin(outcomes));
+        }
+    }
+
+    // Run the simulator until the given number of calls is generated, e.g. to checkpoint it
+    // after the warm up period, and continue it later with start
+    public void runUntil(int calls) {
+        run(calls);
+    }
+
+    // Handle the events until the given number of calls is generated, logging them when requested
+    private void run(int calls) {
+        if (!started) {
+            initialize();
+        }
+        // Log the handled events of the run when requested, after those of the run it continues
+        if (config.getEventLog() != null) {
+            eventLog = openEventLog();
+        }
+        try {
+            handleEvent(calls);
+        } finally {
+            closeEventLog();
         }
+    }
 
+    // Create the base stations and schedule the first call
+    private void initialize() {
+        createStations();
         // Generate the first initiation record data
-        CallInitiationEvent event = generateInitiationEvent();
+        int event = generateInitiationEvent();
         // Add the event to FEL
-        fel.add(event);
+        scheduleEvent(event);
         // Calculate the statistic when a call is generated
         calcStats();
-        // Start the event handling routine
-        handleEvent();
+        started = true;
+    }
+
+    // Create the base stations, each with the available channels and given FCA Scheme
+    private void createStations() {
+        for (int i = 0; i < numberOfStations; i++) {
+            stations.add(new Station(i + 1, config.getNumberOfChannels(), numberOfReservations));
+        }
+    }
+
+    // Save the state of the run to a checkpoint file, to resume it later with restore
+    public void checkpoint(Path path) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            writeTo(out);
+        }
+    }
+
+    // Restore a run from a checkpoint file, to continue it under the given scenario, which may
+    // change the FCA scheme or the number of calls but not the stations and their channels
+    public static Simulator restore(Path path, ScenarioConfig config) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            return readFrom(in, config);
+        }
+    }
+
+    // Save the state of the run: the random number streams, the clock and counters, the
+    // channels of the stations, the pending events and the statistics collected so far
+    public void writeTo(DataOutput out) throws IOException {
+        if (!started) {
+            initialize();
+        }
+        out.writeInt(CHECKPOINT_MAGIC);
+        out.writeInt(CHECKPOINT_VERSION);
+        out.writeInt(numberOfStations);
+        out.writeInt(config.getNumberOfChannels());
+        out.writeLong(randomNumberGenerator.getSeed());
+        out.writeBoolean(randomNumberGenerator.isAntithetic());
+        randomNumberGenerator.writeTo(out);
+
+        out.writeDouble(clock);
+        out.writeInt(generatedCalls);
+        out.writeInt(numCallsBlocked);
+        out.writeInt(numberOfDroppedCalls);
+        out.writeLong(numberOfEvents);
+        for (Station station : stations) {
+            out.writeInt(station.getnumAvailChannels());
+        }
+
+        int[] pendingEvents = getPendingEvents();
+        out.writeInt(pendingEvents.length);
+        for (int event : pendingEvents) {
+            Direction carDirection = events.getCarDirection(event);
+            out.writeInt(events.getType(event));
+            out.writeDouble(events.getTime(event));
+            out.writeInt(events.getStation(event));
+            out.writeInt(events.getSegment(event));
+            out.writeDouble(events.getCarSpeed(event));
+            out.writeDouble(events.getCarPos(event));
+            out.writeDouble(events.getCallDuration(event));
+            out.writeByte(carDirection != null ? carDirection.ordinal() : -1);
+        }
+
+        trace.writeTo(out);
+        out.writeBoolean(outcomes != null);
+        if (outcomes != null) {
+            outcomes.writeTo(out, generatedCalls);
+        }
+        out.writeBoolean(metrics != null);
+        if (metrics != null) {
+            metrics.writeTo(out);
+        }
+    }
+
+    // Restore a run saved by writeTo, to continue it under the given scenario
+    public static Simulator readFrom(DataInput in, ScenarioConfig config) throws IOException {
+        if (in.readInt() != CHECKPOINT_MAGIC || in.readInt() != CHECKPOINT_VERSION) {
+            throw new IOException("Not a checkpoint of this version of the simulator");
+        }
+        checkStations(in.readInt(), in.readInt(), config);
+        long seed = in.readLong();
+        if (in.readBoolean() != config.isAntithetic()) {
+            throw new IllegalArgumentException("The checkpoint and the scenario differ in "
+                    + ScenarioConfig.ANTITHETIC);
+        }
+        Simulator simulator = new Simulator(config, seed);
+        simulator.restoreState(in);
+        return simulator;
+    }
+
+    // Check that a scenario has the stations and channels of a saved run
+    private static void checkStations(int savedStations, int savedChannels, ScenarioConfig config) {
+        if (savedStations != config.getNumberOfStations() || savedChannels != config.getNumberOfChannels()) {
+            throw new IllegalArgumentException("The saved run has " + savedStations + " stations of "
+                    + savedChannels + " channels, the scenario " + config.getNumberOfStations() + " stations of "
+                    + config.getNumberOfChannels() + " channels");
+        }
+    }
+
+    // Fork the run into a new simulator continuing it under the given scenario, which may change the
+    // FCA scheme, the load or the number of calls but not the stations and their channels. The fork
+    // copies the clock, counters, stations, pending events and statistics, and draws the next calls
+    // from the random numbers of the given seed, so forks with the same seed share their random
+    // numbers. Forks can be taken from several threads, but not while this simulator runs, and the
+    // handlers of custom event types must be registered again on each fork
+    public synchronized Simulator fork(ScenarioConfig config, long seed) {
+        checkStations(numberOfStations, this.config.getNumberOfChannels(), config);
+        if (generatedCalls > config.getTotalCalls()) {
+            throw new IllegalArgumentException("The run is after " + generatedCalls + " calls, more than the "
+                    + config.getTotalCalls() + " calls of the scenario");
+        }
+        if (!started) {
+            initialize();
+        }
+        Simulator fork = new Simulator(config, seed);
+        fork.clock = clock;
+        fork.generatedCalls = generatedCalls;
+        fork.numCallsBlocked = numCallsBlocked;
+        fork.numberOfDroppedCalls = numberOfDroppedCalls;
+        fork.numberOfEvents = numberOfEvents;
+        // The fork publishes only the events it handles itself
+        fork.publishedEvents = numberOfEvents;
+        for (Station station : stations) {
+            fork.stations.add(new Station(station.getStationId(), station.getnumAvailChannels(),
+                    fork.numberOfReservations));
+        }
+
+        // The copied store keeps every event in its slot, so the fork schedules the same indices
+        fork.events = events.copy();
+        for (int event : getPendingEvents()) {
+            fork.scheduleEvent(event);
+        }
+
+        fork.trace = trace.copy(getTraceCapacity(config));
+        if (fork.outcomes != null) {
+            if (outcomes == null) {
+                throw new IllegalArgumentException("The run does not record the call outcomes needed by "
+                        + ScenarioConfig.ESTIMATION + " or " + ScenarioConfig.WARMUP_DETECTION);
+            }
+            fork.outcomes = outcomes.copy(fork.totalCalls);
+            if (fork.detectWarmUp) {
+                fork.redetectWarmUp();
+            }
+        }
+        if (fork.metrics != null) {
+            if (metrics == null) {
+                throw new IllegalArgumentException("The run does not collect the " + ScenarioConfig.METRICS);
+            }
+            fork.metrics = metrics.copy();
+        }
+
+        // Move a replayed trace past the calls already generated
+        if (fork.callSource instanceof TraceCallSource) {
+            ((TraceCallSource) fork.callSource).skip(generatedCalls);
+        }
+        fork.started = true;
+        return fork;
+    }
+
+    // Get the pending events in time order, leaving them in the FEL
+    private int[] getPendingEvents() {
+        int[] pendingEvents = new int[fel.size()];
+        for (int i = 0; i < pendingEvents.length; i++) {
+            pendingEvents[i] = fel.remove();
+        }
+        for (int event : pendingEvents) {
+            scheduleEvent(event);
+        }
+        return pendingEvents;
+    }
+
+    // Restore the state after the header of a checkpoint
+    private void restoreState(DataInput in) throws IOException {
+        randomNumberGenerator.readFrom(in);
+        clock = in.readDouble();
+        generatedCalls = in.readInt();
+        numCallsBlocked = in.readInt();
+        numberOfDroppedCalls = in.readInt();
+        numberOfEvents = in.readLong();
+        // Publish only the events handled after the restore
+        publishedEvents = numberOfEvents;
+        if (generatedCalls > totalCalls) {
+            throw new IllegalArgumentException("The checkpoint is after " + generatedCalls + " calls, more than the "
+                    + totalCalls + " calls of the scenario");
+        }
+        createStations();
+        for (Station station : stations) {
+            int numAvailChannels = in.readInt();
+            while (station.getnumAvailChannels() > numAvailChannels) {
+                station.acquireAnAvailableChannel();
+            }
+        }
+
+        int numberOfPendingEvents = in.readInt();
+        for (int i = 0; i < numberOfPendingEvents; i++) {
+            int type = in.readInt();
+            double time = in.readDouble();
+            int station = in.readInt();
+            int segment = in.readInt();
+            double carSpeed = in.readDouble();
+            double carPosition = in.readDouble();
+            double callDuration = in.readDouble();
+            byte direction = in.readByte();
+            scheduleEvent(events.allocate(type, time, station, segment, carSpeed, carPosition, callDuration,
+                    direction >= 0 ? Direction.values()[direction] : null));
+        }
+
+        trace.readFrom(in);
+        if (in.readBoolean() != (outcomes != null)) {
+            throw new IllegalArgumentException("The checkpoint and the scenario differ in "
+                    + ScenarioConfig.ESTIMATION + " or " + ScenarioConfig.WARMUP_DETECTION);
+        }
+        if (outcomes != null) {
+            outcomes.readFrom(in);
+            if (detectWarmUp) {
+                redetectWarmUp();
+            }
+        }
+        if (in.readBoolean() != (metrics != null)) {
+            throw new IllegalArgumentException("The checkpoint and the scenario differ in "
+                    + ScenarioConfig.METRICS);
+        }
+        if (metrics != null) {
+            metrics.readFrom(in);
+        }
+
+        // Move a replayed trace past the calls already generated
+        if (callSource instanceof TraceCallSource) {
+            ((TraceCallSource) callSource).skip(generatedCalls);
+        }
+        started = true;
     }
 
-    // Generate statistics report
-    public void generateStatisticsReport() {
-        int totalNumberOfCalls = TOT_CALLS - NUM_WARMUP_CALLS;
-        BigDecimal blockedCallsRate = BigDecimal.valueOf(numCallsBlocked).multiply(BigDecimal.valueOf(100))
-                .divide(BigDecimal.valueOf(totalNumberOfCalls), SCALE, RoundingMode.HALF_UP);
-        BigDecimal droppedCallsRate = BigDecimal.valueOf(numberOfDroppedCalls).multiply(BigDecimal.valueOf(100))
-                .divide(BigDecimal.valueOf(totalNumberOfCalls), SCALE, RoundingMode.HALF_UP);
+    // Search the end of the warm up period with MSER-5 on the calls so far, and once it is found count
+    // only the calls after it and end the run when the calls to measure are generated
+    private void detectWarmUp(int calls) {
+        // The bin of the last call still collects the calls dropped until the next call is generated
+        int truncationBin = WarmUpDetector.detectTruncationBin(outcomes, calls / CALLS_PER_OUTCOME_BIN - 1);
+        if (truncationBin < 0) {
+            return;
+        }
+        warmUpDetected = true;
+        countAfterWarmUp(truncationBin);
+        // Never past the calls of the scenario, nor before the calls already generated
+        totalCalls = Math.min(totalCalls, Math.max(generatedCalls, warmUpCalls + measuredCalls));
+        outcomes = outcomes.copy(totalCalls);
+    }
+
+    // Search the end of the warm up period again at every search up to the calls already generated, as
+    // the run did, after the outcomes of a restored or forked run are set
+    private void redetectWarmUp() {
+        for (int calls = WARMUP_DETECTION_CALLS; calls <= generatedCalls && !warmUpDetected;
+                calls += WARMUP_DETECTION_CALLS) {
+            detectWarmUp(calls);
+        }
+    }
+
+    // Count only the calls after the given number of outcome bins, the warm up period
+    private void countAfterWarmUp(int truncationBin) {
+        warmUpCalls = truncationBin * CALLS_PER_OUTCOME_BIN;
+        numCallsBlocked = 0;
+        numberOfDroppedCalls = 0;
+        for (int bin = truncationBin; bin < outcomes.getNumberOfBins(); bin++) {
+            numCallsBlocked += outcomes.getBlockedCalls(bin);
+            numberOfDroppedCalls += outcomes.getDroppedCalls(bin);
+        }
+    }
+
+    // Open the event log of the run, named after its scenario and seed, keeping the records of the
+    // events already handled when the run is continued after runUntil or a restore
+    private EventLog openEventLog() {
+        String name = "events-" + config.getNumberOfChannels() + "-" + numberOfReservations + "-"
+                + randomNumberGenerator.getSeed() + (config.isAntithetic() ? "-antithetic" : "") + ".bin";
+        try {
+            return new EventLog(Paths.get(config.getEventLog()).resolve(name), numberOfEvents);
+        } catch (IOException ioe) {
+            throw new UncheckedIOException("Cannot open the event log " + name, ioe);
+        }
+    }
+
+    // Flush and close the event log of the run
+    private void closeEventLog() {
+        if (eventLog == null) {
+            return;
+        }
+        try {
+            eventLog.close();
+        } catch (IOException ioe) {
+            throw new UncheckedIOException("Cannot write the event log", ioe);
+        } finally {
+            eventLog = null;
+        }
+    }
+
+    // Set the monitor to publish the progress of the run to, before starting it
+    public void setProgressMonitor(ProgressMonitor progress) {
+        this.progress = progress;
+    }
+
+    // Publish the events handled and the change in the FEL size since the last update to the progress monitor
+    private void publishProgress() {
+        int felSize = fel.size();
+        progress.update(numberOfEvents - publishedEvents, felSize - publishedFelSize);
+        publishedEvents = numberOfEvents;
+        publishedFelSize = felSize;
+    }
+
+    // Register the handling routine of a custom event type
+    public void registerHandler(int type, EventHandler handler) {
+        if (type < Event.FIRST_CUSTOM_TYPE) {
+            throw new IllegalArgumentException("Type code " + type + " is reserved for call events");
+        }
+        if (type >= handlers.length) {
+            handlers = Arrays.copyOf(handlers, type + 1);
+        }
+        handlers[type] = handler;
+    }
+
+    // Schedule a custom event at the given time and station index, its slot has
+    // no car (the car fields read from the event store are cleared)
+    public int scheduleEvent(int type, double time, int station) {
+        if (type < Event.FIRST_CUSTOM_TYPE || type >= handlers.length || handlers[type] == null) {
+            throw new IllegalArgumentException("No handler registered for type code " + type);
+        }
+        int event = events.allocate(type, time, station);
+        scheduleEvent(event);
+        return event;
+    }
+
+    // Get the event store
+    public EventStore getEventStore() {
+        return events;
+    }
+
+    // Get the station at the given index
+    public Station getStation(int station) {
+        return stations.get(station);
+    }
+
+    // Get the scenario of the simulation
+    public ScenarioConfig getConfig() {
+        return config;
+    }
+
+    // Get the simulation clock
+    public double getClock() {
+        return clock;
+    }
+
+    // Get the per-station metrics of the run, null when they are not collected
+    public StationMetrics getStationMetrics() {
+        return metrics;
+    }
+
+    // Get the number of generated calls
+    public int getGeneratedCalls() {
+        return generatedCalls;
+    }
+
+    // Get the number of handled events
+    public long getNumberOfEvents() {
+        return numberOfEvents;
+    }
+
+    // Get the trace of the blocked and dropped calls rates
+    public ConvergenceTrace getTrace() {
+        return trace;
+    }
+
+    // Get the batch means estimate of the run, after the warm up period
+    public BatchMeans getBatchMeans() {
+        if (outcomes == null) {
+            throw new IllegalStateException("The call outcomes are only recorded in batch means mode");
+        }
+        int firstBin = (warmUpCalls + CALLS_PER_OUTCOME_BIN - 1) / CALLS_PER_OUTCOME_BIN;
+        return new BatchMeans(outcomes, firstBin, config.getConfidenceLevel());
+    }
+
+    // Get the result of the simulation run
+    public ReplicationResult getResult() {
+        return new ReplicationResult(numberOfReservations, randomNumberGenerator.getSeed(),
+                totalCalls - warmUpCalls, numCallsBlocked, numberOfDroppedCalls);
+    }
+
+    // Generate statistics report, and write the result to the results sink
+    public void generateStatisticsReport(ResultsSink sink) {
+        ReplicationResult result = getResult();
+        int totalNumberOfCalls = result.getTotalNumberOfCalls();
+        BigDecimal blockedCallsRate = result.getBlockedCallsRate();
+        BigDecimal droppedCallsRate = result.getDroppedCallsRate();
 
         // Print statistics
         System.out.println("FCA Scheme: "
                 + (numberOfReservations > 0 ? "HANDOVER RESERVATION " + numberOfReservations : "NO RESERVATION"));
-        System.out.println("Number of Warm Up Calls: " + NUM_WARMUP_CALLS);
+        System.out.println("Seed: " + result.getSeed());
+        System.out.println("Number of Warm Up Calls: " + warmUpCalls);
         System.out.println("Total number of Calls (after Warm Up period): " + totalNumberOfCalls);
         System.out.println("Number of Blocked Calls: " + numCallsBlocked);
         System.out.println("Number of Dropped Calls: " + numberOfDroppedCalls);
         System.out.println("Blocked Calls Rate (%): " + blockedCallsRate);
         System.out.println("Dropped Calls Rate (%): " + droppedCallsRate);
 
-        // Write the statistics to output file
+        // Write the statistics, and the changes in blocked calls and
+        // dropped calls rate over the number of calls when requested
         try {
-            String filePath = System.getProperty("user.dir") + "/" + OUTPUT_FILE;
-            FileWriter writer = new FileWriter(filePath, true);
-
-            // Uncomment the section below to output the changes in
-            // blocked calls and dropped calls rate over the number of calls
-            // (need to uncomment "import Collectors" above)
-
-            // for (List<String> statistic : statistics) {
-            // String collect = statistic.stream().collect(Collectors.joining(","));
-            // writer.write(collect);
-            // writer.write("\n");
-            // }
-            // writer.close();
-
-            writer.write(Integer.toString(numberOfReservations) + ',');
-            writer.write(blockedCallsRate.toString() + ',' + droppedCallsRate.toString());
-            writer.write("\n");
-            writer.close();
+            if (config.isOutputTrace()) {
+                sink.writeTrace(result, trace);
+            }
+            sink.writeResults(Collections.singletonList(result));
         } catch (IOException ioe) {
             ioe.printStackTrace();
         }
     }
 
-    // Event handling routine
-    private void handleEvent() {
+    // Event handling routine, until the given number of calls is generated
+    private void handleEvent(int calls) {
         // Handle events from FEL
-        while (!fel.isEmpty()) {
+        while (!fel.isEmpty() && generatedCalls < calls) {
             // Get the event from FEL
-            Event event = fel.remove();
+            int event = fel.remove();
             // Clock synchronization
-            clock = event.getTime();
+            clock = events.getTime(event);
             // System.out.println(clock);
-            // Handle each type of event
-            if (event instanceof CallInitiationEvent) {
-                handleCallInitiationEvent((CallInitiationEvent) event);
-            } else if (event instanceof CallHandoverEvent) {
-                handleCallHandoverEvent((CallHandoverEvent) event);
-            } else if (event instanceof CallTerminationEvent) {
-                handleCallTerminationEvent((CallTerminationEvent) event);
+            // Handle each type of event, dispatching on its type code
+            // with the registered handlers for the custom event types
+            int type = events.getType(event);
+            switch (type) {
+            case Event.CALL_INITIATION:
+                handleCallInitiationEvent(event);
+                break;
+            case Event.CALL_HANDOVER:
+                handleCallHandoverEvent(event);
+                break;
+            case Event.CALL_TERMINATION:
+                handleCallTerminationEvent(event);
+                break;
+            default:
+                handlers[type].handle(event);
+                if (eventLog != null) {
+                    eventLog.record(type, clock, events.getStation(event) + 1, EventLog.NONE);
+                }
+                break;
+            }
+            // Recycle the slot of the handled event
+            events.free(event);
+            numberOfEvents++;
+            // Publish the progress every few thousand events
+            if (progress != null && numberOfEvents - publishedEvents >= ProgressMonitor.EVENTS_PER_UPDATE) {
+                publishProgress();
             }
 
             // Reset after the warm up period
-            if (generatedCalls == NUM_WARMUP_CALLS) {
+            if (generatedCalls == warmUpCalls) {
                 numCallsBlocked = 0;
                 numberOfDroppedCalls = 0;
+                if (metrics != null) {
+                    metrics.reset(clock);
+                }
             }
         }
     }
 
     // Handle CallInitiationEvent
-    private void handleCallInitiationEvent(CallInitiationEvent event) {
+    private void handleCallInitiationEvent(int event) {
         // Clock synchronization
-        clock = event.getTime();
+        clock = events.getTime(event);
         // Get current station
-        Station currStation = event.getcurrStation();
+        int station = events.getStation(event);
+        Station currStation = stations.get(station);
+        // Get the segment of the road of the car in the station
+        int segment = events.getSegment(event);
         // Get car speed
-        double carSpeed = event.getCarSpeed();
+        double carSpeed = events.getCarSpeed(event);
         // Get car position
-        double carPosition = event.getCarPos();
+        double carPosition = events.getCarPos(event);
         // Get call duration
-        double callDuration = event.getCallDuration();
+        double callDuration = events.getCallDuration(event);
         // Get car direction
-        Direction carDirection = event.getCarDirection();
+        Direction carDirection = events.getCarDirection(event);
+
+        if (metrics != null) {
+            metrics.recordOffered(station, clock);
+        }
 
-        // Check for an available channel for Call Initiation event
-        int numAvailChannels = currStation.getnumAvailChannels();
         /*
          * The Call Initiation event is blocked if: the number of available channels
          * less than or equal to reserved channels
          */
-        if (numAvailChannels <= currStation.getNumReserved()) {
+        if (currStation.blocksNewCall()) {
             // Increase the number of blocked calls
             numCallsBlocked++;
+            if (outcomes != null) {
+                outcomes.recordBlocked(generatedCalls);
+            }
+            if (eventLog != null) {
+                eventLog.record(Event.CALL_INITIATION, clock, currStation.getStationId(), EventLog.BLOCKED);
+            }
+            if (metrics != null) {
+                metrics.recordBlocked(station, clock);
+            }
         } else {
             // Acquire an available channel
             currStation.acquireAnAvailableChannel();
-
-            // Get the station id
-            int stationId = currStation.getStationId();
-            // Calculate distance to next station (km)
-            double distanceToNextStation = 2 - carPosition;
-            // Calculate time to next station (sec)
-            double timeToNextStation = (distanceToNextStation / carSpeed) * 3600;
-
-            // Initialize next event
-            Event nextEvent;
-            // Create Call Termination event if:
-            // 1. call duration is less than or equal to the time to next station
-            if (callDuration <= timeToNextStation) {
-                // Calculate termination time
-                double terminationTime = clock + callDuration;
-                // Create a Call Termination event
-                nextEvent = new CallTerminationEvent(terminationTime, currStation);
+            if (eventLog != null) {
+                eventLog.record(Event.CALL_INITIATION, clock, currStation.getStationId(), EventLog.ACCEPTED);
             }
-            // 2. call is in the last station, depending on the direction of the car
-            else if ((carDirection == Direction.TO_20TH_STATION && stationId == 20)
-                    || (carDirection == Direction.TO_1ST_STATION && stationId == 1)) {
-                // Calculate termination time
-                double terminationTime = clock + timeToNextStation;
-                // Create a Call Termination event
-                nextEvent = new CallTerminationEvent(terminationTime, currStation);
-            }
-            // create Call Handover event otherwise
-            else {
-                // Calculate Handover time
-                double handoverTime = clock + timeToNextStation;
-                // Calculate call remaining duration
-                double callRemainingDuration = callDuration - timeToNextStation;
-                // Create a Call Handover event
-                nextEvent = new CallHandoverEvent(handoverTime, currStation, carSpeed, callRemainingDuration,
-                        carDirection);
+            if (metrics != null) {
+                metrics.acquireChannel(station, clock);
             }
 
-            // Add the next event to FEL
-            fel.add(nextEvent);
+            // Calculate distance to next station (km), the position is drawn over the cell length
+            // and scaled to the length of the segment
+            double distanceToNextStation = (cellLength - carPosition) * (topology.getLength(segment) / cellLength);
+            // Add the termination or handover of the call to FEL
+            scheduleEvent(allocateNextEvent(events, topology, clock, segment, distanceToNextStation, carSpeed,
+                    callDuration, carDirection));
+        }
+
+        // Search the end of the warm up period every few thousand calls until it is found
+        if (detectWarmUp && !warmUpDetected && generatedCalls % WARMUP_DETECTION_CALLS == 0) {
+            detectWarmUp(generatedCalls);
         }
 
-        if (generatedCalls < TOT_CALLS) {
-            Event nextCallInitiation = generateInitiationEvent();
+        if (generatedCalls < totalCalls) {
+            int nextCallInitiation = generateInitiationEvent();
             // Add the new initiation event to FEL
-            fel.add(nextCallInitiation);
+            scheduleEvent(nextCallInitiation);
             // Calculate statistics again
             calcStats();
         }
     }
 
     // Handle CallHandoverEvent
-    private void handleCallHandoverEvent(CallHandoverEvent event) {
+    private void handleCallHandoverEvent(int event) {
         // Clock synchronization
-        clock = event.getTime();
+        clock = events.getTime(event);
         // Get current station
-        Station currStation = event.getcurrStation();
+        int station = events.getStation(event);
+        Station currStation = stations.get(station);
         // Get car speed
-        double carSpeed = event.getCarSpeed();
+        double carSpeed = events.getCarSpeed(event);
         // Get call duration
-        double callDuration = event.getCallDuration();
+        double callDuration = events.getCallDuration(event);
         // Get car direction
-        Direction carDirection = event.getCarDirection();
+        Direction carDirection = events.getCarDirection(event);
 
         // Release the previously acquired channel
         currStation.releaseAnAcquiredChannel();
-        // Update the current station
-        if (carDirection == Direction.TO_20TH_STATION) {
-            currStation = stations.get(currStation.getStationId());
-        } else {
-            currStation = stations.get(currStation.getStationId() - 2);
+        if (metrics != null) {
+            metrics.releaseChannel(station, clock);
+            metrics.recordHandoverOut(station);
         }
+        // Update the current station, the next one along the road of the car
+        int segment = topology.getNextSegment(events.getSegment(event), carDirection);
+        station = topology.getCell(segment);
+        currStation = stations.get(station);
 
-        // Check for an available channel for Call Initiation event
-        int numAvailChannels = currStation.getnumAvailChannels();
         // The Call Handover event is dropped if there is no available channel
         // regardless of the FCA scheme
-        if (numAvailChannels == 0) {
+        if (currStation.dropsHandover()) {
             // Increase the number of dropped calls
             numberOfDroppedCalls++;
+            if (outcomes != null) {
+                outcomes.recordDropped(generatedCalls);
+            }
+            if (eventLog != null) {
+                eventLog.record(Event.CALL_HANDOVER, clock, currStation.getStationId(), EventLog.DROPPED);
+            }
+            if (metrics != null) {
+                metrics.recordDropped(station, clock);
+            }
             // Exit the handling function
             return;
         } else {
             // Acquire an available channel
             currStation.acquireAnAvailableChannel();
+            if (eventLog != null) {
+                eventLog.record(Event.CALL_HANDOVER, clock, currStation.getStationId(), EventLog.HANDED_OVER);
+            }
+            if (metrics != null) {
+                metrics.acquireChannel(station, clock);
+                metrics.recordHandoverIn(station);
+            }
         }
 
-        // Get the station id
-        int stationId = currStation.getStationId();
-        // Distance to the next station in a handover event is alwyas 2 km
-        double distanceToNextStation = 2;
+        // Add the termination or handover of the call to FEL, the distance to the next station in
+        // a handover event is always the segment length
+        scheduleEvent(allocateNextEvent(events, topology, clock, segment, topology.getLength(segment), carSpeed,
+                callDuration, carDirection));
+    }
+
+    // Allocate the next event of a call that acquired a channel in a road segment, at the given distance (km)
+    // from the next station: its termination if it ends before, or at the end of its road, its handover otherwise
+    static int allocateNextEvent(EventStore events, Topology topology, double clock, int segment,
+            double distanceToNextStation, double carSpeed, double callDuration, Direction carDirection) {
+        int station = topology.getCell(segment);
         // Calculate time to next station (sec)
         double timeToNextStation = (distanceToNextStation / carSpeed) * 3600;
 
-        // Initialize next event
-        Event nextEvent;
         // Create Call Termination event if:
         // 1. call duration is less than or equal to the time to next station
         if (callDuration <= timeToNextStation) {
             // Calculate termination time
             double terminationTime = clock + callDuration;
             // Create a Call Termination event
-            nextEvent = new CallTerminationEvent(terminationTime, currStation);
+            return events.allocate(Event.CALL_TERMINATION, terminationTime, station);
         }
-        // 2. call is in the last station, depending on the direction of the car
-        else if ((carDirection == Direction.TO_20TH_STATION && stationId == 20)
-                || (carDirection == Direction.TO_1ST_STATION && stationId == 1)) {
+        // 2. call is in the last station of its road, depending on the direction of the car
+        if (topology.getNextSegment(segment, carDirection) < 0) {
             // Calculate termination time
             double terminationTime = clock + timeToNextStation;
             // Create a Call Termination event
-            nextEvent = new CallTerminationEvent(terminationTime, currStation);
+            return events.allocate(Event.CALL_TERMINATION, terminationTime, station);
         }
         // create Call Handover event otherwise
-        else {
-            // Calculate Handover time
-            double handoverTime = clock + timeToNextStation;
-            // Calculate call remaining duration
-            double callRemainingDuration = callDuration - timeToNextStation;
-            // Create a Call Handover event
-            nextEvent = new CallHandoverEvent(handoverTime, currStation, carSpeed, callRemainingDuration, carDirection);
-        }
-
-        // Add the next event to FEL
-        fel.add(nextEvent);
+        // Calculate Handover time
+        double handoverTime = clock + timeToNextStation;
+        // Calculate call remaining duration
+        double callRemainingDuration = callDuration - timeToNextStation;
+        // Create a Call Handover event
+        return events.allocate(Event.CALL_HANDOVER, handoverTime, station, segment, carSpeed, 0,
+                callRemainingDuration, carDirection);
     }
 
     // Handle CallTerminationEvent
-    private void handleCallTerminationEvent(CallTerminationEvent event) {
+    private void handleCallTerminationEvent(int event) {
         // Clock synchronization
-        clock = event.getTime();
+        clock = events.getTime(event);
         // Get current station
-        Station currStation = event.getcurrStation();
+        int station = events.getStation(event);
+        Station currStation = stations.get(station);
         // Release the previously acquired channel
         currStation.releaseAnAcquiredChannel();
+        if (metrics != null) {
+            metrics.releaseChannel(station, clock);
+        }
+        if (eventLog != null) {
+            eventLog.record(Event.CALL_TERMINATION, clock, currStation.getStationId(), EventLog.COMPLETED);
+        }
+    }
+
+    // Add an event to FEL
+    private void scheduleEvent(int event) {
+        fel.add(events.getTime(event), event);
     }
 
     // Generate a Call Initiation event
-    private CallInitiationEvent generateInitiationEvent() {
+    private int generateInitiationEvent() {
+        // Move to the next call
+        if (!callSource.nextCall()) {
+            throw new IllegalStateException("The call trace ends after " + generatedCalls + " calls, set "
+                    + ScenarioConfig.TOTAL_CALLS + " to at most its length");
+        }
         // Get the initiation time
-        double time = clock + RandomNumberGenerator.getInterArrivalTime();
+        double time = callSource.getArrivalTime(clock);
         // Get the current station
-        int stationId = RandomNumberGenerator.getBaseStation();
-        Station currStation = stations.get(stationId - 1);
+        int stationId = callSource.getBaseStation();
         // Get the car speed
-        double carSpeed = RandomNumberGenerator.getCarSpeed();
+        double carSpeed = callSource.getCarSpeed();
         // Get the car position
-        double carPosition = RandomNumberGenerator.getCarPos();
+        double carPosition = callSource.getCarPos();
         // Get the call duration
-        double callDuration = RandomNumberGenerator.getCallDuration();
+        double callDuration = callSource.getCallDuration();
         // Get the car direction
-        Direction carDirection = RandomNumberGenerator.getCarDirection();
+        Direction carDirection = callSource.getCarDirection();
+        // Get the road of the car, one of the roads crossing the station at a junction
+        int station = stationId - 1;
+        int numberOfRoads = topology.getNumberOfSegments(station);
+        int segment = topology.getSegment(station,
+                numberOfRoads > 1 ? randomNumberGenerator.getRoad(numberOfRoads) : 0);
 
         // Generate the first call initiation event
-        CallInitiationEvent event = new CallInitiationEvent(time, currStation, carSpeed, carPosition, callDuration,
-                carDirection);
+        int event = events.allocate(Event.CALL_INITIATION, time, station, segment, carSpeed, carPosition,
+                callDuration, carDirection);
 
         // Increase the number of generated calls
         generatedCalls++;
@@ -317,17 +849,8 @@ public class Simulator {
         return event;
     }
 
-    // Calculate statistic and add to the statistics list
+    // Calculate statistic and add it to the convergence trace
     private void calcStats() {
-        List<String> statistic = new ArrayList<>();
-        BigDecimal blockedCallsRate = BigDecimal.valueOf(numCallsBlocked).divide(BigDecimal.valueOf(generatedCalls),
-                SCALE, RoundingMode.HALF_UP);
-        BigDecimal droppedCallsRate = BigDecimal.valueOf(numberOfDroppedCalls)
-                .divide(BigDecimal.valueOf(generatedCalls), SCALE, RoundingMode.HALF_UP);
-
-        statistic.add(blockedCallsRate.toString());
-        statistic.add(droppedCallsRate.toString());
-
-        statistics.add(statistic);
+        trace.record(generatedCalls, numCallsBlocked, numberOfDroppedCalls);
     }
 }
\ No newline at end of file
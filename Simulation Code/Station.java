@@ -31,6 +31,21 @@ public class Station {
         return numberOfReservations;
     }
 
+    // Set the number of channels reserved for handovers
+    public void setNumReserved(int numberOfReservations) {
+        this.numberOfReservations = numberOfReservations;
+    }
+
+    // Check if a new call is blocked: its available channels are all reserved for handovers
+    public boolean blocksNewCall() {
+        return numAvailChannels <= numberOfReservations;
+    }
+
+    // Check if a handover is dropped: no channel is available, regardless of the FCA scheme
+    public boolean dropsHandover() {
+        return numAvailChannels == 0;
+    }
+
     // Acquire an available channel in the station
     public void acquireAnAvailableChannel() {
         this.numAvailChannels--;
@@ -0,0 +1,317 @@
+package simulation;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * The class {@code StationMetrics} for the per-station counters of a run:
+ * calls offered, blocked and dropped, handovers in and out, and the channel
+ * occupancy as a time-average and as a histogram of the time spent with each
+ * number of busy channels. The counters restart with the statistics after
+ * the warm up period. The run is also cut into windows of simulated time,
+ * whose offered, blocked and dropped calls are kept from the start of the run
+ * to show how the rates evolve. Everything is kept in primitive arrays
+ * indexed by station index, so updating a counter is a single array store
+ */
+public class StationMetrics {
+
+    private int numberOfStations;
+    private int numberOfChannels;
+
+    // Counters after the warm up period
+    private long[] offeredCalls;
+    private long[] blockedCalls;
+    private long[] droppedCalls;
+    private long[] handoversIn;
+    private long[] handoversOut;
+
+    // Channel occupancy, integrated over time since the last change
+    private int[] busyChannels;
+    private double[] lastChange;
+    private double[] busyChannelTime;
+    private double[] occupancyTime;
+    private double start;
+    private double end;
+
+    // Time windows since the start of the run
+    private double windowLength;
+    private int[] windowOfferedCalls;
+    private int[] windowBlockedCalls;
+    private int[] windowDroppedCalls;
+    private int numberOfWindows;
+
+    // Constructor
+    public StationMetrics(int numberOfStations, int numberOfChannels, double windowLength) {
+        this.numberOfStations = numberOfStations;
+        this.numberOfChannels = numberOfChannels;
+        this.offeredCalls = new long[numberOfStations];
+        this.blockedCalls = new long[numberOfStations];
+        this.droppedCalls = new long[numberOfStations];
+        this.handoversIn = new long[numberOfStations];
+        this.handoversOut = new long[numberOfStations];
+        this.busyChannels = new int[numberOfStations];
+        this.lastChange = new double[numberOfStations];
+        this.busyChannelTime = new double[numberOfStations];
+        this.occupancyTime = new double[numberOfStations * (numberOfChannels + 1)];
+        this.start = 0;
+        this.end = 0;
+        this.windowLength = windowLength;
+        this.windowOfferedCalls = new int[16];
+        this.windowBlockedCalls = new int[16];
+        this.windowDroppedCalls = new int[16];
+        this.numberOfWindows = 0;
+    }
+
+    // Count a call initiated at a station
+    public void recordOffered(int station, double clock) {
+        offeredCalls[station]++;
+        int window = window(clock);
+        windowOfferedCalls[window]++;
+    }
+
+    // Count a call blocked at a station
+    public void recordBlocked(int station, double clock) {
+        blockedCalls[station]++;
+        int window = window(clock);
+        windowBlockedCalls[window]++;
+    }
+
+    // Count a call leaving a station for the next one
+    public void recordHandoverOut(int station) {
+        handoversOut[station]++;
+    }
+
+    // Count a call handed over to a station
+    public void recordHandoverIn(int station) {
+        handoversIn[station]++;
+    }
+
+    // Count a call dropped when handed over to a station
+    public void recordDropped(int station, double clock) {
+        droppedCalls[station]++;
+        int window = window(clock);
+        windowDroppedCalls[window]++;
+    }
+
+    // Count a channel acquired at a station
+    public void acquireChannel(int station, double clock) {
+        accumulate(station, clock);
+        busyChannels[station]++;
+    }
+
+    // Count a channel released at a station
+    public void releaseChannel(int station, double clock) {
+        accumulate(station, clock);
+        busyChannels[station]--;
+    }
+
+    // Restart the counters and the occupancy after the warm up period
+    public void reset(double clock) {
+        Arrays.fill(offeredCalls, 0);
+        Arrays.fill(blockedCalls, 0);
+        Arrays.fill(droppedCalls, 0);
+        Arrays.fill(handoversIn, 0);
+        Arrays.fill(handoversOut, 0);
+        Arrays.fill(busyChannelTime, 0);
+        Arrays.fill(occupancyTime, 0);
+        Arrays.fill(lastChange, clock);
+        start = clock;
+        end = clock;
+    }
+
+    // Close the occupancy integrals at the end of the run
+    public void finish(double clock) {
+        for (int station = 0; station < numberOfStations; station++) {
+            accumulate(station, clock);
+        }
+        end = clock;
+    }
+
+    // Get a copy of the counters, the occupancy and the time windows
+    public StationMetrics copy() {
+        StationMetrics copy = new StationMetrics(numberOfStations, numberOfChannels, windowLength);
+        copy.offeredCalls = offeredCalls.clone();
+        copy.blockedCalls = blockedCalls.clone();
+        copy.droppedCalls = droppedCalls.clone();
+        copy.handoversIn = handoversIn.clone();
+        copy.handoversOut = handoversOut.clone();
+        copy.busyChannels = busyChannels.clone();
+        copy.lastChange = lastChange.clone();
+        copy.busyChannelTime = busyChannelTime.clone();
+        copy.occupancyTime = occupancyTime.clone();
+        copy.start = start;
+        copy.end = end;
+        copy.windowOfferedCalls = windowOfferedCalls.clone();
+        copy.windowBlockedCalls = windowBlockedCalls.clone();
+        copy.windowDroppedCalls = windowDroppedCalls.clone();
+        copy.numberOfWindows = numberOfWindows;
+        return copy;
+    }
+
+    // Save the counters, the occupancy and the time windows
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(numberOfStations);
+        out.writeInt(numberOfChannels);
+        for (int station = 0; station < numberOfStations; station++) {
+            out.writeLong(offeredCalls[station]);
+            out.writeLong(blockedCalls[station]);
+            out.writeLong(droppedCalls[station]);
+            out.writeLong(handoversIn[station]);
+            out.writeLong(handoversOut[station]);
+            out.writeInt(busyChannels[station]);
+            out.writeDouble(lastChange[station]);
+            out.writeDouble(busyChannelTime[station]);
+        }
+        for (double time : occupancyTime) {
+            out.writeDouble(time);
+        }
+        out.writeDouble(start);
+        out.writeDouble(end);
+        out.writeDouble(windowLength);
+        out.writeInt(numberOfWindows);
+        for (int window = 0; window < numberOfWindows; window++) {
+            out.writeInt(windowOfferedCalls[window]);
+            out.writeInt(windowBlockedCalls[window]);
+            out.writeInt(windowDroppedCalls[window]);
+        }
+    }
+
+    // Restore the counters, the occupancy and the time windows
+    public void readFrom(DataInput in) throws IOException {
+        if (in.readInt() != numberOfStations || in.readInt() != numberOfChannels) {
+            throw new IOException("The saved metrics are of another number of stations or channels");
+        }
+        for (int station = 0; station < numberOfStations; station++) {
+            offeredCalls[station] = in.readLong();
+            blockedCalls[station] = in.readLong();
+            droppedCalls[station] = in.readLong();
+            handoversIn[station] = in.readLong();
+            handoversOut[station] = in.readLong();
+            busyChannels[station] = in.readInt();
+            lastChange[station] = in.readDouble();
+            busyChannelTime[station] = in.readDouble();
+        }
+        for (int i = 0; i < occupancyTime.length; i++) {
+            occupancyTime[i] = in.readDouble();
+        }
+        start = in.readDouble();
+        end = in.readDouble();
+        if (in.readDouble() != windowLength) {
+            throw new IOException("The saved metrics are of another window length");
+        }
+        int savedWindows = in.readInt();
+        numberOfWindows = 0;
+        growWindows(savedWindows);
+        for (int window = 0; window < savedWindows; window++) {
+            windowOfferedCalls[window] = in.readInt();
+            windowBlockedCalls[window] = in.readInt();
+            windowDroppedCalls[window] = in.readInt();
+        }
+    }
+
+    // Get the number of stations
+    public int getNumberOfStations() {
+        return numberOfStations;
+    }
+
+    // Get the number of channels per station
+    public int getNumberOfChannels() {
+        return numberOfChannels;
+    }
+
+    // Get the number of calls initiated at a station
+    public long getOfferedCalls(int station) {
+        return offeredCalls[station];
+    }
+
+    // Get the number of calls blocked at a station
+    public long getBlockedCalls(int station) {
+        return blockedCalls[station];
+    }
+
+    // Get the number of calls dropped when handed over to a station
+    public long getDroppedCalls(int station) {
+        return droppedCalls[station];
+    }
+
+    // Get the number of calls handed over to a station
+    public long getHandoversIn(int station) {
+        return handoversIn[station];
+    }
+
+    // Get the number of calls leaving a station for the next one
+    public long getHandoversOut(int station) {
+        return handoversOut[station];
+    }
+
+    // Get the simulated time the occupancy was measured over (sec)
+    public double getObservedTime() {
+        return end - start;
+    }
+
+    // Get the time-average number of busy channels of a station
+    public double getMeanOccupancy(int station) {
+        return end > start ? busyChannelTime[station] / (end - start) : 0;
+    }
+
+    // Get the time spent by a station with the given number of busy channels (sec)
+    public double getOccupancyTime(int station, int busyChannels) {
+        return occupancyTime[station * (numberOfChannels + 1) + busyChannels];
+    }
+
+    // Get the length of the time windows (sec)
+    public double getWindowLength() {
+        return windowLength;
+    }
+
+    // Get the number of time windows reached by the run
+    public int getNumberOfWindows() {
+        return numberOfWindows;
+    }
+
+    // Get the number of calls initiated in a time window
+    public int getWindowOfferedCalls(int window) {
+        return windowOfferedCalls[window];
+    }
+
+    // Get the number of calls blocked in a time window
+    public int getWindowBlockedCalls(int window) {
+        return windowBlockedCalls[window];
+    }
+
+    // Get the number of calls dropped in a time window
+    public int getWindowDroppedCalls(int window) {
+        return windowDroppedCalls[window];
+    }
+
+    // Add the occupancy of a station since its last change
+    private void accumulate(int station, double clock) {
+        double elapsed = clock - lastChange[station];
+        int busy = busyChannels[station];
+        busyChannelTime[station] += busy * elapsed;
+        occupancyTime[station * (numberOfChannels + 1) + busy] += elapsed;
+        lastChange[station] = clock;
+    }
+
+    // Get the time window of a time, growing the windows when it is a new one
+    private int window(double clock) {
+        int window = (int) (clock / windowLength);
+        if (window >= numberOfWindows) {
+            growWindows(window + 1);
+        }
+        return window;
+    }
+
+    // Grow the time windows to the given number of windows
+    private void growWindows(int windows) {
+        if (windows > windowOfferedCalls.length) {
+            int capacity = Math.max(windows, windowOfferedCalls.length * 2);
+            windowOfferedCalls = Arrays.copyOf(windowOfferedCalls, capacity);
+            windowBlockedCalls = Arrays.copyOf(windowBlockedCalls, capacity);
+            windowDroppedCalls = Arrays.copyOf(windowDroppedCalls, capacity);
+        }
+        numberOfWindows = windows;
+    }
+}
\ No newline at end of file
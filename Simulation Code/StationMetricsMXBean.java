@@ -0,0 +1,48 @@
+package simulation;
+
+/**
+ * The interface {@code StationMetricsMXBean} for the per-station metrics
+ * merged over the replications, as published through JMX. The arrays are
+ * indexed by station index (station id - 1) or by time window
+ */
+public interface StationMetricsMXBean {
+
+    // Get the number of merged replications
+    public long getReplications();
+
+    // Get the number of calls initiated at each station
+    public long[] getOfferedCalls();
+
+    // Get the number of calls blocked at each station
+    public long[] getBlockedCalls();
+
+    // Get the number of calls dropped when handed over to each station
+    public long[] getDroppedCalls();
+
+    // Get the number of calls handed over to each station
+    public long[] getHandoversIn();
+
+    // Get the number of calls leaving each station for the next one
+    public long[] getHandoversOut();
+
+    // Get the blocked calls rate of each station, over its offered calls (%)
+    public double[] getBlockedCallsRates();
+
+    // Get the dropped calls rate of each station, over the handovers to it (%)
+    public double[] getDroppedCallsRates();
+
+    // Get the time-average number of busy channels of each station
+    public double[] getMeanOccupancy();
+
+    // Get the fraction of time each station spends with each number of busy channels
+    public double[][] getOccupancyDistribution();
+
+    // Get the blocked calls rate of each time window (%)
+    public double[] getWindowBlockedCallsRates();
+
+    // Get the dropped calls rate of each time window (%)
+    public double[] getWindowDroppedCallsRates();
+
+    // Clear the merged metrics
+    public void reset();
+}
\ No newline at end of file
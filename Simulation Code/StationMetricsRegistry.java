@@ -0,0 +1,220 @@
+package simulation;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Locale;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * The class {@code StationMetricsRegistry} to merge the per-station metrics
+ * of the replications as they end, so that a study of any number of
+ * replications keeps a single set of counters. The merged metrics can be
+ * published as an MXBean, to watch the cells saturate while a sweep runs
+ */
+public class StationMetricsRegistry implements StationMetricsMXBean {
+
+    public static final String OBJECT_NAME = "simulation:type=StationMetrics";
+
+    private long replications;
+    private long[] offeredCalls;
+    private long[] blockedCalls;
+    private long[] droppedCalls;
+    private long[] handoversIn;
+    private long[] handoversOut;
+    private double[] busyChannelTime;
+    private double[][] occupancyTime;
+    private double observedTime;
+    private long[] windowOfferedCalls;
+    private long[] windowBlockedCalls;
+    private long[] windowDroppedCalls;
+
+    // Constructor
+    public StationMetricsRegistry() {
+        reset();
+    }
+
+    // Publish the merged metrics through the platform MBean server
+    public void register() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(OBJECT_NAME));
+        } catch (JMException jme) {
+            throw new IllegalStateException("Cannot register the station metrics MXBean", jme);
+        }
+    }
+
+    // Merge the metrics of a replication
+    public synchronized void merge(StationMetrics metrics) {
+        int numberOfStations = metrics.getNumberOfStations();
+        int numberOfChannels = metrics.getNumberOfChannels();
+        int numberOfWindows = metrics.getNumberOfWindows();
+        // Grow to the largest scenario merged so far, a sweep varies the channels
+        if (numberOfStations > offeredCalls.length) {
+            offeredCalls = Arrays.copyOf(offeredCalls, numberOfStations);
+            blockedCalls = Arrays.copyOf(blockedCalls, numberOfStations);
+            droppedCalls = Arrays.copyOf(droppedCalls, numberOfStations);
+            handoversIn = Arrays.copyOf(handoversIn, numberOfStations);
+            handoversOut = Arrays.copyOf(handoversOut, numberOfStations);
+            busyChannelTime = Arrays.copyOf(busyChannelTime, numberOfStations);
+            occupancyTime = Arrays.copyOf(occupancyTime, numberOfStations);
+        }
+        if (numberOfWindows > windowOfferedCalls.length) {
+            windowOfferedCalls = Arrays.copyOf(windowOfferedCalls, numberOfWindows);
+            windowBlockedCalls = Arrays.copyOf(windowBlockedCalls, numberOfWindows);
+            windowDroppedCalls = Arrays.copyOf(windowDroppedCalls, numberOfWindows);
+        }
+
+        double time = metrics.getObservedTime();
+        for (int station = 0; station < numberOfStations; station++) {
+            offeredCalls[station] += metrics.getOfferedCalls(station);
+            blockedCalls[station] += metrics.getBlockedCalls(station);
+            droppedCalls[station] += metrics.getDroppedCalls(station);
+            handoversIn[station] += metrics.getHandoversIn(station);
+            handoversOut[station] += metrics.getHandoversOut(station);
+            busyChannelTime[station] += metrics.getMeanOccupancy(station) * time;
+            if (occupancyTime[station] == null) {
+                occupancyTime[station] = new double[numberOfChannels + 1];
+            } else if (occupancyTime[station].length < numberOfChannels + 1) {
+                occupancyTime[station] = Arrays.copyOf(occupancyTime[station], numberOfChannels + 1);
+            }
+            for (int busy = 0; busy <= numberOfChannels; busy++) {
+                occupancyTime[station][busy] += metrics.getOccupancyTime(station, busy);
+            }
+        }
+        observedTime += time;
+        for (int window = 0; window < numberOfWindows; window++) {
+            windowOfferedCalls[window] += metrics.getWindowOfferedCalls(window);
+            windowBlockedCalls[window] += metrics.getWindowBlockedCalls(window);
+            windowDroppedCalls[window] += metrics.getWindowDroppedCalls(window);
+        }
+        replications++;
+    }
+
+    @Override
+    public synchronized long getReplications() {
+        return replications;
+    }
+
+    @Override
+    public synchronized long[] getOfferedCalls() {
+        return offeredCalls.clone();
+    }
+
+    @Override
+    public synchronized long[] getBlockedCalls() {
+        return blockedCalls.clone();
+    }
+
+    @Override
+    public synchronized long[] getDroppedCalls() {
+        return droppedCalls.clone();
+    }
+
+    @Override
+    public synchronized long[] getHandoversIn() {
+        return handoversIn.clone();
+    }
+
+    @Override
+    public synchronized long[] getHandoversOut() {
+        return handoversOut.clone();
+    }
+
+    @Override
+    public synchronized double[] getBlockedCallsRates() {
+        double[] rates = new double[offeredCalls.length];
+        for (int station = 0; station < rates.length; station++) {
+            rates[station] = percent(blockedCalls[station], offeredCalls[station]);
+        }
+        return rates;
+    }
+
+    @Override
+    public synchronized double[] getDroppedCallsRates() {
+        double[] rates = new double[offeredCalls.length];
+        for (int station = 0; station < rates.length; station++) {
+            rates[station] = percent(droppedCalls[station], handoversIn[station] + droppedCalls[station]);
+        }
+        return rates;
+    }
+
+    @Override
+    public synchronized double[] getMeanOccupancy() {
+        double[] occupancy = new double[busyChannelTime.length];
+        for (int station = 0; station < occupancy.length; station++) {
+            occupancy[station] = observedTime > 0 ? busyChannelTime[station] / observedTime : 0;
+        }
+        return occupancy;
+    }
+
+    @Override
+    public synchronized double[][] getOccupancyDistribution() {
+        double[][] distribution = new double[occupancyTime.length][];
+        for (int station = 0; station < distribution.length; station++) {
+            distribution[station] = new double[occupancyTime[station].length];
+            for (int busy = 0; busy < distribution[station].length; busy++) {
+                distribution[station][busy] = observedTime > 0 ? occupancyTime[station][busy] / observedTime : 0;
+            }
+        }
+        return distribution;
+    }
+
+    @Override
+    public synchronized double[] getWindowBlockedCallsRates() {
+        double[] rates = new double[windowOfferedCalls.length];
+        for (int window = 0; window < rates.length; window++) {
+            rates[window] = percent(windowBlockedCalls[window], windowOfferedCalls[window]);
+        }
+        return rates;
+    }
+
+    @Override
+    public synchronized double[] getWindowDroppedCallsRates() {
+        double[] rates = new double[windowOfferedCalls.length];
+        for (int window = 0; window < rates.length; window++) {
+            rates[window] = percent(windowDroppedCalls[window], windowOfferedCalls[window]);
+        }
+        return rates;
+    }
+
+    @Override
+    public synchronized void reset() {
+        replications = 0;
+        offeredCalls = new long[0];
+        blockedCalls = new long[0];
+        droppedCalls = new long[0];
+        handoversIn = new long[0];
+        handoversOut = new long[0];
+        busyChannelTime = new double[0];
+        occupancyTime = new double[0][];
+        observedTime = 0;
+        windowOfferedCalls = new long[0];
+        windowBlockedCalls = new long[0];
+        windowDroppedCalls = new long[0];
+    }
+
+    // Generate the per-station report of the merged metrics
+    public synchronized void generateStatisticsReport() {
+        if (replications == 0) {
+            return;
+        }
+        double[] blockedCallsRates = getBlockedCallsRates();
+        double[] droppedCallsRates = getDroppedCallsRates();
+        double[] meanOccupancy = getMeanOccupancy();
+
+        System.out.println("Station Metrics over " + replications + " Replications (after Warm Up period):");
+        System.out.println(String.format(Locale.ROOT, "%8s %12s %10s %10s %12s %12s %10s", "Station", "Offered",
+                "Blocked %", "Dropped %", "Handover In", "Handover Out", "Occupancy"));
+        for (int station = 0; station < offeredCalls.length; station++) {
+            System.out.println(String.format(Locale.ROOT, "%8d %12d %10.5f %10.5f %12d %12d %10.3f", station + 1,
+                    offeredCalls[station], blockedCallsRates[station], droppedCallsRates[station],
+                    handoversIn[station], handoversOut[station], meanOccupancy[station]));
+        }
+    }
+
+    // Get a count as a percentage of a total
+    private static double percent(long count, long total) {
+        return total > 0 ? 100.0 * count / total : 0;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,104 @@
+package simulation;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The class {@code SweepEngine} to sweep a grid of FCA schemes (numbers of
+ * reserved channels) and channels per station. Replications are allocated in
+ * rounds to the points whose confidence intervals still overlap the QoS
+ * thresholds, and a point stops as soon as it is decided
+ */
+public class SweepEngine {
+
+    private ReplicationRunner runner;
+    private int replicationsPerRound;
+
+    // Constructor
+    public SweepEngine(ReplicationRunner runner, int replicationsPerRound) {
+        this.runner = runner;
+        this.replicationsPerRound = replicationsPerRound;
+    }
+
+    // Run the sweep over the grid of the scenario
+    public List<SweepPoint> run(ScenarioConfig config) {
+        // Create the points of the grid, skipping the schemes reserving every channel
+        int[] channels = config.getSweepChannels() != null ? config.getSweepChannels()
+                : new int[] { config.getNumberOfChannels() };
+        int[] reservations = config.getSweepReservations() != null ? config.getSweepReservations()
+                : new int[] { config.getNumberOfReservations() };
+        List<SweepPoint> points = new ArrayList<>();
+        for (int numberOfChannels : channels) {
+            for (int numberOfReservations : reservations) {
+                if (numberOfReservations >= numberOfChannels) {
+                    continue;
+                }
+                ScenarioConfig pointConfig = config.copy();
+                pointConfig.setNumberOfChannels(numberOfChannels);
+                pointConfig.setNumberOfReservations(numberOfReservations);
+                points.add(new SweepPoint(pointConfig));
+            }
+        }
+
+        int maxReplications = Math.max(config.getReplications(), config.getMinReplications());
+        while (true) {
+            // Allocate the next round to the undecided points with budget left
+            List<ScenarioConfig> scenarios = new ArrayList<>();
+            List<SweepPoint> owners = new ArrayList<>();
+            for (SweepPoint point : points) {
+                long count = point.getBlockedCallsRate().getCount();
+                if (point.getDecision() != SweepPoint.Decision.UNDECIDED || count >= maxReplications) {
+                    continue;
+                }
+                long allocation = Math.min(point.getNeededReplications(), maxReplications - count);
+                if (count >= config.getMinReplications()) {
+                    allocation = Math.min(allocation, replicationsPerRound);
+                }
+                scenarios.addAll(Collections.nCopies((int) allocation, point.getConfig()));
+                owners.addAll(Collections.nCopies((int) allocation, point));
+            }
+            if (scenarios.isEmpty()) {
+                break;
+            }
+
+            // Run the round and update the decisions
+            List<ReplicationResult> results = runner.runAll(scenarios);
+            for (int i = 0; i < results.size(); i++) {
+                owners.get(i).add(results.get(i));
+            }
+            for (SweepPoint point : points) {
+                point.decide();
+            }
+        }
+
+        for (SweepPoint point : points) {
+            point.markUnresolved();
+        }
+        return points;
+    }
+
+    // Generate the report of the sweep, writing its points through the results sink
+    public void generateStatisticsReport(List<SweepPoint> points, ResultsSink sink) {
+        // Print statistics
+        System.out.println("Channels | Reserved | Replications | Blocked Calls Rate (%) | Dropped Calls Rate (%)"
+                + " | QoS");
+        for (SweepPoint point : points) {
+            double confidenceLevel = point.getConfig().getConfidenceLevel();
+            System.out.println(String.format(Locale.ROOT, "%8d | %8d | %12d | %9.5f +/- %7.5f | %9.5f +/- %7.5f | %s",
+                    point.getConfig().getNumberOfChannels(), point.getConfig().getNumberOfReservations(),
+                    point.getBlockedCallsRate().getCount(), point.getBlockedCallsRate().getMean(),
+                    point.getBlockedCallsRate().getHalfWidth(confidenceLevel), point.getDroppedCallsRate().getMean(),
+                    point.getDroppedCallsRate().getHalfWidth(confidenceLevel), point.getDecision()));
+        }
+
+        // Write the statistics of every point through the results sink
+        try {
+            sink.writeSweep(points);
+        } catch (IOException ioe) {
+            ioe.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package simulation;
+
+/**
+ * The class {@code SweepPoint} for one point of a parameter sweep, with the
+ * running statistics of its replications and its QoS decision
+ */
+public class SweepPoint {
+
+    /**
+     * The enum class {@code Decision} for the QoS decision of a sweep point
+     */
+    public enum Decision {
+        UNDECIDED, MEETS_QOS, FAILS_QOS, UNRESOLVED
+    }
+
+    private ScenarioConfig config;
+    private RunningStatistics blockedCallsRate;
+    private RunningStatistics droppedCallsRate;
+    private Decision decision;
+
+    // Constructor
+    public SweepPoint(ScenarioConfig config) {
+        this.config = config;
+        this.blockedCallsRate = new RunningStatistics();
+        this.droppedCallsRate = new RunningStatistics();
+        this.decision = Decision.UNDECIDED;
+    }
+
+    // Add the result of a replication
+    public void add(ReplicationResult result) {
+        blockedCallsRate.add(result.getBlockedCallsRate().doubleValue());
+        droppedCallsRate.add(result.getDroppedCallsRate().doubleValue());
+    }
+
+    // Decide the point once both confidence intervals clear the QoS thresholds
+    public void decide() {
+        if (blockedCallsRate.getCount() < config.getMinReplications()) {
+            return;
+        }
+        double confidenceLevel = config.getConfidenceLevel();
+        double blockedHalfWidth = blockedCallsRate.getHalfWidth(confidenceLevel);
+        double droppedHalfWidth = droppedCallsRate.getHalfWidth(confidenceLevel);
+
+        // Either rate is significantly above its threshold
+        if (blockedCallsRate.getMean() - blockedHalfWidth > config.getBlockedCallsThreshold()
+                || droppedCallsRate.getMean() - droppedHalfWidth > config.getDroppedCallsThreshold()) {
+            decision = Decision.FAILS_QOS;
+        }
+        // Both rates are significantly below their thresholds
+        else if (blockedCallsRate.getMean() + blockedHalfWidth < config.getBlockedCallsThreshold()
+                && droppedCallsRate.getMean() + droppedHalfWidth < config.getDroppedCallsThreshold()) {
+            decision = Decision.MEETS_QOS;
+        }
+    }
+
+    // Get the number of replications still needed to decide the point, estimated
+    // from the distance of the undecided rates to their thresholds
+    public long getNeededReplications() {
+        long count = blockedCallsRate.getCount();
+        if (count < config.getMinReplications()) {
+            return config.getMinReplications() - count;
+        }
+        double z = Quantiles.studentT(1 - (1 - config.getConfidenceLevel()) / 2, (int) (count - 1));
+        double needed = Math.max(neededObservations(blockedCallsRate, config.getBlockedCallsThreshold(), z),
+                neededObservations(droppedCallsRate, config.getDroppedCallsThreshold(), z));
+
+        return Math.max(1, (long) Math.ceil(Math.min(needed, Long.MAX_VALUE / 2)) - count);
+    }
+
+    // Get the number of observations for the interval of a rate to clear its threshold
+    private static double neededObservations(RunningStatistics rate, double threshold, double z) {
+        double distance = Math.abs(rate.getMean() - threshold);
+        if (distance == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double ratio = z * rate.getStandardDeviation() / distance;
+        return ratio * ratio;
+    }
+
+    // Mark a point still undecided when the replication budget is spent
+    public void markUnresolved() {
+        if (decision == Decision.UNDECIDED) {
+            decision = Decision.UNRESOLVED;
+        }
+    }
+
+    // Get the scenario of the point
+    public ScenarioConfig getConfig() {
+        return config;
+    }
+
+    // Get the statistics of the blocked calls rate (%)
+    public RunningStatistics getBlockedCallsRate() {
+        return blockedCallsRate;
+    }
+
+    // Get the statistics of the dropped calls rate (%)
+    public RunningStatistics getDroppedCallsRate() {
+        return droppedCallsRate;
+    }
+
+    // Get the QoS decision
+    public Decision getDecision() {
+        return decision;
+    }
+}
\ No newline at end of file
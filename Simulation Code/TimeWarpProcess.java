@@ -0,0 +1,623 @@
+package simulation;
+
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * The class {@code TimeWarpProcess} to simulate a contiguous range of cells of
+ * the highway optimistically, as one partition of a
+ * {@link TimeWarpSimulator}. The partition handles its events without waiting
+ * for its neighbours and keeps a history of them, each with the counters
+ * before it and the channel changes of the stations it touched (incremental
+ * state saving). A handover from a neighbour in the past of the partition (a
+ * straggler) rolls the partition back to its time: the later events are
+ * undone in reverse, the events they scheduled are cancelled, the handovers
+ * they sent are cancelled by anti-messages, and they are handled again. The
+ * history older than the global virtual time (GVT), which no handover can
+ * precede anymore, is discarded (fossil collection). The partition only runs
+ * ahead of the GVT by the optimism window, which bounds the rollbacks.
+ *
+ * The calls of the partition are sampled in order whatever the rollbacks, so
+ * they are the same as those of a {@link LogicalProcess} with the same seed,
+ * and they are handled with the same channel rules of {@link Station} and
+ * routing of {@link Simulator#allocateNextEvent}
+ */
+public class TimeWarpProcess implements Runnable {
+
+    // A call entering this partition from a neighbour
+    private static final int HANDOVER_ARRIVAL = Event.FIRST_CUSTOM_TYPE;
+    // Number of handled events between two GVT computations requested by a partition
+    private static final int EVENTS_PER_GVT = 1 << 14;
+    // Number of idle rounds before an idle partition requests a GVT computation
+    private static final int IDLE_ROUNDS_PER_GVT = 1 << 10;
+
+    // States of the event slots
+    private static final byte PENDING = 0;
+    private static final byte PROCESSED = 1;
+    private static final byte CANCELLED = 2;
+
+    private TimeWarpSimulator simulator;
+    private int index;
+    private int firstStation;
+    private int lastStation;
+    private Topology topology;
+    private double cellLength;
+    private double optimismWindow;
+    private TimeWarpProcess left;
+    private TimeWarpProcess right;
+
+    private double clock;
+    private FutureEventList fel;
+    private EventStore events;
+    private byte[] states;
+    private Station[] stations;
+    private RandomNumberGenerator randomNumberGenerator;
+
+    // Calls of this partition
+    private long totalCalls;
+    private long warmUpCalls;
+    private long drawnCalls;
+    private double lastArrivalTime;
+
+    // State saved in the history, after the warm up period for the statistics
+    private long initiatedCalls;
+    private long numCallsBlocked;
+    private long numberOfDroppedCalls;
+
+    // History of the handled events since the GVT, in time order
+    private History history;
+    // Record of the event being handled
+    private int changedStation;
+    private int changedStationDelta;
+    private int enteredStation;
+    private int scheduledEvent;
+    private Handover sentHandover;
+
+    // Handovers and anti-messages from the neighbours
+    private Queue<Handover> inbox;
+    private double gvt;
+
+    private long handledEvents;
+    private long rolledBackEvents;
+    private long rollbacks;
+    private long sentHandovers;
+    private long antiMessages;
+
+    // Constructor, for the stations from firstStation to lastStation (indices, inclusive) of the highway
+    public TimeWarpProcess(TimeWarpSimulator simulator, int index, ScenarioConfig config, int firstStation,
+            int lastStation, long totalCalls, long warmUpCalls, long seed) {
+        this.simulator = simulator;
+        this.index = index;
+        this.firstStation = firstStation;
+        this.lastStation = lastStation;
+        this.topology = config.getTopology();
+        this.cellLength = config.getCellLength();
+        this.optimismWindow = config.getOptimismWindow() > 0 ? config.getOptimismWindow() : Double.POSITIVE_INFINITY;
+        this.clock = 0;
+        this.fel = config.createFutureEventList();
+        this.events = new EventStore();
+        this.states = new byte[64];
+        this.stations = new Station[lastStation - firstStation + 1];
+        for (int i = 0; i < stations.length; i++) {
+            stations[i] = new Station(firstStation + i + 1, config.getNumberOfChannels(),
+                    config.getNumberOfReservations());
+        }
+
+        // The partition gets the arrivals of its stations, a Poisson stream with their share of the rate
+        ScenarioConfig partition = config.copy();
+        partition.setNumberOfStations(stations.length);
+        partition.setInterArrivalTimeMean(config.getInterArrivalTimeMean() * config.getNumberOfStations()
+                / stations.length);
+        this.randomNumberGenerator = new RandomNumberGenerator(partition, seed);
+
+        this.totalCalls = totalCalls;
+        this.warmUpCalls = warmUpCalls;
+        this.history = new History();
+        this.inbox = new ConcurrentLinkedQueue<>();
+        this.gvt = 0;
+    }
+
+    // Connect the partition to its neighbours, null at the ends of the highway
+    public void connect(TimeWarpProcess left, TimeWarpProcess right) {
+        this.left = left;
+        this.right = right;
+    }
+
+    // Simulate the partition in its thread
+    @Override
+    public void run() {
+        try {
+            simulate();
+        } catch (RuntimeException | Error e) {
+            simulator.fail(e);
+        } finally {
+            // Nothing is computed anymore, release the neighbours from the barrier
+            simulator.leave();
+        }
+    }
+
+    // Handle the events of the partition optimistically until the GVT shows every call is finished
+    private void simulate() {
+        long eventsSinceGvt = 0;
+        int idleRounds = 0;
+        while (!simulator.isFailed()) {
+            if (simulator.isGvtRequested()) {
+                if (!computeGvt()) {
+                    return;
+                }
+                if (gvt == Double.POSITIVE_INFINITY) {
+                    return;
+                }
+                eventsSinceGvt = 0;
+                idleRounds = 0;
+                continue;
+            }
+
+            receiveHandovers();
+            int event = nextEvent();
+            if (event >= 0 && events.getTime(event) >= gvt + optimismWindow) {
+                // Too far ahead of the slowest partition, wait for the GVT to move on
+                fel.add(events.getTime(event), event);
+                simulator.requestGvt();
+                Thread.yield();
+            } else if (event >= 0) {
+                handleEvent(event);
+                if (++eventsSinceGvt == EVENTS_PER_GVT) {
+                    simulator.requestGvt();
+                }
+            } else {
+                if (++idleRounds == IDLE_ROUNDS_PER_GVT) {
+                    simulator.requestGvt();
+                }
+                Thread.yield();
+            }
+        }
+    }
+
+    // Compute the GVT with the other partitions and discard the history before it, false if the run failed
+    private boolean computeGvt() {
+        // Deliver the messages in transit, and the anti-messages of the rollbacks they cause, until none is left
+        do {
+            if (!simulator.awaitPartitions()) {
+                return false;
+            }
+            if (receiveHandovers()) {
+                simulator.markAntiMessagesSent();
+            }
+            if (!simulator.awaitPartitions()) {
+                return false;
+            }
+        } while (simulator.isAntiMessageRound());
+
+        // No event of any partition can be earlier than the earliest pending one
+        simulator.setLocalMinimum(index, getNextEventTime());
+        if (!simulator.awaitPartitions()) {
+            return false;
+        }
+        gvt = simulator.getGvt();
+        history.discardBefore(gvt);
+        return true;
+    }
+
+    // Move the handovers and anti-messages of the neighbours to the FEL, and get if any rollback sent anti-messages
+    private boolean receiveHandovers() {
+        long sentAntiMessages = antiMessages;
+        Handover handover;
+        while ((handover = inbox.poll()) != null) {
+            if (handover.cancelled != null) {
+                // Cancel the handover, undoing it first if it was handled
+                int event = handover.cancelled.event;
+                if (states[event] == PROCESSED) {
+                    rollback(handover.cancelled.time);
+                }
+                states[event] = CANCELLED;
+                continue;
+            }
+            // A straggler undoes the events after it
+            if (handover.time < clock) {
+                rollback(handover.time);
+            }
+            int event = events.allocate(HANDOVER_ARRIVAL, handover.time, handover.station, handover.carSpeed, 0,
+                    handover.callDuration, handover.carDirection);
+            handover.event = event;
+            schedule(event);
+        }
+        return antiMessages > sentAntiMessages;
+    }
+
+    // Get the next event to handle, sampling the calls arriving before it, or -1 when there is none
+    private int nextEvent() {
+        while (true) {
+            while (drawnCalls < totalCalls && (fel.isEmpty() || lastArrivalTime <= fel.peekTime())) {
+                drawArrival();
+            }
+            if (fel.isEmpty()) {
+                return -1;
+            }
+            int event = fel.remove();
+            if (states[event] != CANCELLED) {
+                return event;
+            }
+            events.free(event);
+            states[event] = PENDING;
+        }
+    }
+
+    // Get the time of the next pending event, infinity when there is none
+    private double getNextEventTime() {
+        int event = nextEvent();
+        if (event < 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        fel.add(events.getTime(event), event);
+        return events.getTime(event);
+    }
+
+    // Handle an event and add it to the history, dispatching on its type code
+    private void handleEvent(int event) {
+        clock = events.getTime(event);
+        long savedInitiatedCalls = initiatedCalls;
+        long savedNumCallsBlocked = numCallsBlocked;
+        long savedNumberOfDroppedCalls = numberOfDroppedCalls;
+        changedStation = -1;
+        enteredStation = -1;
+        scheduledEvent = -1;
+        sentHandover = null;
+
+        switch (events.getType(event)) {
+        case Event.CALL_INITIATION:
+            handleCallInitiationEvent(event);
+            break;
+        case Event.CALL_HANDOVER:
+            handleCallHandoverEvent(event);
+            break;
+        case Event.CALL_TERMINATION:
+            releaseChannel(events.getStation(event));
+            break;
+        default:
+            enterStation(events.getStation(event), events.getCarSpeed(event), events.getCallDuration(event),
+                    events.getCarDirection(event));
+            break;
+        }
+
+        states[event] = PROCESSED;
+        history.add(event, clock, savedInitiatedCalls, savedNumCallsBlocked, savedNumberOfDroppedCalls,
+                changedStation, changedStationDelta, enteredStation, scheduledEvent, sentHandover);
+        handledEvents++;
+    }
+
+    // Handle CallInitiationEvent
+    private void handleCallInitiationEvent(int event) {
+        int station = events.getStation(event);
+        Station currStation = stations[station - firstStation];
+        initiatedCalls++;
+        // Blocked if the number of available channels is less than or equal to the reserved channels
+        if (currStation.blocksNewCall()) {
+            numCallsBlocked++;
+        } else {
+            acquireChannel(station);
+            scheduleNextEvent(station, cellLength - events.getCarPos(event), events.getCarSpeed(event),
+                    events.getCallDuration(event), events.getCarDirection(event));
+        }
+        // Reset after the warm up period
+        if (initiatedCalls == warmUpCalls) {
+            numCallsBlocked = 0;
+            numberOfDroppedCalls = 0;
+        }
+    }
+
+    // Handle CallHandoverEvent, the call leaves its station
+    private void handleCallHandoverEvent(int event) {
+        int station = events.getStation(event);
+        releaseChannel(station);
+        Direction carDirection = events.getCarDirection(event);
+        int nextStation = carDirection == Direction.TO_20TH_STATION ? station + 1 : station - 1;
+        // A call crossing into a neighbour was sent to it when the handover was scheduled
+        if (nextStation >= firstStation && nextStation <= lastStation) {
+            enterStation(nextStation, events.getCarSpeed(event), events.getCallDuration(event), carDirection);
+        }
+    }
+
+    // Hand a call over to a station of this partition, dropped if there is no available channel
+    private void enterStation(int station, double carSpeed, double callDuration, Direction carDirection) {
+        if (stations[station - firstStation].dropsHandover()) {
+            numberOfDroppedCalls++;
+            return;
+        }
+        stations[station - firstStation].acquireAnAvailableChannel();
+        enteredStation = station;
+        // Distance to the next station in a handover event is always the cell length
+        scheduleNextEvent(station, cellLength, carSpeed, callDuration, carDirection);
+    }
+
+    // Schedule the termination or the handover of a call that acquired a channel at a station
+    private void scheduleNextEvent(int station, double distanceToNextStation, double carSpeed, double callDuration,
+            Direction carDirection) {
+        // The stations of the linear highway are its road segments
+        scheduledEvent = Simulator.allocateNextEvent(events, topology, clock, station, distanceToNextStation,
+                carSpeed, callDuration, carDirection);
+        if (events.getType(scheduledEvent) == Event.CALL_HANDOVER) {
+            double handoverTime = events.getTime(scheduledEvent);
+            double callRemainingDuration = events.getCallDuration(scheduledEvent);
+            // Send the call crossing into a neighbour right away
+            if (carDirection == Direction.TO_20TH_STATION && station == lastStation) {
+                sentHandover = new Handover(handoverTime, station + 1, carSpeed, callRemainingDuration, carDirection);
+                right.inbox.add(sentHandover);
+                sentHandovers++;
+            } else if (carDirection == Direction.TO_1ST_STATION && station == firstStation) {
+                sentHandover = new Handover(handoverTime, station - 1, carSpeed, callRemainingDuration, carDirection);
+                left.inbox.add(sentHandover);
+                sentHandovers++;
+            }
+        }
+        schedule(scheduledEvent);
+    }
+
+    // Acquire a channel of a station where a call starts
+    private void acquireChannel(int station) {
+        stations[station - firstStation].acquireAnAvailableChannel();
+        changedStation = station;
+        changedStationDelta = -1;
+    }
+
+    // Release the channel of a station a call leaves
+    private void releaseChannel(int station) {
+        stations[station - firstStation].releaseAnAcquiredChannel();
+        changedStation = station;
+        changedStationDelta = 1;
+    }
+
+    // Undo the handled events from the given time on, in reverse order, and schedule them again
+    private void rollback(double time) {
+        rollbacks++;
+        while (history.size > 0 && history.getTime(history.size - 1) >= time) {
+            int last = history.size - 1;
+            int event = history.events[history.index(last)];
+            int i = history.index(last);
+            initiatedCalls = history.initiatedCalls[i];
+            numCallsBlocked = history.numCallsBlocked[i];
+            numberOfDroppedCalls = history.numberOfDroppedCalls[i];
+            if (history.changedStations[i] >= 0) {
+                Station station = stations[history.changedStations[i] - firstStation];
+                if (history.changedStationDeltas[i] < 0) {
+                    station.releaseAnAcquiredChannel();
+                } else {
+                    station.acquireAnAvailableChannel();
+                }
+            }
+            if (history.enteredStations[i] >= 0) {
+                stations[history.enteredStations[i] - firstStation].releaseAnAcquiredChannel();
+            }
+            // The scheduled event was undone before, as it is later, cancel it
+            if (history.scheduledEvents[i] >= 0) {
+                states[history.scheduledEvents[i]] = CANCELLED;
+            }
+            Handover handover = history.sentHandovers[i];
+            if (handover != null) {
+                Handover antiMessage = new Handover(handover);
+                (handover.station > lastStation ? right : left).inbox.add(antiMessage);
+                antiMessages++;
+            }
+            history.sentHandovers[i] = null;
+            history.size--;
+
+            states[event] = PENDING;
+            fel.add(events.getTime(event), event);
+            rolledBackEvents++;
+        }
+        clock = history.size > 0 ? history.getTime(history.size - 1) : Math.min(clock, time);
+    }
+
+    // Sample the next call of the partition and schedule its initiation
+    private void drawArrival() {
+        double time = randomNumberGenerator.getArrivalTime(lastArrivalTime);
+        int station = firstStation + randomNumberGenerator.getBaseStation() - 1;
+        double carSpeed = randomNumberGenerator.getCarSpeed();
+        double carPosition = randomNumberGenerator.getCarPos();
+        double callDuration = randomNumberGenerator.getCallDuration();
+        Direction carDirection = randomNumberGenerator.getCarDirection();
+        schedule(events.allocate(Event.CALL_INITIATION, time, station, carSpeed, carPosition, callDuration,
+                carDirection));
+        lastArrivalTime = time;
+        drawnCalls++;
+    }
+
+    // Add a new event to FEL
+    private void schedule(int event) {
+        if (event >= states.length) {
+            states = Arrays.copyOf(states, Math.max(event + 1, states.length * 2));
+        }
+        states[event] = PENDING;
+        fel.add(events.getTime(event), event);
+    }
+
+    // Get the number of blocked calls after the warm up period
+    public long getNumCallsBlocked() {
+        return numCallsBlocked;
+    }
+
+    // Get the number of dropped calls after the warm up period
+    public long getNumberOfDroppedCalls() {
+        return numberOfDroppedCalls;
+    }
+
+    // Get the number of handled events, including those rolled back
+    public long getHandledEvents() {
+        return handledEvents;
+    }
+
+    // Get the number of rolled back events
+    public long getRolledBackEvents() {
+        return rolledBackEvents;
+    }
+
+    // Get the number of rollbacks
+    public long getRollbacks() {
+        return rollbacks;
+    }
+
+    // Get the number of handovers sent to the neighbours
+    public long getSentHandovers() {
+        return sentHandovers;
+    }
+
+    // Get the number of anti-messages sent to the neighbours
+    public long getAntiMessages() {
+        return antiMessages;
+    }
+
+    /**
+     * The class {@code Handover} for a call crossing into a neighbouring
+     * partition, at the time it enters the first station of the neighbour, or
+     * for the anti-message cancelling such a handover
+     */
+    private static final class Handover {
+
+        private final double time;
+        private final int station;
+        private final double carSpeed;
+        private final double callDuration;
+        private final Direction carDirection;
+        // The cancelled handover of an anti-message, null for a handover
+        private final Handover cancelled;
+        // Event of the handover at the receiver, only used by the receiver
+        private int event;
+
+        // Constructor, for a handover
+        private Handover(double time, int station, double carSpeed, double callDuration, Direction carDirection) {
+            this.time = time;
+            this.station = station;
+            this.carSpeed = carSpeed;
+            this.callDuration = callDuration;
+            this.carDirection = carDirection;
+            this.cancelled = null;
+        }
+
+        // Constructor, for the anti-message of a handover
+        private Handover(Handover cancelled) {
+            this.time = cancelled.time;
+            this.station = cancelled.station;
+            this.carSpeed = cancelled.carSpeed;
+            this.callDuration = cancelled.callDuration;
+            this.carDirection = cancelled.carDirection;
+            this.cancelled = cancelled;
+        }
+    }
+
+    /**
+     * The class {@code History} for the handled events of a partition since
+     * the GVT, in a growing ring of primitive arrays: the event, its time, the
+     * counters before it, the station whose channel it acquired or released,
+     * the station it handed a call over to, the event it scheduled and the
+     * handover it sent
+     */
+    private final class History {
+
+        private int[] events = new int[1024];
+        private double[] times = new double[1024];
+        private long[] initiatedCalls = new long[1024];
+        private long[] numCallsBlocked = new long[1024];
+        private long[] numberOfDroppedCalls = new long[1024];
+        private int[] changedStations = new int[1024];
+        private int[] changedStationDeltas = new int[1024];
+        private int[] enteredStations = new int[1024];
+        private int[] scheduledEvents = new int[1024];
+        private Handover[] sentHandovers = new Handover[1024];
+        private int head;
+        private int size;
+
+        // Add a handled event at the end of the history
+        private void add(int event, double time, long savedInitiatedCalls, long savedNumCallsBlocked,
+                long savedNumberOfDroppedCalls, int changedStation, int changedStationDelta, int enteredStation,
+                int scheduledEvent, Handover sentHandover) {
+            if (size == events.length) {
+                grow();
+            }
+            int i = index(size);
+            events[i] = event;
+            times[i] = time;
+            initiatedCalls[i] = savedInitiatedCalls;
+            numCallsBlocked[i] = savedNumCallsBlocked;
+            numberOfDroppedCalls[i] = savedNumberOfDroppedCalls;
+            changedStations[i] = changedStation;
+            changedStationDeltas[i] = changedStationDelta;
+            enteredStations[i] = enteredStation;
+            scheduledEvents[i] = scheduledEvent;
+            sentHandovers[i] = sentHandover;
+            size++;
+        }
+
+        // Get the time of the n-th event of the history
+        private double getTime(int n) {
+            return times[index(n)];
+        }
+
+        // Discard the events before the given time and recycle their slots (fossil collection)
+        private void discardBefore(double time) {
+            while (size > 0 && times[head] < time) {
+                TimeWarpProcess.this.events.free(events[head]);
+                states[events[head]] = PENDING;
+                sentHandovers[head] = null;
+                head = index(1);
+                size--;
+            }
+        }
+
+        // Get the position in the ring of the n-th event of the history
+        private int index(int n) {
+            return (head + n) & (events.length - 1);
+        }
+
+        // Double the ring, keeping the events in order from its start
+        private void grow() {
+            events = unroll(events);
+            times = unroll(times);
+            initiatedCalls = unroll(initiatedCalls);
+            numCallsBlocked = unroll(numCallsBlocked);
+            numberOfDroppedCalls = unroll(numberOfDroppedCalls);
+            changedStations = unroll(changedStations);
+            changedStationDeltas = unroll(changedStationDeltas);
+            enteredStations = unroll(enteredStations);
+            scheduledEvents = unroll(scheduledEvents);
+            sentHandovers = unroll(sentHandovers);
+            head = 0;
+        }
+
+        // Copy a ring into an array of twice its length, from its head
+        private int[] unroll(int[] ring) {
+            int[] unrolled = new int[ring.length * 2];
+            for (int n = 0; n < size; n++) {
+                unrolled[n] = ring[(head + n) & (ring.length - 1)];
+            }
+            return unrolled;
+        }
+
+        // Copy a ring into an array of twice its length, from its head
+        private long[] unroll(long[] ring) {
+            long[] unrolled = new long[ring.length * 2];
+            for (int n = 0; n < size; n++) {
+                unrolled[n] = ring[(head + n) & (ring.length - 1)];
+            }
+            return unrolled;
+        }
+
+        // Copy a ring into an array of twice its length, from its head
+        private double[] unroll(double[] ring) {
+            double[] unrolled = new double[ring.length * 2];
+            for (int n = 0; n < size; n++) {
+                unrolled[n] = ring[(head + n) & (ring.length - 1)];
+            }
+            return unrolled;
+        }
+
+        // Copy a ring into an array of twice its length, from its head
+        private Handover[] unroll(Handover[] ring) {
+            Handover[] unrolled = new Handover[ring.length * 2];
+            for (int n = 0; n < size; n++) {
+                unrolled[n] = ring[(head + n) & (ring.length - 1)];
+            }
+            return unrolled;
+        }
+    }
+}
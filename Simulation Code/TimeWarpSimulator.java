@@ -0,0 +1,227 @@
+package simulation;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.concurrent.Phaser;
+
+/**
+ * The class {@code TimeWarpSimulator} to run one long simulation of the
+ * highway on several cores optimistically. The cells are cut into contiguous
+ * partitions as in a {@link ParallelSimulator}, each simulated by a
+ * {@link TimeWarpProcess} in its own thread, which runs ahead of its
+ * neighbours without waiting for them and rolls back when a handover arrives
+ * in its past. No lookahead is needed, so the car speed is not capped.
+ *
+ * The partitions meet at a barrier to compute the global virtual time (GVT),
+ * the earliest time any partition can still roll back to, and discard their
+ * history before it. Each partition samples the same calls as in a
+ * conservative run with the same seed, so both runs give the same result when
+ * {@code speed.max} is set
+ */
+public class TimeWarpSimulator {
+
+    private ScenarioConfig config;
+    private long seed;
+    private TimeWarpProcess[] processes;
+    private Phaser barrier;
+    private volatile Throwable failure;
+    private long elapsedNanos;
+
+    // GVT computation shared by the partitions
+    private volatile boolean gvtRequested;
+    private volatile boolean antiMessagesSent;
+    private boolean antiMessageRound;
+    private double[] localMinimums;
+    private double gvt;
+    private long gvtComputations;
+
+    // Constructor
+    public TimeWarpSimulator(ScenarioConfig config, long seed) {
+        this.config = config;
+        this.seed = seed;
+
+        // Cut the stations and the calls into contiguous shares, and seed each partition from the master seed
+        int numberOfStations = config.getNumberOfStations();
+        int numberOfPartitions = Math.max(1, config.getPartitions());
+        RandomStream seeds = new RandomStream(seed);
+        this.processes = new TimeWarpProcess[numberOfPartitions];
+        for (int p = 0; p < numberOfPartitions; p++) {
+            int firstStation = ParallelSimulator.share(numberOfStations, p, numberOfPartitions);
+            int lastStation = ParallelSimulator.share(numberOfStations, p + 1, numberOfPartitions) - 1;
+            long totalCalls = ParallelSimulator.share(config.getTotalCalls(), firstStation, lastStation + 1,
+                    numberOfStations);
+            long warmUpCalls = ParallelSimulator.share(config.getWarmUpCalls(), firstStation, lastStation + 1,
+                    numberOfStations);
+            processes[p] = new TimeWarpProcess(this, p, config, firstStation, lastStation, totalCalls, warmUpCalls,
+                    seeds.nextLong());
+        }
+        for (int p = 0; p < numberOfPartitions; p++) {
+            processes[p].connect(p > 0 ? processes[p - 1] : null,
+                    p < numberOfPartitions - 1 ? processes[p + 1] : null);
+        }
+
+        this.localMinimums = new double[numberOfPartitions];
+        this.barrier = new Phaser(numberOfPartitions) {
+            // Run by the last partition reaching the barrier, before releasing the others
+            @Override
+            protected boolean onAdvance(int phase, int registeredParties) {
+                antiMessageRound = antiMessagesSent;
+                antiMessagesSent = false;
+                gvtRequested = false;
+                gvt = Arrays.stream(localMinimums).min().getAsDouble();
+                return registeredParties == 0;
+            }
+        };
+    }
+
+    // Run the partitions in parallel until every call is finished
+    public void start() {
+        long startNanos = System.nanoTime();
+        Thread[] threads = new Thread[processes.length];
+        for (int p = 0; p < processes.length; p++) {
+            threads[p] = new Thread(processes[p], "partition-" + p);
+            threads[p].start();
+        }
+        try {
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            fail(ie);
+        }
+        elapsedNanos = System.nanoTime() - startNanos;
+        if (failure != null) {
+            throw new IllegalStateException("Time Warp simulation failed", failure);
+        }
+    }
+
+    // Ask every partition to join the next GVT computation
+    void requestGvt() {
+        gvtRequested = true;
+    }
+
+    // Check if a GVT computation is requested
+    boolean isGvtRequested() {
+        return gvtRequested;
+    }
+
+    // Wait for every partition at the barrier, false if the run failed
+    boolean awaitPartitions() {
+        if (failure != null) {
+            return false;
+        }
+        barrier.arriveAndAwaitAdvance();
+        return failure == null;
+    }
+
+    // Take a partition that stopped out of the barrier, so the others never wait for it
+    void leave() {
+        barrier.arriveAndDeregister();
+    }
+
+    // Note that a partition sent anti-messages in the current delivery round
+    void markAntiMessagesSent() {
+        antiMessagesSent = true;
+    }
+
+    // Check if the last delivery round sent anti-messages, which need another round
+    boolean isAntiMessageRound() {
+        return antiMessageRound;
+    }
+
+    // Set the time of the earliest pending event of a partition
+    void setLocalMinimum(int partition, double time) {
+        localMinimums[partition] = time;
+        if (partition == 0) {
+            gvtComputations++;
+        }
+    }
+
+    // Get the GVT, the minimum of the local minimums at the last barrier
+    double getGvt() {
+        return gvt;
+    }
+
+    // Stop all partitions after a failure in one of them
+    void fail(Throwable throwable) {
+        if (failure == null) {
+            failure = throwable;
+        }
+    }
+
+    // Check if a partition failed
+    boolean isFailed() {
+        return failure != null;
+    }
+
+    // Get the number of committed events, handled and never rolled back
+    public long getNumberOfEvents() {
+        long numberOfEvents = 0;
+        for (TimeWarpProcess process : processes) {
+            numberOfEvents += process.getHandledEvents() - process.getRolledBackEvents();
+        }
+        return numberOfEvents;
+    }
+
+    // Get the result of the simulation run
+    public ReplicationResult getResult() {
+        long numCallsBlocked = 0;
+        long numberOfDroppedCalls = 0;
+        for (TimeWarpProcess process : processes) {
+            numCallsBlocked += process.getNumCallsBlocked();
+            numberOfDroppedCalls += process.getNumberOfDroppedCalls();
+        }
+        return new ReplicationResult(config.getNumberOfReservations(), seed,
+                config.getTotalCalls() - config.getWarmUpCalls(), (int) numCallsBlocked, (int) numberOfDroppedCalls);
+    }
+
+    // Generate statistics report, and write the result to the results sink
+    public void generateStatisticsReport(ResultsSink sink) {
+        ReplicationResult result = getResult();
+        BigDecimal blockedCallsRate = result.getBlockedCallsRate();
+        BigDecimal droppedCallsRate = result.getDroppedCallsRate();
+        int numberOfReservations = config.getNumberOfReservations();
+
+        // Print statistics
+        System.out.println("FCA Scheme: "
+                + (numberOfReservations > 0 ? "HANDOVER RESERVATION " + numberOfReservations : "NO RESERVATION"));
+        System.out.println("Seed: " + result.getSeed());
+        System.out.println("Number of Warm Up Calls: " + config.getWarmUpCalls());
+        System.out.println("Total number of Calls (after Warm Up period): " + result.getTotalNumberOfCalls());
+        System.out.println("Number of Blocked Calls: " + result.getNumCallsBlocked());
+        System.out.println("Number of Dropped Calls: " + result.getNumberOfDroppedCalls());
+        System.out.println("Blocked Calls Rate (%): " + blockedCallsRate);
+        System.out.println("Dropped Calls Rate (%): " + droppedCallsRate);
+
+        // Print the partitioning and the speculation overhead
+        long handledEvents = 0;
+        long rollbacks = 0;
+        long sentHandovers = 0;
+        long antiMessages = 0;
+        for (TimeWarpProcess process : processes) {
+            handledEvents += process.getHandledEvents();
+            rollbacks += process.getRollbacks();
+            sentHandovers += process.getSentHandovers();
+            antiMessages += process.getAntiMessages();
+        }
+        long numberOfEvents = getNumberOfEvents();
+        double seconds = elapsedNanos / 1e9;
+        System.out.println(String.format(Locale.ROOT,
+                "Partitions: %d, optimistic, %d events (%d handled, %.1f%% efficiency), %d rollbacks,"
+                        + " %d handovers between partitions, %d anti-messages, %d GVT computations,"
+                        + " %.2f sec (%.2fM events/s)",
+                processes.length, numberOfEvents, handledEvents,
+                handledEvents > 0 ? 100.0 * numberOfEvents / handledEvents : 100.0, rollbacks, sentHandovers,
+                antiMessages, gvtComputations, seconds, numberOfEvents / seconds / 1e6));
+
+        try {
+            sink.writeResults(Collections.singletonList(result));
+        } catch (IOException ioe) {
+            ioe.printStackTrace();
+        }
+    }
+}
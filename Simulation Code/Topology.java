@@ -0,0 +1,183 @@
+package simulation;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * The class {@code Topology} for the cells of the network and the roads
+ * crossing them. A road is a sequence of cells, and the cell of a road at a
+ * given place is a segment of the road, with its own length. A cell crossed
+ * by several roads is a junction: a call starting there picks one of its
+ * roads, and a car keeps to its road. The segments of all roads are numbered
+ * one road after the other, and the routing is precomputed in primitive index
+ * tables (the cell of each segment, the next segment in each direction, the
+ * segments of each cell), so a handover is resolved in constant time whatever
+ * the size of the network.
+ *
+ * A topology is loaded from a text file with a road per line, "road" followed
+ * by the ids of the cells it crosses in order, each optionally with the
+ * length of its segment (km) as "id:length", e.g. "road 1 2 3:1.5 4". Lines
+ * starting with # are comments. The cells are numbered from 1 to the largest
+ * id, and every cell must be on a road. A topology is immutable, so the
+ * replications share it
+ */
+public class Topology {
+
+    private int numberOfCells;
+    private int numberOfRoads;
+    // Cell index and length (km) of each segment
+    private int[] segmentCells;
+    private double[] segmentLengths;
+    // Next segment of each segment in each direction, at 2 * segment + direction ordinal, -1 at the road ends
+    private int[] nextSegments;
+    // Segments of each cell, from cellSegmentStarts[cell] to cellSegmentStarts[cell + 1] (exclusive)
+    private int[] cellSegmentStarts;
+    private int[] cellSegments;
+
+    // Constructor, from the first segment of each road and the cell and length of each segment
+    private Topology(int[] roadStarts, int[] segmentCells, double[] segmentLengths) {
+        this.numberOfRoads = roadStarts.length - 1;
+        this.segmentCells = segmentCells;
+        this.segmentLengths = segmentLengths;
+        int numberOfSegments = segmentCells.length;
+
+        // Link the segments along their road
+        this.nextSegments = new int[2 * numberOfSegments];
+        for (int road = 0; road < numberOfRoads; road++) {
+            for (int segment = roadStarts[road]; segment < roadStarts[road + 1]; segment++) {
+                nextSegments[2 * segment + Direction.TO_1ST_STATION.ordinal()] = segment > roadStarts[road]
+                        ? segment - 1 : -1;
+                nextSegments[2 * segment + Direction.TO_20TH_STATION.ordinal()] = segment < roadStarts[road + 1] - 1
+                        ? segment + 1 : -1;
+            }
+        }
+
+        // Group the segments by cell
+        for (int cell : segmentCells) {
+            numberOfCells = Math.max(numberOfCells, cell + 1);
+        }
+        this.cellSegmentStarts = new int[numberOfCells + 1];
+        for (int cell : segmentCells) {
+            cellSegmentStarts[cell + 1]++;
+        }
+        for (int cell = 0; cell < numberOfCells; cell++) {
+            if (cellSegmentStarts[cell + 1] == 0) {
+                throw new IllegalArgumentException("Cell " + (cell + 1) + " is not on any road");
+            }
+            cellSegmentStarts[cell + 1] += cellSegmentStarts[cell];
+        }
+        this.cellSegments = new int[numberOfSegments];
+        int[] filled = Arrays.copyOf(cellSegmentStarts, numberOfCells);
+        for (int segment = 0; segment < numberOfSegments; segment++) {
+            cellSegments[filled[segmentCells[segment]]++] = segment;
+        }
+    }
+
+    // Get the linear highway: one road crossing the given number of cells of the given length in order
+    public static Topology linear(int numberOfCells, double cellLength) {
+        int[] segmentCells = new int[numberOfCells];
+        double[] segmentLengths = new double[numberOfCells];
+        for (int cell = 0; cell < numberOfCells; cell++) {
+            segmentCells[cell] = cell;
+            segmentLengths[cell] = cellLength;
+        }
+        return new Topology(new int[] { 0, numberOfCells }, segmentCells, segmentLengths);
+    }
+
+    // Load a topology file, with the given length (km) for the segments without one
+    public static Topology load(Path path, double cellLength) throws IOException {
+        int[] roadStarts = new int[] { 0 };
+        int[] segmentCells = new int[64];
+        double[] segmentLengths = new double[64];
+        int numberOfRoads = 0;
+        int numberOfSegments = 0;
+
+        try (BufferedReader reader = Files.newBufferedReader(path)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split("\\s+");
+                if (!fields[0].equals("road") || fields.length < 2) {
+                    throw new IllegalArgumentException(path + ":" + lineNumber + ": expected a road and its cells");
+                }
+                for (int i = 1; i < fields.length; i++) {
+                    if (numberOfSegments == segmentCells.length) {
+                        segmentCells = Arrays.copyOf(segmentCells, numberOfSegments * 2);
+                        segmentLengths = Arrays.copyOf(segmentLengths, numberOfSegments * 2);
+                    }
+                    int separator = fields[i].indexOf(':');
+                    try {
+                        int cellId = Integer.parseInt(separator < 0 ? fields[i] : fields[i].substring(0, separator));
+                        double length = separator < 0 ? cellLength
+                                : Double.parseDouble(fields[i].substring(separator + 1));
+                        if (cellId < 1 || length <= 0) {
+                            throw new IllegalArgumentException(path + ":" + lineNumber
+                                    + ": cell ids and lengths must be positive: " + fields[i]);
+                        }
+                        segmentCells[numberOfSegments] = cellId - 1;
+                        segmentLengths[numberOfSegments] = length;
+                    } catch (NumberFormatException nfe) {
+                        throw new IllegalArgumentException(path + ":" + lineNumber + ": invalid cell " + fields[i],
+                                nfe);
+                    }
+                    numberOfSegments++;
+                }
+                roadStarts = Arrays.copyOf(roadStarts, ++numberOfRoads + 1);
+                roadStarts[numberOfRoads] = numberOfSegments;
+            }
+        }
+        if (numberOfRoads == 0) {
+            throw new IllegalArgumentException("The topology " + path + " has no road");
+        }
+        return new Topology(roadStarts, Arrays.copyOf(segmentCells, numberOfSegments),
+                Arrays.copyOf(segmentLengths, numberOfSegments));
+    }
+
+    // Get the number of cells
+    public int getNumberOfCells() {
+        return numberOfCells;
+    }
+
+    // Get the number of roads
+    public int getNumberOfRoads() {
+        return numberOfRoads;
+    }
+
+    // Get the number of segments, of all roads
+    public int getNumberOfSegments() {
+        return segmentCells.length;
+    }
+
+    // Get the index of the cell of a segment
+    public int getCell(int segment) {
+        return segmentCells[segment];
+    }
+
+    // Get the length of a segment (km)
+    public double getLength(int segment) {
+        return segmentLengths[segment];
+    }
+
+    // Get the segment a car enters after a segment in its direction, -1 at the end of its road
+    public int getNextSegment(int segment, Direction carDirection) {
+        return nextSegments[2 * segment + carDirection.ordinal()];
+    }
+
+    // Get the number of roads crossing a cell, more than one at a junction
+    public int getNumberOfSegments(int cell) {
+        return cellSegmentStarts[cell + 1] - cellSegmentStarts[cell];
+    }
+
+    // Get the n-th segment of a cell, one per road crossing it
+    public int getSegment(int cell, int n) {
+        return cellSegments[cellSegmentStarts[cell] + n];
+    }
+}
@@ -0,0 +1,369 @@
+package simulation;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+
+/**
+ * The class {@code TraceCallSource} to replay recorded calls, such as the
+ * PCS_TEST_DETERMINSTIC measurements, instead of sampling them. The trace is
+ * streamed through a memory-mapped window that moves along the file, so a
+ * trace of any length is never loaded into the heap. A trace is either
+ *
+ * - a CSV export of the measurement sheet, with the columns "Arrival no,
+ * Arrival time (sec),Base station,Call duration (sec),Velocity (km/h)" and an
+ * optional header line, or
+ *
+ * - a compact binary file of 28-byte big-endian records (arrival time double,
+ * base station int, speed double, duration double), see {@link #convert}.
+ *
+ * The trace does not record the car position and direction, they are drawn
+ * from the random number generator of the simulator
+ */
+public class TraceCallSource implements CallSource {
+
+    // Size of a binary record
+    public static final int RECORD_SIZE = 28;
+    // Size of the mapped window, a whole number of binary records
+    private static final long WINDOW_SIZE = RECORD_SIZE * (1L << 21);
+    private static final int NUMBER_OF_FIELDS = 5;
+    private static final int MAX_FIELD_LENGTH = 64;
+    // Most significant digits of a number parsed without Double.parseDouble
+    private static final int MAX_FAST_DIGITS = 18;
+    // Largest mantissa exactly representable as a double
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    // Powers of ten exactly representable as doubles
+    private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+    private Path path;
+    private boolean csv;
+    private long fileSize;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long numberOfCalls;
+    private int numberOfStations;
+    private RandomNumberGenerator randomNumberGenerator;
+
+    // Values of the current call
+    private double arrivalTime;
+    private int baseStation;
+    private double carSpeed;
+    private double callDuration;
+
+    // Values of the fields of a CSV line
+    private double[] values;
+
+    // Constructor
+    public TraceCallSource(Path path, int numberOfStations, RandomNumberGenerator randomNumberGenerator) {
+        this.path = path;
+        this.csv = isCsv(path);
+        this.numberOfCalls = 0;
+        this.numberOfStations = numberOfStations;
+        this.randomNumberGenerator = randomNumberGenerator;
+        this.arrivalTime = 0;
+        this.values = new double[NUMBER_OF_FIELDS];
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            this.fileSize = channel.size();
+        } catch (IOException ioe) {
+            throw new UncheckedIOException("Cannot open the call trace " + path, ioe);
+        }
+        if (!csv && fileSize % RECORD_SIZE != 0) {
+            throw new IllegalArgumentException("The binary call trace " + path + " is not a whole number of "
+                    + RECORD_SIZE + "-byte records");
+        }
+        map(0);
+    }
+
+    // Check if a trace file is a CSV file, by its extension
+    public static boolean isCsv(Path path) {
+        return path.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".csv");
+    }
+
+    // Convert a CSV call trace to the binary format, and get the number of calls
+    public static long convert(Path csvPath, Path binaryPath) {
+        TraceCallSource source = new TraceCallSource(csvPath, Integer.MAX_VALUE, null);
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE * 4096);
+        try (FileChannel channel = FileChannel.open(binaryPath, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (source.nextCall()) {
+                buffer.putDouble(source.arrivalTime);
+                buffer.putInt(source.baseStation);
+                buffer.putDouble(source.carSpeed);
+                buffer.putDouble(source.callDuration);
+                if (!buffer.hasRemaining()) {
+                    write(channel, buffer);
+                }
+            }
+            write(channel, buffer);
+        } catch (IOException ioe) {
+            throw new UncheckedIOException("Cannot write the call trace " + binaryPath, ioe);
+        }
+        return source.numberOfCalls;
+    }
+
+    // Write the buffered records to a channel and clear the buffer
+    private static void write(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public boolean nextCall() {
+        double previousArrivalTime = arrivalTime;
+        if (!(csv ? readCsvRecord() : readBinaryRecord())) {
+            return false;
+        }
+        numberOfCalls++;
+
+        // The simulator schedules each call from the previous one, so the trace must be in time order
+        if (arrivalTime < previousArrivalTime) {
+            throw new IllegalArgumentException("Call " + numberOfCalls + " of the call trace " + path
+                    + " arrives before the previous call");
+        }
+        if (baseStation < 1 || baseStation > numberOfStations) {
+            throw new IllegalArgumentException("Call " + numberOfCalls + " of the call trace " + path
+                    + " is at station " + baseStation + ", out of the " + numberOfStations + " stations");
+        }
+        return true;
+    }
+
+    // Skip the given number of calls, to resume a run after them
+    public void skip(long calls) {
+        for (long i = 0; i < calls; i++) {
+            if (!nextCall()) {
+                throw new IllegalArgumentException("The call trace " + path + " ends after " + numberOfCalls
+                        + " calls, before the " + calls + " calls to skip");
+            }
+        }
+    }
+
+    // Get the number of calls read so far
+    public long getNumberOfCalls() {
+        return numberOfCalls;
+    }
+
+    @Override
+    public double getArrivalTime(double clock) {
+        return arrivalTime;
+    }
+
+    @Override
+    public int getBaseStation() {
+        return baseStation;
+    }
+
+    @Override
+    public double getCarSpeed() {
+        return carSpeed;
+    }
+
+    @Override
+    public double getCarPos() {
+        return randomNumberGenerator.getCarPos();
+    }
+
+    @Override
+    public double getCallDuration() {
+        return callDuration;
+    }
+
+    @Override
+    public Direction getCarDirection() {
+        return randomNumberGenerator.getCarDirection();
+    }
+
+    // Read the next binary record, false at the end of the file
+    private boolean readBinaryRecord() {
+        // Windows hold whole records, so an exhausted window ends on a record boundary
+        if (!window.hasRemaining()) {
+            long position = windowStart + window.position();
+            if (position >= fileSize) {
+                return false;
+            }
+            map(position);
+        }
+        arrivalTime = window.getDouble();
+        baseStation = window.getInt();
+        carSpeed = window.getDouble();
+        callDuration = window.getDouble();
+        return true;
+    }
+
+    // Read the next CSV record, skipping blank and header lines, false at the end of the file
+    private boolean readCsvRecord() {
+        while (true) {
+            long lineStart = windowStart + window.position();
+            if (lineStart >= fileSize) {
+                return false;
+            }
+
+            int numberOfFields = parseCsvLine();
+            if (numberOfFields < 0) {
+                // The line runs past the window, map the next window from its start
+                if (lineStart == windowStart) {
+                    throw new IllegalArgumentException("Line " + (numberOfCalls + 1) + " of the call trace " + path
+                            + " is longer than the mapped window");
+                }
+                map(lineStart);
+                continue;
+            }
+            if (numberOfFields == 0) {
+                continue;
+            }
+            if (numberOfFields < NUMBER_OF_FIELDS) {
+                throw new IllegalArgumentException("Call " + (numberOfCalls + 1) + " of the call trace " + path
+                        + " has " + numberOfFields + " columns, expected " + NUMBER_OF_FIELDS);
+            }
+
+            arrivalTime = values[1];
+            baseStation = (int) values[2];
+            callDuration = values[3];
+            carSpeed = values[4];
+            return true;
+        }
+    }
+
+    // Parse the line at the window position into the values, and get the number of fields:
+    // 0 for a blank or header line, -1 when the line does not end within the window
+    private int parseCsvLine() {
+        boolean lastWindow = windowStart + window.limit() >= fileSize;
+        int numberOfFields = 0;
+        int fieldStart = window.position();
+        int length = 0;
+        byte first = 0;
+        boolean header = false;
+        while (true) {
+            int position = window.position();
+            boolean endOfLine = !window.hasRemaining();
+            byte b = endOfLine ? (byte) '\n' : window.get();
+            if (endOfLine && !lastWindow) {
+                return -1;
+            }
+
+            if (b == ',' || b == '\n') {
+                // A field that is not a number can only be a header
+                if (length > 0 || b == ',') {
+                    if (numberOfFields == 0 && length > 0 && !isNumberStart(first)) {
+                        header = true;
+                    }
+                    if (!header && numberOfFields < NUMBER_OF_FIELDS) {
+                        values[numberOfFields] = parseField(fieldStart, position);
+                    }
+                    numberOfFields++;
+                }
+                fieldStart = window.position();
+                length = 0;
+                if (b == '\n') {
+                    return header ? 0 : numberOfFields;
+                }
+            } else if (!isIgnored(b)) {
+                if (length == MAX_FIELD_LENGTH) {
+                    throw new IllegalArgumentException("Call " + (numberOfCalls + 1) + " of the call trace " + path
+                            + " has a field longer than " + MAX_FIELD_LENGTH + " characters");
+                }
+                if (length == 0) {
+                    first = b;
+                }
+                length++;
+            }
+        }
+    }
+
+    // Check if a character can start a number
+    private static boolean isNumberStart(byte b) {
+        return (b >= '0' && b <= '9') || b == '-' || b == '+' || b == '.';
+    }
+
+    // Check if a character of a field is ignored, blanks and quotes
+    private static boolean isIgnored(byte b) {
+        return b == '\r' || b == ' ' || b == '\t' || b == '"';
+    }
+
+    // Parse the field between the given window positions as a number, straight from the mapped bytes.
+    // A decimal of at most 18 significant digits and a small exponent is exact as a long scaled by an
+    // exact power of ten, so one rounded division or multiplication gives the same double as
+    // Double.parseDouble; other numbers fall back to it
+    private double parseField(int start, int end) {
+        int i = start;
+        while (i < end && isIgnored(window.get(i))) {
+            i++;
+        }
+        boolean negative = i < end && window.get(i) == '-';
+        if (i < end && (window.get(i) == '-' || window.get(i) == '+')) {
+            i++;
+        }
+
+        long mantissa = 0;
+        int significantDigits = 0;
+        int exponent = 0;
+        boolean digits = false;
+        boolean point = false;
+        for (; i < end; i++) {
+            byte b = window.get(i);
+            if (b >= '0' && b <= '9') {
+                digits = true;
+                if (mantissa == 0 && b == '0') {
+                    // Leading zeros are not significant
+                    exponent -= point ? 1 : 0;
+                    continue;
+                }
+                if (++significantDigits > MAX_FAST_DIGITS) {
+                    return parseFieldSlowly(start, end);
+                }
+                mantissa = mantissa * 10 + (b - '0');
+                exponent -= point ? 1 : 0;
+            } else if (b == '.' && !point) {
+                point = true;
+            } else if ((b == 'e' || b == 'E') && digits) {
+                return parseFieldSlowly(start, end);
+            } else if (!isIgnored(b)) {
+                return parseFieldSlowly(start, end);
+            }
+        }
+        if (!digits || mantissa > MAX_EXACT_MANTISSA || exponent < -(POWERS_OF_TEN.length - 1)) {
+            return parseFieldSlowly(start, end);
+        }
+
+        double value = exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent] : mantissa;
+        return negative ? -value : value;
+    }
+
+    // Parse the field between the given window positions with Double.parseDouble, for the numbers the
+    // fast path does not handle (exponents, long digit strings) and to report invalid ones
+    private double parseFieldSlowly(int start, int end) {
+        StringBuilder text = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            byte b = window.get(i);
+            if (!isIgnored(b)) {
+                text.append((char) b);
+            }
+        }
+        try {
+            return Double.parseDouble(text.toString());
+        } catch (NumberFormatException nfe) {
+            throw new IllegalArgumentException("Call " + (numberOfCalls + 1) + " of the call trace " + path
+                    + " has an invalid number: " + text, nfe);
+        }
+    }
+
+    // Map the window of the trace starting at the given position
+    private void map(long position) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW_SIZE, fileSize - position));
+            windowStart = position;
+        } catch (IOException ioe) {
+            throw new UncheckedIOException("Cannot map the call trace " + path, ioe);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,129 @@
+package simulation;
+
+/**
+ * The class {@code TruncatedNormalDistribution} for a normal distribution of
+ * the given mean and standard deviation restricted to [lower, upper], e.g.
+ * car speeds that cannot be negative. It is sampled by rejection from
+ * ziggurat Gaussians, so the bounds must keep at least 1% of the normal
+ * distribution
+ */
+public class TruncatedNormalDistribution implements InputDistribution {
+
+    private static final double MIN_ACCEPTANCE = 0.01;
+    private static final int MAX_ITERATIONS = 200;
+    private static final double TOLERANCE = 1e-10;
+
+    private double mean;
+    private double standardDeviation;
+    private double lower;
+    private double upper;
+    // Probability of the normal distribution between the bounds
+    private double acceptance;
+
+    // Constructor, with the mean and standard deviation of the normal distribution before truncation
+    public TruncatedNormalDistribution(double mean, double standardDeviation, double lower, double upper) {
+        if (!(standardDeviation > 0) || !(lower < upper)) {
+            throw new IllegalArgumentException("A truncated normal distribution needs a positive standard "
+                    + "deviation and a lower bound below its upper bound");
+        }
+        this.mean = mean;
+        this.standardDeviation = standardDeviation;
+        this.lower = lower;
+        this.upper = upper;
+        this.acceptance = NormalDistribution.standardCdf(getBeta()) - NormalDistribution.standardCdf(getAlpha());
+        if (acceptance < MIN_ACCEPTANCE) {
+            throw new IllegalArgumentException("The bounds of a truncated normal distribution keep "
+                    + acceptance + " of the normal distribution, less than " + MIN_ACCEPTANCE);
+        }
+    }
+
+    // Fit the distribution to the data by maximum likelihood, truncated at the minimum and maximum
+    // of the data. The distribution is in the exponential family, so the fit matches the mean and
+    // variance of the data, by fixed point iteration from those of the data
+    public static TruncatedNormalDistribution fit(double[] data) {
+        double lower = DistributionFitter.min(data);
+        double upper = DistributionFitter.max(data);
+        double dataMean = DistributionFitter.mean(data);
+        double dataVariance = DistributionFitter.variance(data, dataMean);
+        double mean = dataMean;
+        double variance = dataVariance;
+        for (int i = 0; i < MAX_ITERATIONS; i++) {
+            TruncatedNormalDistribution distribution = new TruncatedNormalDistribution(mean, Math.sqrt(variance),
+                    lower, upper);
+            double meanError = dataMean - distribution.getMean();
+            double varianceError = dataVariance - distribution.getVariance();
+            mean += meanError;
+            variance = Math.max(variance + varianceError, dataVariance * TOLERANCE);
+            if (Math.abs(meanError) < TOLERANCE * Math.sqrt(dataVariance)
+                    && Math.abs(varianceError) < TOLERANCE * dataVariance) {
+                break;
+            }
+        }
+        return new TruncatedNormalDistribution(mean, Math.sqrt(variance), lower, upper);
+    }
+
+    // Get the standardized lower bound
+    private double getAlpha() {
+        return (lower - mean) / standardDeviation;
+    }
+
+    // Get the standardized upper bound
+    private double getBeta() {
+        return (upper - mean) / standardDeviation;
+    }
+
+    // Get the standard normal density at a standardized bound, 0 at infinity
+    private static double density(double z) {
+        return Double.isInfinite(z) ? 0 : Math.exp(NormalDistribution.logStandardDensity(z));
+    }
+
+    @Override
+    public int getVariateKind() {
+        return VariateBuffer.NORMAL;
+    }
+
+    @Override
+    public double sample(VariateBuffer random) {
+        while (true) {
+            double x = mean + random.next() * standardDeviation;
+            if (x >= lower && x <= upper) {
+                return x;
+            }
+        }
+    }
+
+    @Override
+    public double logDensity(double x) {
+        if (x < lower || x > upper) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        return NormalDistribution.logStandardDensity((x - mean) / standardDeviation) - Math.log(standardDeviation)
+                - Math.log(acceptance);
+    }
+
+    @Override
+    public double getMean() {
+        return mean + standardDeviation * (density(getAlpha()) - density(getBeta())) / acceptance;
+    }
+
+    @Override
+    public double getVariance() {
+        double alpha = getAlpha();
+        double beta = getBeta();
+        double alphaTerm = Double.isInfinite(alpha) ? 0 : alpha * density(alpha);
+        double betaTerm = Double.isInfinite(beta) ? 0 : beta * density(beta);
+        double shift = (density(alpha) - density(beta)) / acceptance;
+        return standardDeviation * standardDeviation * (1 + (alphaTerm - betaTerm) / acceptance - shift * shift);
+    }
+
+    @Override
+    public int getNumberOfParameters() {
+        // The bounds are fitted to the data too, as its minimum and maximum
+        return 4;
+    }
+
+    @Override
+    public String toString() {
+        return "truncated-normal(" + mean + ", " + standardDeviation + ", " + lower + ", " + upper + ")";
+    }
+}
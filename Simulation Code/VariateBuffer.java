@@ -0,0 +1,112 @@
+package simulation;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * The class {@code VariateBuffer} to draw the variates of one random stream
+ * in blocks. A block of standard variates (uniforms, exponentials or normals)
+ * is generated at once into a primitive array, in tight loops over the
+ * stream state, and then consumed one value at a time. The variates are
+ * exactly those drawn one by one from the stream, in the same order, so
+ * buffering does not change the results of a seed.
+ *
+ * The uniforms are antithetic (1 - u) when requested, and the exponentials
+ * are transformed from them by inversion, so that antithetic and common
+ * random numbers keep their monotone mapping. The normals are the ziggurat
+ * Gaussians of {@link RandomStream}, negated when antithetic, and are
+ * deliberately left unbatched: the ziggurat takes a single long for almost
+ * every value, which a polar or Box-Muller pair over buffered uniforms would
+ * replace with a logarithm and a square root, and it would no longer draw the
+ * normals of a seed one by one. The buffer
+ * saves the stream state at the start of its block and its position in it,
+ * to be checkpointed and restored on the same variates
+ */
+public class VariateBuffer {
+
+    // Number of variates generated at once
+    public static final int BLOCK_SIZE = 256;
+
+    // Kinds of standard variates
+    public static final int UNIFORM = 0;
+    public static final int EXPONENTIAL = 1;
+    public static final int NORMAL = 2;
+
+    private RandomStream random;
+    private RandomStream blockStart;
+    private int kind;
+    private boolean antithetic;
+    private double[] block;
+    private int position;
+
+    // Constructor, for the given kind of variates drawn from a stream
+    public VariateBuffer(RandomStream random, int kind, boolean antithetic) {
+        this.random = random;
+        this.blockStart = new RandomStream(0);
+        this.kind = kind;
+        this.antithetic = antithetic;
+        this.block = new double[BLOCK_SIZE];
+        // Generate the first block on the first draw
+        this.position = BLOCK_SIZE;
+    }
+
+    // Get the next variate: a uniform in [0, 1) (or (0, 1] when antithetic), log(1 - u) of such a
+    // uniform u for an exponential, or a standard normal
+    public double next() {
+        if (position == BLOCK_SIZE) {
+            blockStart.copyFrom(random);
+            fill();
+            position = 0;
+        }
+        return block[position++];
+    }
+
+    // Generate a block of variates from the stream
+    private void fill() {
+        if (kind == NORMAL) {
+            // One ziggurat draw per value, its variable number of longs is not batched
+            for (int i = 0; i < BLOCK_SIZE; i++) {
+                block[i] = random.nextGaussian();
+            }
+            if (antithetic) {
+                for (int i = 0; i < BLOCK_SIZE; i++) {
+                    block[i] = -block[i];
+                }
+            }
+            return;
+        }
+
+        random.nextDoubles(block, BLOCK_SIZE);
+        if (antithetic) {
+            for (int i = 0; i < BLOCK_SIZE; i++) {
+                block[i] = 1 - block[i];
+            }
+        }
+        if (kind == EXPONENTIAL) {
+            // Bounded for the antithetic u = 1
+            for (int i = 0; i < BLOCK_SIZE; i++) {
+                block[i] = Math.log(Math.max(1 - block[i], Double.MIN_VALUE));
+            }
+        }
+    }
+
+    // Save the state of the stream at the start of the block, and the position in the block
+    public void writeTo(DataOutput out) throws IOException {
+        if (position == BLOCK_SIZE) {
+            // No block is drawn from yet, the next one starts at the current state
+            random.writeTo(out);
+        } else {
+            blockStart.writeTo(out);
+        }
+        out.writeInt(position == BLOCK_SIZE ? 0 : position);
+    }
+
+    // Restore the state saved by writeTo, generating the block again
+    public void readFrom(DataInput in) throws IOException {
+        blockStart.readFrom(in);
+        random.copyFrom(blockStart);
+        fill();
+        position = in.readInt();
+    }
+}
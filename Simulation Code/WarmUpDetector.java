@@ -0,0 +1,92 @@
+package simulation;
+
+/**
+ * The class {@code WarmUpDetector} to find the end of the warm up period of a
+ * run with the MSER-5 rule (K. P. White, 1997): the series of call outcomes is
+ * taken in batches of 5 calls, and the warm up is the number of batches d
+ * minimising the marginal standard error MSER(d) = sum over j > d of
+ * (Z_j - mean_d)^2 / (m - d)^2 of the batch means left after truncation. The
+ * truncation point is the largest of the ones of the blocked and the dropped
+ * calls series.
+ *
+ * During the run, the rule is applied to the batches so far over all d but
+ * the last ones, and the truncation point is accepted once it lies in the
+ * first half of them (K. Hoad, S. Robinson and R. Davies, 2011), so the run
+ * can end a fixed number of calls after it. The search starts once it reaches
+ * past three quarters of the batches, so a transient longer than the batches
+ * so far is not taken for the steady state. After the run, d is searched in
+ * the first half of the batches
+ */
+public final class WarmUpDetector {
+
+    // Number of calls per MSER batch
+    public static final int CALLS_PER_BATCH = 5;
+    // Number of batches always left after a truncation point searched during the run, as MSER(d) of
+    // the few last batches is too noisy to compare
+    public static final int MIN_BATCHES_AFTER_TRUNCATION = 1000;
+
+    private WarmUpDetector() {
+    }
+
+    // Get the number of bins to truncate from a series binned by MSER batches, after the run
+    public static int getTruncationBin(OutcomeSeries series) {
+        // The last bin also holds the calls dropped after the last call was generated
+        int numberOfBatches = series.getNumberOfBins() - 1;
+        double[] blockedMeans = getBatchMeans(series, numberOfBatches, true);
+        double[] droppedMeans = getBatchMeans(series, numberOfBatches, false);
+
+        return Math.max(mser(blockedMeans, numberOfBatches / 2), mser(droppedMeans, numberOfBatches / 2));
+    }
+
+    // Get the number of bins to truncate from the given number of complete bins of a series during the
+    // run, -1 while the truncation point of either series is not in the first half of the bins
+    public static int detectTruncationBin(OutcomeSeries series, int numberOfBatches) {
+        if (numberOfBatches < 4 * MIN_BATCHES_AFTER_TRUNCATION) {
+            return -1;
+        }
+        int maxTruncation = numberOfBatches - MIN_BATCHES_AFTER_TRUNCATION;
+        int blockedTruncation = mser(getBatchMeans(series, numberOfBatches, true), maxTruncation);
+        int droppedTruncation = mser(getBatchMeans(series, numberOfBatches, false), maxTruncation);
+        int truncation = Math.max(blockedTruncation, droppedTruncation);
+
+        return truncation <= numberOfBatches / 2 ? truncation : -1;
+    }
+
+    // Get the blocked or dropped calls rates of the first batches of a series
+    private static double[] getBatchMeans(OutcomeSeries series, int numberOfBatches, boolean blocked) {
+        if (series.getCallsPerBin() != CALLS_PER_BATCH) {
+            throw new IllegalArgumentException("MSER-5 needs bins of " + CALLS_PER_BATCH + " calls");
+        }
+        double[] batchMeans = new double[numberOfBatches];
+        for (int batch = 0; batch < numberOfBatches; batch++) {
+            batchMeans[batch] = (double) (blocked ? series.getBlockedCalls(batch) : series.getDroppedCalls(batch))
+                    / CALLS_PER_BATCH;
+        }
+        return batchMeans;
+    }
+
+    // Get the truncation point minimising MSER, up to the given number of batches
+    private static int mser(double[] batchMeans, int maxTruncation) {
+        int m = batchMeans.length;
+        // Sums of the batch means and their squares from the end of the series
+        double sum = 0;
+        double sumOfSquares = 0;
+        double minMser = Double.POSITIVE_INFINITY;
+        int truncation = 0;
+        for (int d = m - 1; d >= 0; d--) {
+            sum += batchMeans[d];
+            sumOfSquares += batchMeans[d] * batchMeans[d];
+            if (d > maxTruncation) {
+                continue;
+            }
+            double n = m - d;
+            double mser = (sumOfSquares - sum * sum / n) / (n * n);
+            // Prefer the earliest truncation point on ties
+            if (mser <= minMser) {
+                minMser = mser;
+                truncation = d;
+            }
+        }
+        return truncation;
+    }
+}
@@ -0,0 +1,104 @@
+package simulation;
+
+/**
+ * The class {@code WeibullDistribution} for a Weibull distribution of the
+ * given shape and scale, sampled by inversion
+ */
+public class WeibullDistribution implements InputDistribution {
+
+    private static final int MAX_ITERATIONS = 100;
+    private static final double TOLERANCE = 1e-12;
+
+    private double shape;
+    private double scale;
+
+    // Constructor
+    public WeibullDistribution(double shape, double scale) {
+        if (!(shape > 0) || !(scale > 0)) {
+            throw new IllegalArgumentException("The shape and scale of a Weibull distribution must be positive");
+        }
+        this.shape = shape;
+        this.scale = scale;
+    }
+
+    // Fit the distribution to positive data by maximum likelihood: Newton's method on the shape,
+    // and the scale from the shape
+    public static WeibullDistribution fit(double[] data) {
+        if (!(DistributionFitter.min(data) > 0)) {
+            throw new IllegalArgumentException("A Weibull distribution needs positive data");
+        }
+        double[] logs = DistributionFitter.logs(data);
+        double meanLog = DistributionFitter.mean(logs);
+        double logDeviation = Math.sqrt(DistributionFitter.variance(logs, meanLog));
+        if (!(logDeviation > 0)) {
+            throw new IllegalArgumentException("A Weibull distribution cannot be fitted to constant data");
+        }
+        // The data is scaled by its largest value, so that its powers do not overflow
+        double logMax = Math.log(DistributionFitter.max(data));
+        double shape = 1.2 / logDeviation;
+        for (int i = 0; i < MAX_ITERATIONS; i++) {
+            double sum = 0;
+            double sumLog = 0;
+            double sumLogSquared = 0;
+            for (double logX : logs) {
+                double power = Math.exp(shape * (logX - logMax));
+                sum += power;
+                sumLog += power * logX;
+                sumLogSquared += power * logX * logX;
+            }
+            double f = sumLog / sum - 1 / shape - meanLog;
+            double derivative = (sumLogSquared * sum - sumLog * sumLog) / (sum * sum) + 1 / (shape * shape);
+            double step = f / derivative;
+            shape = Math.max(shape - step, shape / 2);
+            if (Math.abs(step) < TOLERANCE * shape) {
+                break;
+            }
+        }
+        double sum = 0;
+        for (double logX : logs) {
+            sum += Math.exp(shape * (logX - logMax));
+        }
+        return new WeibullDistribution(shape, Math.exp(logMax + Math.log(sum / data.length) / shape));
+    }
+
+    @Override
+    public int getVariateKind() {
+        return VariateBuffer.EXPONENTIAL;
+    }
+
+    @Override
+    public double sample(VariateBuffer random) {
+        return scale * Math.pow(-random.next(), 1 / shape);
+    }
+
+    @Override
+    public double logDensity(double x) {
+        // The density at 0 is infinite for a shape below 1, so 0 is left out of the support, as for a gamma
+        if (x <= 0) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        double z = x / scale;
+        return Math.log(shape / scale) + (shape - 1) * Math.log(z) - Math.pow(z, shape);
+    }
+
+    @Override
+    public double getMean() {
+        return scale * Math.exp(GammaDistribution.logGamma(1 + 1 / shape));
+    }
+
+    @Override
+    public double getVariance() {
+        double mean = Math.exp(GammaDistribution.logGamma(1 + 1 / shape));
+        return scale * scale * (Math.exp(GammaDistribution.logGamma(1 + 2 / shape)) - mean * mean);
+    }
+
+    @Override
+    public int getNumberOfParameters() {
+        return 2;
+    }
+
+    @Override
+    public String toString() {
+        return "weibull(" + shape + ", " + scale + ")";
+    }
+}
@@ -0,0 +1,105 @@
+package simulation;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests that a run saved with {@link Simulator#checkpoint} and continued with
+ * {@link Simulator#restore} ends exactly as the same run simulated in one go
+ */
+public class CheckpointTest {
+
+    private static final long SEED = 11;
+
+    @TempDir
+    Path directory;
+
+    // Get a short scenario of the highway
+    private static ScenarioConfig createConfig(String... args) throws IOException {
+        String[] scenario = new String[args.length + 2];
+        scenario[0] = "--calls.total=30000";
+        scenario[1] = "--calls.warmup=10000";
+        System.arraycopy(args, 0, scenario, 2, args.length);
+        return ScenarioConfig.fromArgs(scenario);
+    }
+
+    // Run a scenario straight through, and saved and restored after each of the given numbers of calls,
+    // and check that both runs end in the same state
+    private void assertResumesIdentically(ScenarioConfig config, int... checkpointCalls) throws IOException {
+        Simulator straight = new Simulator(config, SEED);
+        straight.start();
+
+        Simulator resumed = new Simulator(config, SEED);
+        for (int calls : checkpointCalls) {
+            resumed.runUntil(calls);
+            Path checkpoint = directory.resolve("run-" + calls + ".bin");
+            resumed.checkpoint(checkpoint);
+            resumed = Simulator.restore(checkpoint, config);
+        }
+        resumed.start();
+
+        assertEquals(straight.getResult().toCsvRow(), resumed.getResult().toCsvRow());
+        assertEquals(straight.getResult().getTotalNumberOfCalls(), resumed.getResult().getTotalNumberOfCalls());
+        assertEquals(straight.getResult().getNumCallsBlocked(), resumed.getResult().getNumCallsBlocked());
+        assertEquals(straight.getResult().getNumberOfDroppedCalls(), resumed.getResult().getNumberOfDroppedCalls());
+        assertEquals(straight.getNumberOfEvents(), resumed.getNumberOfEvents());
+        assertEquals(straight.getClock(), resumed.getClock(), 0);
+    }
+
+    // A run saved after its warm up period continues to the same result
+    @Test
+    public void resumesAfterWarmUp() throws IOException {
+        assertResumesIdentically(createConfig(), 12345);
+    }
+
+    // A run saved during its warm up period still discards the warm up calls when continued
+    @Test
+    public void resumesDuringWarmUp() throws IOException {
+        assertResumesIdentically(createConfig("--fel=calendar", "--metrics=true"), 4321);
+    }
+
+    // A run saved several times, each time continuing the restored run, still continues to the same result
+    @Test
+    public void resumesAfterSeveralCheckpoints() throws IOException {
+        assertResumesIdentically(createConfig("--warmup.detection=mser-5"), 5000, 15000, 25000);
+    }
+
+    // A run logging its events keeps logging them across a checkpoint, to the same log as in one go
+    @Test
+    public void logsEventsAcrossCheckpoint() throws IOException {
+        Path straightLog = Files.createDirectory(directory.resolve("straight"));
+        Path resumedLog = Files.createDirectory(directory.resolve("resumed"));
+        new Simulator(createConfig("--event.log=" + straightLog), SEED).start();
+
+        ScenarioConfig config = createConfig("--event.log=" + resumedLog);
+        Simulator simulator = new Simulator(config, SEED);
+        simulator.runUntil(12345);
+        Path checkpoint = directory.resolve("run.bin");
+        simulator.checkpoint(checkpoint);
+        // A restored run replaces the events logged past its checkpoint
+        new Simulator(config, SEED).start();
+        Simulator.restore(checkpoint, config).start();
+
+        String name = "events-10-0-" + SEED + ".bin";
+        assertArrayEquals(Files.readAllBytes(straightLog.resolve(name)), Files.readAllBytes(resumedLog.resolve(name)));
+    }
+
+    // A saved run cannot be continued with other stations or channels
+    @Test
+    public void rejectsOtherChannels() throws IOException {
+        Simulator simulator = new Simulator(createConfig(), SEED);
+        simulator.runUntil(1000);
+        Path checkpoint = directory.resolve("run.bin");
+        simulator.checkpoint(checkpoint);
+        assertThrows(IllegalArgumentException.class,
+                () -> Simulator.restore(checkpoint, createConfig("--channels=12")));
+    }
+}
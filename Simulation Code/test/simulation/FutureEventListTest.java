@@ -0,0 +1,103 @@
+package simulation;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.NoSuchElementException;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the ordering of the {@link HeapEventList} and the
+ * {@link CalendarEventList}
+ */
+public class FutureEventListTest {
+
+    // Both implementations of the future event list
+    private static FutureEventList[] createLists() {
+        return new FutureEventList[] { new HeapEventList(), new CalendarEventList() };
+    }
+
+    // The events come out in time order, whatever the order they are added
+    @Test
+    public void removesEventsInTimeOrder() {
+        for (FutureEventList fel : createLists()) {
+            RandomStream random = new RandomStream(1);
+            for (int event = 0; event < 10000; event++) {
+                fel.add(random.nextDouble() * 1000, event);
+            }
+            boolean[] removed = new boolean[10000];
+            double lastTime = Double.NEGATIVE_INFINITY;
+            while (!fel.isEmpty()) {
+                double time = fel.peekTime();
+                assertTrue(time >= lastTime, fel.getClass().getSimpleName() + " went back in time");
+                int event = fel.remove();
+                assertTrue(!removed[event], "Event " + event + " removed twice");
+                removed[event] = true;
+                lastTime = time;
+            }
+            for (boolean eventRemoved : removed) {
+                assertTrue(eventRemoved);
+            }
+        }
+    }
+
+    // The events of the same time come out in the order they are added
+    @Test
+    public void breaksTiesInAdditionOrder() {
+        for (FutureEventList fel : createLists()) {
+            fel.add(2, 0);
+            fel.add(1, 1);
+            fel.add(2, 2);
+            fel.add(3, 3);
+            fel.add(1, 4);
+            fel.add(2, 5);
+            fel.add(1, 6);
+            int[] order = new int[7];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = fel.remove();
+            }
+            assertArrayEquals(new int[] { 1, 4, 6, 0, 2, 5, 3 }, order);
+        }
+    }
+
+    // The heap and the calendar give the same sequence in a hold model with many equal times
+    @Test
+    public void heapAndCalendarAgreeOnHoldModel() {
+        FutureEventList heap = new HeapEventList();
+        FutureEventList calendar = new CalendarEventList();
+        RandomStream random = new RandomStream(2);
+        for (int event = 0; event < 500; event++) {
+            double time = Math.floor(random.nextDouble() * 50);
+            heap.add(time, event);
+            calendar.add(time, event);
+        }
+        for (int i = 0; i < 100000; i++) {
+            double time = heap.peekTime();
+            assertEquals(time, calendar.peekTime());
+            int event = heap.remove();
+            assertEquals(event, calendar.remove(), "Different event at hold " + i);
+            // Reschedule the event a whole number of time units later, so the times often tie
+            double next = time + Math.floor(random.nextDouble() * 20);
+            heap.add(next, event);
+            calendar.add(next, event);
+        }
+        assertEquals(heap.size(), calendar.size());
+    }
+
+    // Removing from an empty list fails
+    @Test
+    public void failsWhenEmpty() {
+        for (FutureEventList fel : createLists()) {
+            assertThrows(NoSuchElementException.class, fel::remove);
+            assertThrows(NoSuchElementException.class, fel::peekTime);
+            fel.add(5, 7);
+            assertEquals(5.0, fel.peekTime());
+            assertEquals(1, fel.size());
+            assertEquals(7, fel.remove());
+            assertTrue(fel.isEmpty());
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package simulation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the alias table sampling of {@link EmpiricalDistribution} and of
+ * the maximum likelihood fits of the input distributions on data of known
+ * distribution
+ */
+public class InputDistributionTest {
+
+    // Draw values from a distribution
+    private static double[] sample(InputDistribution distribution, int numberOfValues, long seed) {
+        VariateBuffer random = new VariateBuffer(new RandomStream(seed), distribution.getVariateKind(), false);
+        double[] values = new double[numberOfValues];
+        for (int i = 0; i < numberOfValues; i++) {
+            values[i] = distribution.sample(random);
+        }
+        return values;
+    }
+
+    // The bins of an empirical distribution are drawn with the frequencies of the data
+    @Test
+    public void samplesEmpiricalBinFrequencies() {
+        // 100 values in the 10 bins of width 0.9 from 0.5 to 9.5, bin k holding the values k + 0.5
+        int[] counts = { 1, 2, 3, 4, 5, 10, 15, 20, 25, 15 };
+        double[] data = new double[100];
+        int n = 0;
+        for (int bin = 0; bin < counts.length; bin++) {
+            for (int i = 0; i < counts[bin]; i++) {
+                data[n++] = bin + 0.5;
+            }
+        }
+        InputDistribution distribution = new EmpiricalDistribution(data);
+
+        int numberOfSamples = 1000000;
+        int[] sampled = new int[counts.length];
+        for (double x : sample(distribution, numberOfSamples, 7)) {
+            assertTrue(x >= 0.5 && x <= 9.5, "Sample " + x + " out of the range of the data");
+            sampled[Math.min((int) ((x - 0.5) / 0.9), counts.length - 1)]++;
+        }
+        for (int bin = 0; bin < counts.length; bin++) {
+            assertEquals(counts[bin] / 100.0, (double) sampled[bin] / numberOfSamples, 0.003, "Bin " + bin);
+        }
+    }
+
+    // The fits of the normal and exponential distributions match the mean and variance of the data
+    @Test
+    public void fitsMomentsOfData() {
+        double[] data = { 1, 2, 3, 4, 5 };
+        NormalDistribution normal = NormalDistribution.fit(data);
+        assertEquals(3, normal.getMean(), 1e-12);
+        assertEquals(2, normal.getVariance(), 1e-12);
+        assertEquals(3, ExponentialDistribution.fit(data).getMean(), 1e-12);
+    }
+
+    // The gamma and Weibull fits recover the distribution a large sample is drawn from
+    @Test
+    public void recoversSampledDistributions() {
+        InputDistribution[] distributions = { new GammaDistribution(2.5, 0.55), new GammaDistribution(0.7, 3),
+                new WeibullDistribution(1.5, 2), new WeibullDistribution(0.6, 10), new LognormalDistribution(1, 0.5) };
+        for (InputDistribution distribution : distributions) {
+            String family = distribution.toString().substring(0, distribution.toString().indexOf('('));
+            InputDistribution fitted = DistributionFitter.fit(family, sample(distribution, 200000, 11));
+            assertEquals(distribution.getMean(), fitted.getMean(), 0.02 * distribution.getMean(),
+                    "Mean of " + fitted + " fitted to " + distribution);
+            assertEquals(distribution.getVariance(), fitted.getVariance(), 0.05 * distribution.getVariance(),
+                    "Variance of " + fitted + " fitted to " + distribution);
+        }
+    }
+
+    // The best family of a large sample is the one it is drawn from, or for a normal sample its truncation
+    // at the extremes of the sample, whose likelihood gain is as large as its penalty for the bounds
+    @Test
+    public void picksFamilyOfSample() {
+        assertTrue(DistributionFitter.fitBest(sample(new GammaDistribution(2.5, 0.55), 20000, 13)).toString()
+                .startsWith("gamma("));
+        assertTrue(DistributionFitter.fitBest(sample(new WeibullDistribution(0.6, 10), 20000, 17)).toString()
+                .startsWith("weibull("));
+        String best = DistributionFitter.fitBest(sample(new NormalDistribution(120, 9), 20000, 19)).toString();
+        assertTrue(best.startsWith("normal(") || best.startsWith("truncated-normal("), best);
+    }
+
+    // The truncated normal distribution counts its fitted bounds among its parameters
+    @Test
+    public void countsTruncationBounds() {
+        InputDistribution distribution = TruncatedNormalDistribution.fit(
+                sample(new TruncatedNormalDistribution(100, 20, 60, 150), 1000, 23));
+        assertEquals(4, distribution.getNumberOfParameters());
+    }
+
+    // A zero in the data rules the Weibull distribution out instead of giving it an infinite likelihood
+    @Test
+    public void rejectsZeroForWeibull() {
+        double[] data = sample(new WeibullDistribution(0.6, 10), 1000, 29);
+        data[0] = 0;
+        assertEquals(Double.NEGATIVE_INFINITY, new WeibullDistribution(0.6, 10).logDensity(0));
+        assertThrows(IllegalArgumentException.class, () -> WeibullDistribution.fit(data));
+        assertFalse(DistributionFitter.fitBest(data).toString().startsWith("weibull("));
+    }
+
+    // A normal or lognormal distribution without spread has no density, so it is rejected
+    @Test
+    public void rejectsZeroStandardDeviation() {
+        assertThrows(IllegalArgumentException.class, () -> new NormalDistribution(120, 0));
+        assertThrows(IllegalArgumentException.class, () -> new LognormalDistribution(1, 0));
+        assertThrows(IllegalArgumentException.class, () -> NormalDistribution.fit(new double[] { 5, 5, 5 }));
+    }
+}
@@ -0,0 +1,71 @@
+package simulation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the keys {@link ScenarioConfig#validate} rejects with the
+ * partitioned run, in both synchronization modes, and with each other, and
+ * of the inter-arrival time distribution it resolves
+ */
+public class ScenarioConfigTest {
+
+    private static final String[] SYNCHRONIZATIONS = { "conservative", "optimistic" };
+    private static final String[] UNSUPPORTED = { "--metrics=true", "--event.log=.", "--progress=10",
+            "--output.trace=true", "--trace=calls.csv", "--estimation=batch-means", "--warmup.detection=mser-5" };
+
+    // Every key the partitions do not record or support is rejected, whatever the synchronization
+    @Test
+    public void rejectsUnsupportedKeysWithPartitions() {
+        for (String synchronization : SYNCHRONIZATIONS) {
+            for (String key : UNSUPPORTED) {
+                assertThrows(IllegalArgumentException.class, () -> ScenarioConfig.fromArgs(new String[] {
+                        "--parallel.partitions=4", "--parallel.sync=" + synchronization, key }));
+            }
+        }
+    }
+
+    // The station metrics cannot be restarted at a warm up period detected after the fact
+    @Test
+    public void rejectsMetricsWithDetectedWarmUp() {
+        assertThrows(IllegalArgumentException.class, () -> ScenarioConfig.fromArgs(new String[] {
+                "--metrics=true", "--warmup.detection=mser-5" }));
+    }
+
+    // The forks of one warmed-up run cannot log their events, under any of their scenarios
+    @Test
+    public void rejectsEventLogWithForks() {
+        for (String fork : new String[] { "--fork.reservations=0,1", "--fork.interarrival=10,20" }) {
+            assertThrows(IllegalArgumentException.class, () -> ScenarioConfig.fromArgs(new String[] {
+                    "--event.log=.", fork }));
+        }
+    }
+
+    // A given inter-arrival mean scales the given distribution to it, instead of being replaced by its mean
+    @Test
+    public void scalesInterArrivalTimeDistributionToGivenMean() throws IOException {
+        ScenarioConfig config = ScenarioConfig.fromArgs(new String[] { "--interarrival.distribution=gamma(2, 1)",
+                "--interarrival.mean=3" });
+        assertEquals(3, config.getInterArrivalTimeMean(), 0);
+        assertEquals(2, config.getInterArrivalTimeDistribution().getMean(), 1e-12);
+        config = ScenarioConfig.fromArgs(new String[] { "--interarrival.distribution=gamma(2, 1)" });
+        assertEquals(2, config.getInterArrivalTimeMean(), 1e-12);
+    }
+
+    // The same keys are accepted by a sequential run, and the partitions accept either future event list
+    @Test
+    public void acceptsSupportedKeys() throws IOException {
+        for (String key : new String[] { "--metrics=true", "--progress=10", "--output.trace=true" }) {
+            assertEquals(0, ScenarioConfig.fromArgs(new String[] { key }).getPartitions());
+        }
+        for (String synchronization : SYNCHRONIZATIONS) {
+            ScenarioConfig config = ScenarioConfig.fromArgs(new String[] { "--parallel.partitions=4",
+                    "--parallel.sync=" + synchronization, "--fel=calendar" });
+            assertEquals(4, config.getPartitions());
+        }
+    }
+}
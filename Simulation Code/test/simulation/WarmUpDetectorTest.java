@@ -0,0 +1,65 @@
+package simulation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the MSER-5 truncation of {@link WarmUpDetector} on synthetic
+ * call outcome series with a known transient
+ */
+public class WarmUpDetectorTest {
+
+    private static final int CALLS_PER_BATCH = WarmUpDetector.CALLS_PER_BATCH;
+
+    // Get a series whose dropped calls rate falls linearly from 80% to 30% over the given number of
+    // batches, and then stays at 10%, with no blocked call
+    private static OutcomeSeries createTransient(int transientBatches, int numberOfBatches) {
+        OutcomeSeries series = new OutcomeSeries(numberOfBatches * CALLS_PER_BATCH, CALLS_PER_BATCH);
+        RandomStream random = new RandomStream(3);
+        for (int call = 1; call <= numberOfBatches * CALLS_PER_BATCH; call++) {
+            int batch = (call - 1) / CALLS_PER_BATCH;
+            double rate = batch < transientBatches ? 0.8 - 0.5 * batch / transientBatches : 0.1;
+            if (random.nextDouble() < rate) {
+                series.recordDropped(call);
+            }
+        }
+        return series;
+    }
+
+    // After the run, the truncation point is at the end of the transient
+    @Test
+    public void truncatesTransientAfterRun() {
+        int truncation = WarmUpDetector.getTruncationBin(createTransient(2000, 20001));
+        assertTrue(truncation >= 1800 && truncation <= 2200, "Truncation at " + truncation);
+    }
+
+    // A stationary series is not truncated
+    @Test
+    public void keepsStationarySeries() {
+        int truncation = WarmUpDetector.getTruncationBin(createTransient(0, 20001));
+        assertTrue(truncation < 200, "Truncation at " + truncation);
+    }
+
+    // During the run, the truncation point is accepted only once it lies in the first half of the batches
+    @Test
+    public void detectsTransientDuringRun() {
+        OutcomeSeries series = createTransient(2000, 20000);
+        // Too few batches to search past the transient
+        assertEquals(-1, WarmUpDetector.detectTruncationBin(series, 3000));
+        // The minimum is past the first half of the batches, the transient may go on
+        assertEquals(-1, WarmUpDetector.detectTruncationBin(createTransient(3000, 20000), 5000));
+        int truncation = WarmUpDetector.detectTruncationBin(series, 6000);
+        assertTrue(truncation >= 1800 && truncation <= 2200, "Truncation at " + truncation);
+    }
+
+    // The online search gives the same truncation as the search after the run on the same batches
+    @Test
+    public void agreesWithSearchAfterRun() {
+        OutcomeSeries series = createTransient(1000, 20001);
+        int afterRun = WarmUpDetector.getTruncationBin(series);
+        int duringRun = WarmUpDetector.detectTruncationBin(series, 20000);
+        assertTrue(Math.abs(afterRun - duringRun) <= 50, afterRun + " after the run, " + duringRun + " during it");
+    }
+}
@@ -0,0 +1,55 @@
+package simulation.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import simulation.ConvergenceTrace;
+
+/**
+ * The class {@code ConvergenceTraceBenchmark} to measure the statistics
+ * recorded for every generated call (Simulator.calcStats), including the
+ * decimation of a full trace
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ConvergenceTraceBenchmark {
+
+    // Same capacity as the simulator's trace
+    private static final int CAPACITY = 4096;
+    // Calls of one default run, after which the trace starts over
+    private static final int CALLS_PER_RUN = 250000;
+
+    private ConvergenceTrace trace;
+    private int generatedCalls;
+
+    @Setup
+    public void setUp() {
+        trace = new ConvergenceTrace(CAPACITY);
+        generatedCalls = 0;
+    }
+
+    @Benchmark
+    public int record() {
+        if (generatedCalls == CALLS_PER_RUN) {
+            trace = new ConvergenceTrace(CAPACITY);
+            generatedCalls = 0;
+        }
+        generatedCalls++;
+        trace.record(generatedCalls, generatedCalls >>> 6, generatedCalls >>> 8);
+        return trace.size();
+    }
+}
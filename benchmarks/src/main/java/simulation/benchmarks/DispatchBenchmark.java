@@ -0,0 +1,110 @@
+package simulation.benchmarks;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import simulation.Event;
+
+/**
+ * The class {@code DispatchBenchmark} to compare the type code switch of the
+ * event loop with the instanceof chain over event objects it replaced. Both
+ * dispatch the same mix of initiation, handover and termination events
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DispatchBenchmark {
+
+    private static final int EVENTS = 4096;
+
+    private int[] types;
+    private int[] stations;
+    private OldEvent[] oldEvents;
+
+    // Replicas of the former event classes
+    private static class OldEvent {
+        int station;
+    }
+
+    private static class OldCallInitiationEvent extends OldEvent {
+    }
+
+    private static class OldCallHandoverEvent extends OldEvent {
+    }
+
+    private static class OldCallTerminationEvent extends OldEvent {
+    }
+
+    @Setup
+    public void setUp() {
+        // About one initiation, one and a half handovers and one termination per call
+        SplittableRandom random = new SplittableRandom(42);
+        types = new int[EVENTS];
+        stations = new int[EVENTS];
+        oldEvents = new OldEvent[EVENTS];
+        for (int i = 0; i < EVENTS; i++) {
+            double u = random.nextDouble();
+            int type = u < 0.29 ? Event.CALL_INITIATION : u < 0.71 ? Event.CALL_HANDOVER : Event.CALL_TERMINATION;
+            types[i] = type;
+            stations[i] = random.nextInt(20);
+            OldEvent event = type == Event.CALL_INITIATION ? new OldCallInitiationEvent()
+                    : type == Event.CALL_HANDOVER ? new OldCallHandoverEvent() : new OldCallTerminationEvent();
+            event.station = stations[i];
+            oldEvents[i] = event;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public int typeCodeSwitch() {
+        int sum = 0;
+        for (int i = 0; i < EVENTS; i++) {
+            switch (types[i]) {
+            case Event.CALL_INITIATION:
+                sum += stations[i];
+                break;
+            case Event.CALL_HANDOVER:
+                sum += stations[i] << 1;
+                break;
+            case Event.CALL_TERMINATION:
+                sum -= stations[i];
+                break;
+            default:
+                break;
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public int instanceofChain() {
+        int sum = 0;
+        for (int i = 0; i < EVENTS; i++) {
+            OldEvent event = oldEvents[i];
+            if (event instanceof OldCallInitiationEvent) {
+                sum += event.station;
+            } else if (event instanceof OldCallHandoverEvent) {
+                sum += event.station << 1;
+            } else if (event instanceof OldCallTerminationEvent) {
+                sum -= event.station;
+            }
+        }
+        return sum;
+    }
+}
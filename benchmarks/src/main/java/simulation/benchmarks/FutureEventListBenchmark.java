@@ -0,0 +1,70 @@
+package simulation.benchmarks;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import simulation.CalendarEventList;
+import simulation.FutureEventList;
+import simulation.HeapEventList;
+
+/**
+ * The class {@code FutureEventListBenchmark} to measure the future event lists
+ * with the classic hold model: each operation removes the earliest event and
+ * adds it back with an exponential increment, keeping the size constant
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FutureEventListBenchmark {
+
+    private static final int INCREMENTS = 1 << 16;
+
+    @Param({ "heap", "calendar" })
+    public String fel;
+
+    // Pending events; the highway keeps about 100 at the default load
+    @Param({ "16", "128", "1024", "16384" })
+    public int size;
+
+    private FutureEventList futureEventList;
+    private double[] increments;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        futureEventList = "calendar".equals(fel) ? new CalendarEventList() : new HeapEventList();
+        // Precompute the increments so that the benchmark measures only the list
+        SplittableRandom random = new SplittableRandom(42);
+        increments = new double[INCREMENTS];
+        for (int i = 0; i < INCREMENTS; i++) {
+            increments[i] = -Math.log(1 - random.nextDouble());
+        }
+        for (int i = 0; i < size; i++) {
+            futureEventList.add(increments[i], i);
+        }
+        next = size;
+    }
+
+    @Benchmark
+    public int hold() {
+        double time = futureEventList.peekTime();
+        int event = futureEventList.remove();
+        futureEventList.add(time + increments[next++ & (INCREMENTS - 1)], event);
+        return event;
+    }
+}
@@ -0,0 +1,84 @@
+package simulation.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import simulation.RandomNumberGenerator;
+import simulation.ScenarioConfig;
+
+/**
+ * The class {@code RandomNumberGeneratorBenchmark} to measure the generation
+ * of each input variate, and of the full set drawn for one call
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RandomNumberGeneratorBenchmark {
+
+    @Param({ "false", "true" })
+    public boolean antithetic;
+
+    private RandomNumberGenerator randomNumberGenerator;
+
+    @Setup
+    public void setUp() {
+        ScenarioConfig config = new ScenarioConfig();
+        config.setAntithetic(antithetic);
+        randomNumberGenerator = new RandomNumberGenerator(config, 42);
+    }
+
+    @Benchmark
+    public double interArrivalTime() {
+        return randomNumberGenerator.getInterArrivalTime();
+    }
+
+    @Benchmark
+    public int baseStation() {
+        return randomNumberGenerator.getBaseStation();
+    }
+
+    @Benchmark
+    public double carSpeed() {
+        return randomNumberGenerator.getCarSpeed();
+    }
+
+    @Benchmark
+    public double carPos() {
+        return randomNumberGenerator.getCarPos();
+    }
+
+    @Benchmark
+    public double callDuration() {
+        return randomNumberGenerator.getCallDuration();
+    }
+
+    @Benchmark
+    public Object carDirection() {
+        return randomNumberGenerator.getCarDirection();
+    }
+
+    @Benchmark
+    public void call(Blackhole blackhole) {
+        blackhole.consume(randomNumberGenerator.getInterArrivalTime());
+        blackhole.consume(randomNumberGenerator.getBaseStation());
+        blackhole.consume(randomNumberGenerator.getCarSpeed());
+        blackhole.consume(randomNumberGenerator.getCarPos());
+        blackhole.consume(randomNumberGenerator.getCallDuration());
+        blackhole.consume(randomNumberGenerator.getCarDirection());
+    }
+}
@@ -0,0 +1,85 @@
+package simulation.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import simulation.ScenarioConfig;
+import simulation.Simulator;
+
+/**
+ * The class {@code SimulatorBenchmark} to measure the event loop end to end,
+ * one short run per invocation, under varying station counts, loads and
+ * future event lists. The {@code events} counter gives the events per second
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SimulatorBenchmark {
+
+    private static final int TOTAL_CALLS = 20000;
+    private static final int WARMUP_CALLS = 2000;
+
+    @Param({ "10", "20", "40" })
+    public int stations;
+
+    // Offered load relative to the default inter-arrival time mean
+    @Param({ "0.5", "1.0", "2.0" })
+    public double load;
+
+    @Param({ "heap", "calendar" })
+    public String fel;
+
+    private ScenarioConfig config;
+    private long seed;
+
+    /**
+     * The events handled by the measured runs, reported as a rate
+     */
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class EventCounters {
+
+        public long events;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            events = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        config = new ScenarioConfig();
+        config.setNumberOfStations(stations);
+        config.setTotalCalls(TOTAL_CALLS);
+        config.setWarmUpCalls(WARMUP_CALLS);
+        config.setInterArrivalTimeMean(config.getInterArrivalTimeMean() / load);
+        config.setFutureEventList(fel);
+        seed = 42;
+    }
+
+    @Benchmark
+    public int run(EventCounters counters) {
+        // A fresh seed per run, drawn in sequence so that trials are repeatable
+        Simulator simulator = new Simulator(config, seed++);
+        simulator.start();
+        counters.events += simulator.getNumberOfEvents();
+        return simulator.getResult().getNumberOfDroppedCalls();
+    }
+}